@@ -0,0 +1,123 @@
+package com.book.library.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.book.library.LibraryApplication;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Borrow and return through the real service, transactions and schema (Flyway on the
+ * in-memory MySQL-mode H2 database of the test profile). Each invocation is one cycle.
+ * {@link ReadCounters} reports the statements and entity rows each cycle reads; run with
+ * {@code -prof gc} for the bytes allocated per cycle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowReturnBenchmark {
+
+	private static final int BOOKS = 64;
+
+	private ConfigurableApplicationContext context;
+
+	private BorrowBookHistoryService borrowBookHistoryService;
+
+	private List<Long> bookIds;
+
+	private Long borrowerId;
+
+	private int next;
+
+	private Statistics statistics;
+
+	/**
+	 * Totals for the iteration; divide by cycles for the per-cycle figures.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class ReadCounters {
+
+		public long cycles;
+
+		public long statements;
+
+		public long entitiesLoaded;
+
+		public long entitiesFetched;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(LibraryApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("test")
+				.properties("logging.level.root=WARN")
+				.run();
+		borrowBookHistoryService = context.getBean(BorrowBookHistoryService.class);
+		statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+		BookService bookService = context.getBean(BookService.class);
+		bookIds = IntStream.range(0, BOOKS).mapToObj(i ->
+				bookService.register(new BookDTO(null, "978-2-00-" + i, "Benchmark Title " + i, "Benchmark Author")).getId())
+				.toList();
+		Borrower borrower = new Borrower();
+		borrower.setName("Benchmark Borrower");
+		borrower.setEmail("benchmark@example.com");
+		borrowerId = context.getBean(BorrowerRepository.class).save(borrower).getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public BorrowBookHistoryDTO borrowAndReturn(ReadCounters counters) {
+		long statements = statistics.getPrepareStatementCount();
+		long loaded = statistics.getEntityLoadCount();
+		long fetched = statistics.getEntityFetchCount();
+		Long bookId = bookIds.get(next++ % BOOKS);
+		BorrowBookReq req = new BorrowBookReq();
+		req.setBookId(bookId);
+		req.setBorrowerId(borrowerId);
+		borrowBookHistoryService.borrowBook(req);
+		BorrowBookHistoryDTO returned = borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
+		counters.cycles++;
+		counters.statements += statistics.getPrepareStatementCount() - statements;
+		counters.entitiesLoaded += statistics.getEntityLoadCount() - loaded;
+		counters.entitiesFetched += statistics.getEntityFetchCount() - fetched;
+		return returned;
+	}
+}
@@ -0,0 +1,161 @@
+package com.book.library.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.book.library.config.LocalDateTimeJsonSerializer;
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.JsonDateFormat;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.GlobalResponse;
+import com.book.library.model.Book;
+import com.book.library.model.BorrowBookHistory;
+import com.book.library.model.Borrower;
+import com.book.library.utils.CommonUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+
+/**
+ * CPU-only hot paths: DTO construction, date formatting, the getAllBooks entity to DTO
+ * mapping and GlobalResponse serialization. No database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoBenchmark {
+
+	@Param({ "50", "1000" })
+	private int books;
+
+	@Param({ "LEGACY", "ISO", "EPOCH_MILLIS" })
+	private JsonDateFormat dateFormat;
+
+	private BorrowBookHistory history;
+
+	private List<Book> catalog;
+
+	private GlobalResponse<List<BookDTO>> bookListResponse;
+
+	private GlobalResponse<BorrowBookHistoryDTO> historyResponse;
+
+	private ObjectMapper objectMapper;
+
+	@Setup
+	public void setUp() {
+		catalog = IntStream.range(0, books).mapToObj(DtoBenchmark::book).toList();
+
+		Borrower borrower = new Borrower(1L, "Benchmark Borrower", "bench@example.com");
+		history = new BorrowBookHistory();
+		history.setId(1L);
+		history.setBook(catalog.get(0));
+		history.setBorrower(borrower);
+		history.setBorrowDate(LocalDateTime.now().minusDays(3));
+		history.setReturnDate(LocalDateTime.now());
+
+		// the history dates' serializer in the benchmarked format, as Spring creates it for the application mapper
+		objectMapper = JsonMapper.builder().findAndAddModules()
+				.handlerInstantiator(new HandlerInstantiator() {
+					@Override
+					public JsonSerializer<?> serializerInstance(SerializationConfig config, Annotated annotated,
+							Class<?> serClass) {
+						return serClass == LocalDateTimeJsonSerializer.class
+								? new LocalDateTimeJsonSerializer(dateFormat, ZoneId.systemDefault())
+								: null;
+					}
+
+					@Override
+					public JsonDeserializer<?> deserializerInstance(DeserializationConfig config, Annotated annotated,
+							Class<?> deserClass) {
+						return null;
+					}
+
+					@Override
+					public KeyDeserializer keyDeserializerInstance(DeserializationConfig config, Annotated annotated,
+							Class<?> keyDeserClass) {
+						return null;
+					}
+
+					@Override
+					public TypeResolverBuilder<?> typeResolverBuilderInstance(MapperConfig<?> config, Annotated annotated,
+							Class<?> builderClass) {
+						return null;
+					}
+
+					@Override
+					public TypeIdResolver typeIdResolverInstance(MapperConfig<?> config, Annotated annotated,
+							Class<?> resolverClass) {
+						return null;
+					}
+				})
+				.build();
+		bookListResponse = GlobalResponse.success("Books fetched successfully", catalog.stream().map(BookDTO::new).toList());
+		historyResponse = GlobalResponse.success("Book borrowed successfully", new BorrowBookHistoryDTO(history));
+	}
+
+	@Benchmark
+	public BorrowBookHistoryDTO borrowBookHistoryDto() {
+		return new BorrowBookHistoryDTO(history);
+	}
+
+	@Benchmark
+	public String formatLocalDateTime() {
+		return CommonUtils.formatLocalDateTime(history.getBorrowDate(), CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS);
+	}
+
+	@Benchmark
+	public List<BookDTO> getAllBooksMapping() {
+		// the same mapping BookServiceImpl.getAllBooks applies to the findAll result
+		return catalog.stream().map(BookDTO::new).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public byte[] serializeBookListResponse() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(bookListResponse);
+	}
+
+	@Benchmark
+	public byte[] serializeHistoryResponse() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(historyResponse);
+	}
+
+	private static Book book(int i) {
+		Book book = new Book();
+		book.setId((long) i + 1);
+		book.setIsbnNumber("978-1-00-" + i);
+		book.setTitle("Benchmark Title " + i);
+		book.setAuthor("Benchmark Author");
+		book.setCreatedDate(LocalDateTime.now());
+		return book;
+	}
+}
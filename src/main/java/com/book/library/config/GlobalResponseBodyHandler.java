@@ -3,8 +3,10 @@ package com.book.library.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -15,6 +17,7 @@ import com.book.library.dto.GlobalResponse;
 import com.book.library.exception.BusinessException;
 import com.book.library.exception.ResourceAlreadyExistsException;
 import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.exception.ServiceUnavailableException;
 
 @ControllerAdvice(annotations = { RestController.class })
 public class GlobalResponseBodyHandler {
@@ -36,6 +39,24 @@ public class GlobalResponseBodyHandler {
                 .body(GlobalResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<GlobalResponse<Void>> handleLockFailure(PessimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(GlobalResponse.error("The resource is busy with another request, please retry."));
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<GlobalResponse<Void>> handleConnectionUnavailable(CannotCreateTransactionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(GlobalResponse.error("The service is busy, please retry."));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<GlobalResponse<Void>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(GlobalResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<GlobalResponse<Map<String, String>>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
@@ -0,0 +1,75 @@
+package com.book.library.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.JsonDateFormat;
+import com.book.library.utils.CommonUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes LocalDateTime straight into the JSON output in the configured {@link JsonDateFormat},
+ * so DTOs can carry the date itself instead of a pre-formatted String. Only the fields that kept
+ * the legacy format select it with {@code @JsonSerialize(using = ...)}; every other date is ISO.
+ */
+public class LocalDateTimeJsonSerializer extends StdSerializer<LocalDateTime> {
+
+	private static final long serialVersionUID = 4180960520367452716L;
+
+	// reused per thread so the legacy format is written without allocating
+	private static final ThreadLocal<char[]> BUFFER = ThreadLocal
+			.withInitial(() -> new char[CommonUtils.STANDARD_DATE_TIME_LENGTH]);
+
+	private final JsonDateFormat dateFormat;
+
+	private final ZoneId zoneId;
+
+	/**
+	 * Created by the API's ObjectMapper, which instantiates serializers through Spring.
+	 */
+	@Autowired
+	public LocalDateTimeJsonSerializer(@Value("${library.json.date-format:legacy}") JsonDateFormat dateFormat) {
+		this(dateFormat, ZoneId.systemDefault());
+	}
+
+	/**
+	 * Created by ObjectMappers built outside Spring.
+	 */
+	public LocalDateTimeJsonSerializer() {
+		this(JsonDateFormat.LEGACY, ZoneId.systemDefault());
+	}
+
+	public LocalDateTimeJsonSerializer(JsonDateFormat dateFormat, ZoneId zoneId) {
+		super(LocalDateTime.class);
+		this.dateFormat = dateFormat;
+		this.zoneId = zoneId;
+	}
+
+	@Override
+	public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		switch (dateFormat) {
+		case ISO:
+			gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+			break;
+		case EPOCH_MILLIS:
+			gen.writeNumber(value.atZone(zoneId).toInstant().toEpochMilli());
+			break;
+		default:
+			char[] buf = BUFFER.get();
+			int length = CommonUtils.writeStandardDateTime(value, buf);
+			if (length > 0) {
+				gen.writeString(buf, 0, length);
+			} else {
+				gen.writeString(CommonUtils.formatLocalDateTime(value, CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS));
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.book.library.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fails startup when the connection pool is larger than the pod's CPU limit can use. A pod
+ * throttled by its CPU quota holds its connections longer instead of doing more work with
+ * them, so connections past max-connections-per-cpu only add queueing on MySQL. Active when
+ * library.pool.max-connections-per-cpu is set, as the k8s profile does; read replica pools
+ * have the primary's size and are covered by the same check.
+ */
+@Component
+@ConditionalOnProperty(name = "library.pool.max-connections-per-cpu")
+@Slf4j
+public class PoolSizingValidator {
+
+	private static final Path CGROUP_CPU_MAX = Path.of("/sys/fs/cgroup/cpu.max");
+
+	public PoolSizingValidator(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+			@Value("${spring.datasource.hikari.minimum-idle:-1}") int minimumIdle,
+			@Value("${library.pool.max-connections-per-cpu}") double maxConnectionsPerCpu,
+			@Value("${library.pool.cpu-limit-millis:0}") long cpuLimitMillis) {
+		double cpus = cpuLimitMillis > 0 ? cpuLimitMillis / 1000.0 : detectCpuLimit();
+		validate(maximumPoolSize, minimumIdle, maxConnectionsPerCpu, cpus);
+		log.info("Connection pool of {} validated for a CPU limit of {} ({} connections per CPU)",
+				maximumPoolSize, cpus, maxConnectionsPerCpu);
+	}
+
+	/**
+	 * The largest pool the CPU limit allows, never less than one connection.
+	 */
+	public static int maxPoolSize(double cpus, double maxConnectionsPerCpu) {
+		return Math.max(1, (int) Math.floor(cpus * maxConnectionsPerCpu));
+	}
+
+	public static void validate(int maximumPoolSize, int minimumIdle, double maxConnectionsPerCpu, double cpus) {
+		int allowed = maxPoolSize(cpus, maxConnectionsPerCpu);
+		if (maximumPoolSize > allowed) {
+			throw new IllegalStateException(String.format("Connection pool of %d exceeds %d for a CPU limit of %s"
+					+ " (%s connections per CPU); lower DB_POOL_MAX_SIZE or raise the CPU limit.",
+					maximumPoolSize, allowed, cpus, maxConnectionsPerCpu));
+		}
+		if (minimumIdle > maximumPoolSize) {
+			throw new IllegalStateException(String.format("Connection pool minimum idle %d exceeds its maximum size %d.",
+					minimumIdle, maximumPoolSize));
+		}
+	}
+
+	/**
+	 * The CPU quota of the container (cgroup v2 cpu.max, "quota period" or "max period"), or
+	 * the processors the JVM sees when there is none.
+	 */
+	private static double detectCpuLimit() {
+		try {
+			if (Files.isReadable(CGROUP_CPU_MAX)) {
+				Double quota = parseCpuMax(Files.readString(CGROUP_CPU_MAX));
+				if (quota != null) {
+					return quota;
+				}
+			}
+		} catch (IOException e) {
+			log.warn("CPU limit not read from {} : {}", CGROUP_CPU_MAX, e.getMessage());
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	public static Double parseCpuMax(String cpuMax) {
+		String[] fields = cpuMax.trim().split("\\s+");
+		if (fields.length != 2 || "max".equals(fields[0])) {
+			return null;
+		}
+		return Double.parseDouble(fields[0]) / Double.parseDouble(fields[1]);
+	}
+}
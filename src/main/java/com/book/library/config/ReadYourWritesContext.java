@@ -0,0 +1,73 @@
+package com.book.library.config;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * When the client of the current request last committed a write, in epoch millis of the
+ * primary database's clock, the clock of the replication heartbeat: taken from
+ * its cookie when the request starts and moved forward by every read-write transaction the
+ * request commits. Reads are only served by read replicas that have caught up to it. Threads
+ * outside a request have no context and may read from any read replica within the lag limit.
+ */
+public final class ReadYourWritesContext {
+
+	private static final ThreadLocal<ReadYourWritesContext> CURRENT = new ThreadLocal<>();
+
+	private volatile long lastWrite;
+
+	private volatile boolean written;
+
+	private ReadYourWritesContext(long lastWrite) {
+		this.lastWrite = lastWrite;
+	}
+
+	public static ReadYourWritesContext begin(long lastWrite) {
+		ReadYourWritesContext context = new ReadYourWritesContext(lastWrite);
+		CURRENT.set(context);
+		return context;
+	}
+
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * The last write of the current request's client, 0 if unknown.
+	 */
+	public static long currentLastWrite() {
+		ReadYourWritesContext context = CURRENT.get();
+		return context == null ? 0 : context.lastWrite;
+	}
+
+	/**
+	 * Records the commit time of the current read-write transaction, read from the primary's
+	 * clock once it has committed.
+	 */
+	static void watchCommit(LongSupplier primaryClock) {
+		ReadYourWritesContext context = CURRENT.get();
+		if (context == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				context.lastWrite = Math.max(context.lastWrite, primaryClock.getAsLong());
+				context.written = true;
+			}
+		});
+	}
+
+	public long getLastWrite() {
+		return lastWrite;
+	}
+
+	/**
+	 * Whether the request has committed a write of its own.
+	 */
+	public boolean isWritten() {
+		return written;
+	}
+}
@@ -0,0 +1,103 @@
+package com.book.library.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Carries a client's last write from request to request in a cookie, so that a client reading
+ * right after its own write is not answered by a read replica that has not applied it yet.
+ * The cookie is set when a request that committed a write starts its response, and expires
+ * once every read replica still in use is guaranteed to have the write.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String COOKIE_NAME = "LIBRARY_LAST_WRITE";
+
+	private final int cookieMaxAgeSeconds;
+
+	public ReadYourWritesFilter(long maxLagMillis) {
+		this.cookieMaxAgeSeconds = (int) Math.max(1, (maxLagMillis + 999) / 1000);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ReadYourWritesContext context = ReadYourWritesContext.begin(readLastWrite(request));
+		try {
+			filterChain.doFilter(request, new LastWriteCookieResponse(response, context));
+		} finally {
+			ReadYourWritesContext.end();
+		}
+	}
+
+	private long readLastWrite(HttpServletRequest request) {
+		if (request.getCookies() == null) {
+			return 0;
+		}
+		for (Cookie cookie : request.getCookies()) {
+			if (COOKIE_NAME.equals(cookie.getName())) {
+				try {
+					return Long.parseLong(cookie.getValue());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Adds the cookie just before the body is written, after the request's transactions have committed.
+	 */
+	private class LastWriteCookieResponse extends HttpServletResponseWrapper {
+
+		private final ReadYourWritesContext context;
+
+		private boolean cookieAdded;
+
+		LastWriteCookieResponse(HttpServletResponse response, ReadYourWritesContext context) {
+			super(response);
+			this.context = context;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			addLastWriteCookie();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			addLastWriteCookie();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			addLastWriteCookie();
+			super.flushBuffer();
+		}
+
+		private void addLastWriteCookie() {
+			if (cookieAdded || !context.isWritten() || isCommitted()) {
+				return;
+			}
+			cookieAdded = true;
+			Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(context.getLastWrite()));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			cookie.setMaxAge(cookieMaxAgeSeconds);
+			addCookie(cookie);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.book.library.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Read/write split, active when read replicas are configured (library.datasource.replica-urls).
+ * The primary pool is built from spring.datasource as before; every read replica gets a pool
+ * with the same settings. JPA, JdbcTemplate and Flyway all use the routing data source, which
+ * sends read-only transactions to the read replicas and everything else to the primary.
+ * Without read replicas Spring Boot's single pool is used unchanged.
+ */
+@Configuration
+@ConditionalOnExpression("!'${library.datasource.replica-urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+		dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+		return dataSource;
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+			@Value("${library.datasource.replica-urls}") List<String> replicaUrls,
+			@Value("${library.datasource.replica-username:}") String username,
+			@Value("${library.datasource.replica-password:}") String password,
+			@Value("${library.datasource.replica-connection-timeout-ms:1000}") long connectionTimeoutMillis,
+			@Value("${library.datasource.max-lag-ms:5000}") long maxLagMillis) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (String url : replicaUrls) {
+			HikariConfig config = new HikariConfig();
+			primaryDataSource.copyStateTo(config);
+			config.setJdbcUrl(url.trim());
+			config.setUsername(username);
+			config.setPassword(password);
+			config.setPoolName("replica-" + (replicas.size() + 1));
+			// a read replica that does not answer quickly is skipped rather than waited for
+			config.setConnectionTimeout(connectionTimeoutMillis);
+			// writes that slip through read-only transactions fail instead of diverging the copy
+			config.setReadOnly(true);
+			replicas.add(new HikariDataSource(config));
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMillis);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+	@Bean
+	public ReadYourWritesFilter readYourWritesFilter(@Value("${library.datasource.max-lag-ms:5000}") long maxLagMillis) {
+		return new ReadYourWritesFilter(maxLagMillis);
+	}
+}
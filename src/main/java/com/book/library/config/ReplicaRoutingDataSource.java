@@ -0,0 +1,223 @@
+package com.book.library.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands the connections of read-only transactions to a read replica and all others to the
+ * primary. It sits behind a LazyConnectionDataSourceProxy, so the target is picked at the
+ * first statement, once the transaction's read-only flag is set.
+ * <p>
+ * A read replica serves reads while the heartbeat it last returned is at most max-lag old and,
+ * inside a request, no older than the client's last write ({@link ReadYourWritesContext}); when
+ * none qualifies the read goes to the primary. A read replica that stops replicating or stops
+ * answering therefore drops out on its own within max-lag.
+ * <p>
+ * Heartbeats and last writes are both times of the primary's clock, so pods never compare their
+ * own clocks. Between heartbeats the primary's time is estimated from the last heartbeat plus
+ * the elapsed time of this JVM's monotonic clock, measured from before the heartbeat was
+ * stamped; the estimate is never behind the primary, which errs towards reading from it.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+
+	private final DataSource primary;
+
+	private final JdbcTemplate primaryJdbcTemplate;
+
+	private final List<Replica> replicas = new ArrayList<>();
+
+	private final long maxLagMillis;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private final Map<String, Counter> reads = new HashMap<>();
+
+	/**
+	 * The heartbeat last stamped on the primary, 0 until one is, and the System.nanoTime taken
+	 * just before stamping it.
+	 */
+	private volatile long primaryBeat;
+
+	private volatile long primaryBeatNanos;
+
+	public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaDataSources, long maxLagMillis) {
+		this.primary = primary;
+		this.primaryJdbcTemplate = new JdbcTemplate(primary);
+		this.maxLagMillis = maxLagMillis;
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		reads.put(PRIMARY, readCounter(PRIMARY));
+		for (HikariDataSource dataSource : replicaDataSources) {
+			Replica replica = new Replica(dataSource.getPoolName(), dataSource);
+			replicas.add(replica);
+			targets.put(replica.name, dataSource);
+			reads.put(replica.name, readCounter(replica.name));
+			Gauge.builder("library.datasource.replica.lag", replica,
+					r -> r.caughtUpTo == 0 || primaryBeat == 0 ? Double.NaN : (primaryTime() - r.caughtUpTo) / 1000.0)
+					.description("Age of the heartbeat last read from the read replica")
+					.tag("replica", replica.name)
+					.baseUnit("seconds")
+					.register(Metrics.globalRegistry);
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		setLenientFallback(false);
+	}
+
+	private static Counter readCounter(String target) {
+		return Counter.builder("library.datasource.reads")
+				.description("Read-only transactions by the database that served them")
+				.tag("target", target)
+				.register(Metrics.globalRegistry);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			ReadYourWritesContext.watchCommit(this::lastWriteTime);
+			return PRIMARY;
+		}
+		String target = pickReplica();
+		reads.get(target).increment();
+		return target;
+	}
+
+	/**
+	 * Round robin over the read replicas fresh enough for the current read, else the primary.
+	 */
+	private String pickReplica() {
+		if (primaryBeat == 0) {
+			return PRIMARY;
+		}
+		long now = primaryTime();
+		long lastWrite = ReadYourWritesContext.currentLastWrite();
+		int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = replicas.get((start + i) % replicas.size());
+			long caughtUpTo = replica.caughtUpTo;
+			if (caughtUpTo != 0 && now - caughtUpTo <= maxLagMillis && caughtUpTo >= lastWrite) {
+				return replica.name;
+			}
+		}
+		return PRIMARY;
+	}
+
+	/**
+	 * The primary's time now, in epoch millis of its clock: never earlier than it really is.
+	 */
+	private long primaryTime() {
+		return primaryBeat + (System.nanoTime() - primaryBeatNanos) / 1_000_000;
+	}
+
+	/**
+	 * When a write that just committed is on every read replica that returns this heartbeat or a
+	 * later one; a millisecond on, as a heartbeat stamped in the same millisecond may precede the
+	 * commit. Before the first heartbeat nothing is known, and the client reads from the primary
+	 * until its cookie expires.
+	 */
+	private long lastWriteTime() {
+		return primaryBeat == 0 ? Long.MAX_VALUE : primaryTime() + 1;
+	}
+
+	/**
+	 * A read replica that fails to hand out a connection is skipped until it answers a
+	 * heartbeat check again, and the read goes to the primary.
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		DataSource target = determineTargetDataSource();
+		try {
+			return target.getConnection();
+		} catch (SQLException e) {
+			if (target == primary) {
+				throw e;
+			}
+			for (Replica replica : replicas) {
+				if (replica.dataSource == target) {
+					log.warn("Read replica {} unavailable, reading from the primary : {}", replica.name, e.getMessage());
+					replica.caughtUpTo = 0;
+				}
+			}
+			return primary.getConnection();
+		}
+	}
+
+	/**
+	 * Stamps the heartbeat on the primary with its own clock, then reads how far each read
+	 * replica has got.
+	 */
+	@Scheduled(fixedDelayString = "${library.datasource.heartbeat-interval-ms:1000}",
+			initialDelayString = "${library.datasource.heartbeat-interval-ms:1000}")
+	public void checkReplicas() {
+		try {
+			long stampedAfter = System.nanoTime();
+			primaryJdbcTemplate.update("update replication_heartbeat set beat = greatest(beat, current_timestamp(3)) where id = 1");
+			long beat = primaryJdbcTemplate.queryForObject("select beat from replication_heartbeat where id = 1",
+					Timestamp.class).getTime();
+			primaryBeatNanos = stampedAfter;
+			primaryBeat = beat;
+		} catch (DataAccessException e) {
+			log.warn("Replication heartbeat not written : {}", e.getMessage());
+		}
+		for (Replica replica : replicas) {
+			try {
+				replica.caughtUpTo = replica.jdbcTemplate.queryForObject(
+						"select beat from replication_heartbeat where id = 1", Timestamp.class).getTime();
+			} catch (DataAccessException e) {
+				log.warn("Read replica {} heartbeat not read : {}", replica.name, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Closes the read replica pools; the primary pool is a bean of its own.
+	 */
+	public void close() {
+		replicas.forEach(replica -> replica.dataSource.close());
+	}
+
+	private static final class Replica {
+
+		private final String name;
+
+		private final HikariDataSource dataSource;
+
+		private final JdbcTemplate jdbcTemplate;
+
+		/**
+		 * The heartbeat last read from this read replica, in epoch millis of the primary's clock;
+		 * 0 until it has answered.
+		 */
+		private volatile long caughtUpTo;
+
+		private Replica(String name, HikariDataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+			this.jdbcTemplate = new JdbcTemplate(dataSource);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.book.library.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SQL statements Hibernate prepared for the current request, in order. Only references
+ * are kept, up to a cap, so tracing every request costs a list per request; the list is read
+ * only when the request turns out to be slow.
+ */
+public final class RequestTrace {
+
+	private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+	private final int maxStatements;
+
+	private final List<String> statements = new ArrayList<>();
+
+	private int statementCount;
+
+	private RequestTrace(int maxStatements) {
+		this.maxStatements = maxStatements;
+	}
+
+	public static RequestTrace begin(int maxStatements) {
+		RequestTrace trace = new RequestTrace(maxStatements);
+		CURRENT.set(trace);
+		return trace;
+	}
+
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	static void recordStatement(String sql) {
+		RequestTrace trace = CURRENT.get();
+		if (trace == null) {
+			return;
+		}
+		trace.statementCount++;
+		if (trace.statements.size() < trace.maxStatements) {
+			trace.statements.add(sql);
+		}
+	}
+
+	/**
+	 * Statements prepared, including those past the cap.
+	 */
+	public int getStatementCount() {
+		return statementCount;
+	}
+
+	public List<String> getStatements() {
+		return Collections.unmodifiableList(statements);
+	}
+}
@@ -0,0 +1,27 @@
+package com.book.library.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RequestTraceConfig {
+
+	@Bean
+	public RequestTraceFilter requestTraceFilter(
+			@Value("${library.trace.slow-threshold-ms:1000}") long slowThresholdMillis,
+			@Value("${library.trace.max-statements:500}") int maxStatements) {
+		return new RequestTraceFilter(slowThresholdMillis, maxStatements);
+	}
+
+	/**
+	 * Installs the tracing inspector unless a statement inspector is configured already.
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer requestTraceStatementInspector() {
+		return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR,
+				new RequestTraceStatementInspector());
+	}
+}
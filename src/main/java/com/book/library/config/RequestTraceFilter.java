@@ -0,0 +1,96 @@
+package com.book.library.config;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Traces every request: its log lines carry request_id, and the Hibernate statements it runs
+ * are counted per endpoint (library.request.statements). A request slower than the threshold
+ * is counted (library.request.slow) and logged with its full statement list in the MDC, so
+ * the JSON log line of a slow request shows what it sent to the database. Requests that go
+ * async (change feed, long polls, streams) are counted but never reported as slow.
+ */
+@Slf4j
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+	public static final String MDC_REQUEST_ID = "request_id";
+
+	public static final String MDC_DURATION = "duration_ms";
+
+	public static final String MDC_STATEMENT_COUNT = "statement_count";
+
+	public static final String MDC_STATEMENTS = "statements";
+
+	private final long slowThresholdMillis;
+
+	private final int maxStatements;
+
+	public RequestTraceFilter(long slowThresholdMillis, int maxStatements) {
+		this.slowThresholdMillis = slowThresholdMillis;
+		this.maxStatements = maxStatements;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long start = System.nanoTime();
+		RequestTrace trace = RequestTrace.begin(maxStatements);
+		MDC.put(MDC_REQUEST_ID, UUID.randomUUID().toString());
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			long durationMillis = (System.nanoTime() - start) / 1_000_000;
+			String uri = uriPattern(request);
+			DistributionSummary.builder("library.request.statements")
+					.description("Hibernate statements prepared per request")
+					.tag("uri", uri)
+					.register(Metrics.globalRegistry)
+					.record(trace.getStatementCount());
+			if (durationMillis >= slowThresholdMillis && !request.isAsyncStarted()) {
+				reportSlow(request, uri, durationMillis, trace);
+			}
+			RequestTrace.end();
+			MDC.remove(MDC_REQUEST_ID);
+		}
+	}
+
+	private void reportSlow(HttpServletRequest request, String uri, long durationMillis, RequestTrace trace) {
+		Counter.builder("library.request.slow")
+				.description("Requests slower than the slow request threshold")
+				.tag("uri", uri)
+				.register(Metrics.globalRegistry)
+				.increment();
+		MDC.put(MDC_DURATION, Long.toString(durationMillis));
+		MDC.put(MDC_STATEMENT_COUNT, Integer.toString(trace.getStatementCount()));
+		MDC.put(MDC_STATEMENTS, String.join("\n", trace.getStatements()));
+		try {
+			log.warn("Slow request : {} {} took {} ms, statements : {}", request.getMethod(), uri, durationMillis,
+					trace.getStatementCount());
+		} finally {
+			MDC.remove(MDC_DURATION);
+			MDC.remove(MDC_STATEMENT_COUNT);
+			MDC.remove(MDC_STATEMENTS);
+		}
+	}
+
+	/**
+	 * The matched mapping, such as /v1/book/{bookId}/return, so ids do not become tag values.
+	 */
+	private static String uriPattern(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return pattern == null ? "UNKNOWN" : pattern.toString();
+	}
+}
@@ -0,0 +1,18 @@
+package com.book.library.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Adds every statement Hibernate prepares to the current {@link RequestTrace}; the SQL is
+ * passed on unchanged.
+ */
+public class RequestTraceStatementInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public String inspect(String sql) {
+		RequestTrace.recordStatement(sql);
+		return sql;
+	}
+}
@@ -0,0 +1,41 @@
+package com.book.library.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public method of the service implementations as library.service.invocations,
+ * tagged by service, method and the exception thrown, if any. Methods returning a future are
+ * timed until they return it, not until it completes.
+ */
+@Aspect
+@Component
+public class ServiceTimingAspect {
+
+	@Around("execution(public * com.book.library.service.impl..*(..))")
+	public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+		long start = System.nanoTime();
+		String exception = "none";
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			Timer.builder("library.service.invocations")
+					.description("Service method calls")
+					.tag("service", joinPoint.getTarget().getClass().getSimpleName())
+					.tag("method", joinPoint.getSignature().getName())
+					.tag("exception", exception)
+					.register(Metrics.globalRegistry)
+					.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+}
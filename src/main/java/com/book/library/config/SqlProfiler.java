@@ -0,0 +1,145 @@
+package com.book.library.config;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import com.book.library.dto.SqlShapeDTO;
+
+/**
+ * Per statement shape counts, execution time and rows of the sampled connections. A shape is
+ * the SQL with literals replaced by ? and IN lists and VALUES rows collapsed, so statements
+ * that differ only in their values share one entry. Entries are updated with LongAdders in a
+ * ConcurrentHashMap, so recording takes no lock; shapes past max-shapes are counted together.
+ * <p>
+ * Sampling is decided per connection checkout: a sampled connection has all its statements
+ * recorded, an unsampled one is handed out unwrapped, so with sampling off the profiler costs
+ * one volatile read per checkout.
+ */
+public class SqlProfiler {
+
+	static final String OTHER_SHAPE = "(other statements)";
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+	private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+	private static final Pattern PARAMETER_ROWS = Pattern.compile("\\(\\?\\)(?:\\s*,\\s*\\(\\?\\))+");
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final ConcurrentHashMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+
+	/**
+	 * Stats by SQL text as sent, so a statement seen before is not normalised again.
+	 */
+	private final ConcurrentHashMap<String, ShapeStats> statements = new ConcurrentHashMap<>();
+
+	private final int maxShapes;
+
+	private volatile double sampleRate;
+
+	public SqlProfiler(double sampleRate, int maxShapes) {
+		setSampleRate(sampleRate);
+		this.maxShapes = maxShapes;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	public void setSampleRate(double sampleRate) {
+		if (sampleRate < 0 || sampleRate > 1) {
+			throw new IllegalArgumentException("Sample rate must be between 0 and 1.");
+		}
+		this.sampleRate = sampleRate;
+	}
+
+	boolean sample() {
+		double rate = sampleRate;
+		return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+	}
+
+	ShapeStats statsOf(String sql) {
+		ShapeStats stats = sql == null ? null : statements.get(sql);
+		if (stats != null) {
+			return stats;
+		}
+		String shape = shapeOf(sql);
+		stats = shapes.get(shape);
+		if (stats == null) {
+			stats = shapes.computeIfAbsent(shapes.size() >= maxShapes ? OTHER_SHAPE : shape, key -> new ShapeStats());
+		}
+		if (sql != null && statements.size() < maxShapes * 4) {
+			statements.putIfAbsent(sql, stats);
+		}
+		return stats;
+	}
+
+	public static String shapeOf(String sql) {
+		if (sql == null) {
+			return OTHER_SHAPE;
+		}
+		String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+		shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+		shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+		shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+		return PARAMETER_ROWS.matcher(shape).replaceAll("(?)");
+	}
+
+	/**
+	 * The shapes with the most total execution time, most first.
+	 */
+	public List<SqlShapeDTO> getTop(int limit) {
+		return shapes.entrySet().stream()
+				.map(entry -> entry.getValue().toDTO(entry.getKey()))
+				.sorted(Comparator.comparingDouble(SqlShapeDTO::getTotalMillis).reversed())
+				.limit(limit)
+				.toList();
+	}
+
+	public void reset() {
+		statements.clear();
+		shapes.clear();
+	}
+
+	static final class ShapeStats {
+
+		private final LongAdder executions = new LongAdder();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+		private final LongAdder rows = new LongAdder();
+
+		void recordExecution(long nanos, boolean failed) {
+			executions.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+			if (failed) {
+				errors.increment();
+			}
+		}
+
+		void recordRows(long count) {
+			rows.add(count);
+		}
+
+		private SqlShapeDTO toDTO(String shape) {
+			long count = executions.sum();
+			double totalMillis = totalNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+			return new SqlShapeDTO(shape, count, errors.sum(), totalMillis, count == 0 ? 0 : totalMillis / count,
+					maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1), rows.sum());
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.book.library.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SqlProfilerConfig {
+
+	/**
+	 * The data source everything else is given: Spring Boot's pool, or the read/write
+	 * routing proxy when read replicas are configured.
+	 */
+	private static final String DATA_SOURCE_BEAN = "dataSource";
+
+	@Bean
+	public SqlProfiler sqlProfiler(@Value("${library.sql-profiler.sample-rate:0}") double sampleRate,
+			@Value("${library.sql-profiler.max-shapes:1000}") int maxShapes) {
+		return new SqlProfiler(sampleRate, maxShapes);
+	}
+
+	@Bean
+	public SqlProfilerEndpoint sqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+		return new SqlProfilerEndpoint(sqlProfiler);
+	}
+
+	@Bean
+	public static BeanPostProcessor sqlProfilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+						&& !(bean instanceof SqlProfilingDataSource)) {
+					return new SqlProfilingDataSource(dataSource, sqlProfiler.getObject());
+				}
+				return bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,37 @@
+package com.book.library.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * /actuator/sqlprofile lists the 50 statement shapes with the most execution time,
+ * /actuator/sqlprofile/{top} the given number of them. Read only: the endpoint is served on the
+ * application port, so the sample rate is set by {@code library.sql-profiler.sample-rate}.
+ */
+@Endpoint(id = "sqlprofile")
+@RequiredArgsConstructor
+public class SqlProfilerEndpoint {
+
+	private static final int DEFAULT_TOP = 50;
+
+	private final SqlProfiler sqlProfiler;
+
+	@ReadOperation
+	public Map<String, Object> profile() {
+		return profile(DEFAULT_TOP);
+	}
+
+	@ReadOperation
+	public Map<String, Object> profile(@Selector int top) {
+		Map<String, Object> profile = new LinkedHashMap<>();
+		profile.put("sampleRate", sqlProfiler.getSampleRate());
+		profile.put("shapes", sqlProfiler.getTop(Math.max(1, top)));
+		return profile;
+	}
+}
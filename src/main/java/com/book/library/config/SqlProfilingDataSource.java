@@ -0,0 +1,145 @@
+package com.book.library.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Hands out connections that report to the {@link SqlProfiler} when the profiler samples the
+ * checkout, and the pool's own connections otherwise. A profiled connection times each
+ * statement execution (the driver's round trip, not the reading of the result) and counts the
+ * rows read through its result sets or changed by its updates.
+ */
+public class SqlProfilingDataSource extends DelegatingDataSource {
+
+	private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+			"executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+	private final SqlProfiler profiler;
+
+	public SqlProfilingDataSource(DataSource targetDataSource, SqlProfiler profiler) {
+		super(targetDataSource);
+		this.profiler = profiler;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		Connection connection = super.getConnection();
+		return profiler.sample() ? profile(connection) : connection;
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		Connection connection = super.getConnection(username, password);
+		return profiler.sample() ? profile(connection) : connection;
+	}
+
+	private Connection profile(Connection connection) {
+		return proxy(Connection.class, connection, (proxy, method, args) -> {
+			Object result = invoke(connection, method, args);
+			if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+				return profile(method.getReturnType(), statement, (String) args[0]);
+			}
+			if (result instanceof Statement statement && "createStatement".equals(method.getName())) {
+				return profile(Statement.class, statement, null);
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * A statement reporting under the SQL it was prepared with, or, for a plain statement,
+	 * the SQL passed to execute.
+	 */
+	private Object profile(Class<?> type, Statement statement, String preparedSql) {
+		ResultSet[] lastResultSet = new ResultSet[1];
+		SqlProfiler.ShapeStats[] lastStats = new SqlProfiler.ShapeStats[1];
+		return proxy(type, statement, (proxy, method, args) -> {
+			if ("getResultSet".equals(method.getName()) && lastStats[0] != null) {
+				ResultSet resultSet = (ResultSet) invoke(statement, method, args);
+				return resultSet == null || resultSet == lastResultSet[0] ? resultSet : countRows(resultSet, lastStats[0]);
+			}
+			if (!EXECUTE_METHODS.contains(method.getName())) {
+				return invoke(statement, method, args);
+			}
+			String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+			SqlProfiler.ShapeStats stats = profiler.statsOf(sql);
+			lastStats[0] = stats;
+			long start = System.nanoTime();
+			boolean failed = true;
+			try {
+				Object result = invoke(statement, method, args);
+				failed = false;
+				if (result instanceof ResultSet resultSet) {
+					lastResultSet[0] = resultSet;
+					return countRows(resultSet, stats);
+				}
+				stats.recordRows(updateCount(result));
+				return result;
+			} finally {
+				stats.recordExecution(System.nanoTime() - start, failed);
+			}
+		});
+	}
+
+	private ResultSet countRows(ResultSet resultSet, SqlProfiler.ShapeStats stats) {
+		return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+			Object result = invoke(resultSet, method, args);
+			if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+				stats.recordRows(1);
+			}
+			return result;
+		});
+	}
+
+	private static long updateCount(Object result) {
+		if (result instanceof Number count) {
+			return Math.max(0, count.longValue());
+		}
+		long rows = 0;
+		if (result instanceof int[] counts) {
+			for (int count : counts) {
+				rows += Math.max(0, count);
+			}
+		} else if (result instanceof long[] counts) {
+			for (long count : counts) {
+				rows += Math.max(0, count);
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * A proxy that is equal only to itself, unwraps to its target and otherwise runs the handler.
+	 */
+	private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+		Object proxy = Proxy.newProxyInstance(SqlProfilingDataSource.class.getClassLoader(), new Class<?>[] { type },
+				(self, method, args) -> switch (method.getName()) {
+					case "equals" -> args[0] == self;
+					case "hashCode" -> System.identityHashCode(self);
+					case "toString" -> "Profiled " + target;
+					case "unwrap" -> ((Class<?>) args[0]).isInstance(target) ? target : invoke(target, method, args);
+					case "isWrapperFor" -> ((Class<?>) args[0]).isInstance(target) || (boolean) invoke(target, method, args);
+					default -> handler.invoke(self, method, args);
+				});
+		return type.cast(proxy);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
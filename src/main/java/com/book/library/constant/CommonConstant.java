@@ -4,4 +4,29 @@ public class CommonConstant {
 
 	public static final String HYPHEN_SYMBOL = "-";
 	public static final String DATE_FORMAT_yyyymmdd_HHMMSS = "yyyy-MM-dd hh:mm:ss a";
+
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	public static final String STREAM_FETCH_SIZE = "1000";
+	public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+
+	public static final String ID_GENERATOR_TABLE = "id_generator";
+	public static final int ID_ALLOCATION_SIZE = 50;
+	public static final int BULK_CHUNK_SIZE = 500;
+	public static final int MAX_BULK_ERRORS = 1000;
+	public static final int MAX_BATCH_SIZE = 100;
+	public static final int MAX_AVAILABILITY_ISBNS = 100;
+	public static final long DEFAULT_RESERVATION_WAIT_MS = 30000;
+	public static final long MAX_RESERVATION_WAIT_MS = 120000;
+	public static final int LOAN_PERIOD_DAYS = 14;
+	public static final int MAX_STATS_TOP = 100;
+	public static final int MAX_STATS_BUCKETS = 744;
+	public static final int MAX_STATS_DAYS = 366;
+	// fixed, so the ranges a backfill has counted never shift between runs
+	public static final int BACKFILL_RANGE_SIZE = 10000;
+
+	public static final String BOOK_CACHE_REGION = "book";
+	public static final String BORROWER_CACHE_REGION = "borrower";
+
+	public static final int MAX_SEARCH_TERMS = 16;
 }
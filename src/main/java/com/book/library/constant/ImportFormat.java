@@ -0,0 +1,14 @@
+package com.book.library.constant;
+
+public enum ImportFormat {
+
+	CSV,
+	NDJSON;
+
+	public static ImportFormat fromFileName(String fileName) {
+		if (fileName != null && fileName.toLowerCase().endsWith(".csv")) {
+			return CSV;
+		}
+		return NDJSON;
+	}
+}
@@ -0,0 +1,14 @@
+package com.book.library.constant;
+
+/**
+ * How the borrow history dates are written in API responses ({@code library.json.date-format}).
+ */
+public enum JsonDateFormat {
+
+	/** {@link CommonConstant#DATE_FORMAT_yyyymmdd_HHMMSS}, e.g. "2024-05-01 03:15:00 PM" */
+	LEGACY,
+	/** ISO-8601 local date-time, e.g. "2024-05-01T15:15:00" */
+	ISO,
+	/** milliseconds since the epoch, taking the server time zone as the local zone */
+	EPOCH_MILLIS
+}
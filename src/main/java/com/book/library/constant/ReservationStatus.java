@@ -0,0 +1,8 @@
+package com.book.library.constant;
+
+public enum ReservationStatus {
+
+	WAITING,
+	FULFILLED,
+	CANCELLED
+}
@@ -0,0 +1,14 @@
+package com.book.library.constant;
+
+/**
+ * What circulation counts are grouped by. TITLE is keyed by ISBN number, BORROWER by borrower
+ * id, HOUR_OF_DAY by "00" to "23" (all-time counts only) and ALL by the empty key.
+ */
+public enum StatsDimension {
+
+	TITLE,
+	AUTHOR,
+	BORROWER,
+	ALL,
+	HOUR_OF_DAY
+}
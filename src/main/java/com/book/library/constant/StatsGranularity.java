@@ -0,0 +1,34 @@
+package com.book.library.constant;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum StatsGranularity {
+
+	HOUR("H", ChronoUnit.HOURS),
+	DAY("D", ChronoUnit.DAYS);
+
+	private final String code;
+
+	private final ChronoUnit unit;
+
+	StatsGranularity(String code, ChronoUnit unit) {
+		this.code = code;
+		this.unit = unit;
+	}
+
+	/**
+	 * Value of the granularity column in circulation_rollup.
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	public ChronoUnit getUnit() {
+		return unit;
+	}
+
+	public LocalDateTime bucketOf(LocalDateTime time) {
+		return time.truncatedTo(unit);
+	}
+}
@@ -1,24 +1,44 @@
 package com.book.library.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.ImportFormat;
 import com.book.library.dto.GlobalResponse;
+import com.book.library.dto.BatchItemResp;
 import com.book.library.dto.BookDTO;
 import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.BulkRegisterResp;
+import com.book.library.dto.PageDTO;
+import com.book.library.dto.TitleAvailabilityDTO;
+import com.book.library.service.BookSearchService;
 import com.book.library.service.BookService;
 import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.ChangeFeedService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -39,9 +59,15 @@ public class BookController {
 	private final Logger logger = LoggerFactory.getLogger(BookController.class);
 
 	private final BookService bookService;
+
+	private final BookSearchService bookSearchService;
 	
 	private final BorrowBookHistoryService borrowBookHistoryService;
 
+	private final ChangeFeedService changeFeedService;
+
+	private final ObjectMapper objectMapper;
+
 	@Operation(
 		    summary = "Register a new book",
 		    description = "Register a new book in the library system. ISBN number must be unique or match existing book with same title and author."
@@ -76,9 +102,69 @@ public class BookController {
 	}
 	
 	
+	@Operation(
+			summary = "Register books in bulk",
+			description = "Register a JSON array of books. Rows are validated and inserted in chunks; invalid rows are reported individually and do not abort the rest."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Bulk registration completed, see errors for rejected rows",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "500",
+				description = "Internal server error",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "register/bulk", method = RequestMethod.POST)
+	public ResponseEntity<?> registerBulk(
+			@Parameter(description = "Books to register", required = true)
+			@RequestBody List<BookDTO> books) {
+		logger.debug("Start bulk register, rows : [{}] ", books.size());
+		BulkRegisterResp resp = bookService.registerBulk(books);
+		return ResponseEntity.ok(GlobalResponse.success("Bulk registration completed", resp));
+	}
+
+	@Operation(
+			summary = "Register books in bulk from a file",
+			description = "Upload a CSV (isbnNumber,title,author with optional header) or NDJSON file. The file is read line by line, so very large imports do not need to fit in memory."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Bulk registration completed, see errors for rejected rows",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "500",
+				description = "Internal server error",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "register/bulk/upload", method = RequestMethod.POST, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public ResponseEntity<?> registerBulkUpload(
+			@Parameter(description = "CSV or NDJSON file", required = true)
+			@RequestParam("file") MultipartFile file,
+			@Parameter(description = "File format, derived from the file extension when omitted")
+			@RequestParam(required = false) ImportFormat format) throws IOException {
+		ImportFormat importFormat = format != null ? format : ImportFormat.fromFileName(file.getOriginalFilename());
+		logger.debug("Start bulk register upload : [{}] as [{}] ", file.getOriginalFilename(), importFormat);
+		BulkRegisterResp resp = bookService.registerBulk(file.getInputStream(), importFormat);
+		return ResponseEntity.ok(GlobalResponse.success("Bulk registration completed", resp));
+	}
+
 	@Operation(
 			summary = "Get all books",
-			description = "Retrieve a list of all books available in the library system"
+			description = "Retrieve a list of all books available in the library system. Loads the whole catalog into memory; use /v1/book/page or /v1/book/stream instead.",
+			deprecated = true
 		)
 		@ApiResponses(value = {
 			@ApiResponse(
@@ -100,7 +186,227 @@ public class BookController {
         List<BookDTO> books = bookService.getAllBooks();
         return ResponseEntity.ok(GlobalResponse.success("Books retrieved successfully", books));
     }
+
+	@Operation(
+			summary = "Get a page of books",
+			description = "Retrieve books in id order using keyset pagination. Pass the nextCursor of the previous page to get the next one; nextCursor is null on the last page. Totals are not computed."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Books retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid cursor or page size",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "page", method = RequestMethod.GET)
+	public ResponseEntity<?> getBooks(
+			@Parameter(description = "Cursor returned by the previous page, empty for the first page")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_PAGE_SIZE) int size) {
+		PageDTO<BookDTO> books = bookService.getBooks(cursor, size);
+		return ResponseEntity.ok(GlobalResponse.success("Books retrieved successfully", books));
+	}
+
+	@Operation(
+			summary = "Filter books",
+			description = "Retrieve books by author and/or ISBN prefix in id order using keyset pagination. Pass the nextCursor of the previous page to get the next one."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Books retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid cursor or page size",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "filter", method = RequestMethod.GET)
+	public ResponseEntity<?> filterBooks(
+			@Parameter(description = "Exact author name", example = "Joshua Bloch")
+			@RequestParam(required = false) String author,
+			@Parameter(description = "Leading part of the ISBN number", example = "978-0-13")
+			@RequestParam(required = false) String isbnPrefix,
+			@Parameter(description = "Cursor returned by the previous page, empty for the first page")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_PAGE_SIZE) int size) {
+		PageDTO<BookDTO> books = bookService.filterBooks(author, isbnPrefix, cursor, size);
+		return ResponseEntity.ok(GlobalResponse.success("Books retrieved successfully", books));
+	}
+
+	@Operation(
+			summary = "Filter borrow history",
+			description = "Retrieve borrow history by borrower, book, status and borrow date range in id order using keyset pagination. All filters are optional and combine with AND."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Borrow history retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid cursor, page size or date range",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "history", method = RequestMethod.GET)
+	public ResponseEntity<?> filterHistory(
+			@Parameter(description = "ID of the borrower", example = "1")
+			@RequestParam(required = false) Long borrowerId,
+			@Parameter(description = "ID of the book", example = "1")
+			@RequestParam(required = false) Long bookId,
+			@Parameter(description = "true for returned loans, false for open loans")
+			@RequestParam(required = false) Boolean returned,
+			@Parameter(description = "Borrowed at or after (ISO-8601)", example = "2024-01-01T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "Borrowed before (ISO-8601)", example = "2024-02-01T00:00:00")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@Parameter(description = "Cursor returned by the previous page, empty for the first page")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_PAGE_SIZE) int size) {
+		PageDTO<BorrowBookHistoryDTO> histories = borrowBookHistoryService.filterHistory(borrowerId, bookId, returned,
+				from, to, cursor, size);
+		return ResponseEntity.ok(GlobalResponse.success("Borrow history retrieved successfully", histories));
+	}
+
+	@Operation(
+			summary = "Stream all books",
+			description = "Stream the whole catalog as newline-delimited JSON (one book per line). Memory use stays flat regardless of catalog size."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Books streamed successfully",
+				content = @Content(mediaType = CommonConstant.MEDIA_TYPE_NDJSON)
+			)
+		})
+	@RequestMapping(value = "stream", method = RequestMethod.GET, produces = CommonConstant.MEDIA_TYPE_NDJSON)
+	public ResponseEntity<StreamingResponseBody> streamBooks() {
+		StreamingResponseBody body = out -> {
+			try (SequenceWriter writer = objectMapper.writerFor(BookDTO.class)
+					.withRootValueSeparator("\n").writeValues(out)) {
+				bookService.streamAllBooks(book -> {
+					try {
+						writer.write(book);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(CommonConstant.MEDIA_TYPE_NDJSON))
+				.body(body);
+	}
 	
+	@Operation(
+			summary = "Search books",
+			description = "Search the catalog by title, author or ISBN. Words match by prefix and tolerate small typos; an ISBN (with or without hyphens) matches exactly. Results are ranked by relevance; pass the nextCursor of the previous page to get the next one."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Books retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - empty query, invalid cursor or page size",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "503",
+				description = "The search index is still being built after startup",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "search", method = RequestMethod.GET)
+	public ResponseEntity<?> searchBooks(
+			@Parameter(description = "Words from the title or author, or an ISBN", required = true, example = "effective java")
+			@RequestParam String q,
+			@Parameter(description = "Cursor returned by the previous page, empty for the first page")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_PAGE_SIZE) int size) {
+		PageDTO<BookDTO> books = bookSearchService.search(q, cursor, size);
+		return ResponseEntity.ok(GlobalResponse.success("Books retrieved successfully", books));
+	}
+	
+	@Operation(
+			summary = "Availability of titles",
+			description = "Total and available copies of up to 100 titles by ISBN, for catalog pages. Titles the library has no copy of are left out."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Availability retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - no ISBN or too many ISBNs",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "availability", method = RequestMethod.GET)
+	public ResponseEntity<?> getAvailability(
+			@Parameter(description = "ISBN numbers, repeated or comma separated", required = true, example = "978-3-16-148410-0")
+			@RequestParam List<String> isbn) {
+		List<TitleAvailabilityDTO> availability = bookService.getAvailability(isbn);
+		return ResponseEntity.ok(GlobalResponse.success("Availability retrieved successfully", availability));
+	}
+
+	@Operation(
+			summary = "Stream catalog changes",
+			description = "Server-sent events for every copy registered, borrowed or returned on any server, instead of polling getall, arriving within the outbox poll interval of the commit. Event names are REGISTERED, BORROWED and RETURNED. Event ids are the same on every server, so reconnect to any of them with the Last-Event-ID header (or lastEventId) to get the events missed meanwhile; a RESET event means they are gone and the client should reload availability before continuing."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Event stream",
+				content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+			),
+			@ApiResponse(
+				responseCode = "503",
+				description = "Too many subscribers, retry later",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "changes", method = RequestMethod.GET)
+	public SseEmitter changes(
+			@Parameter(description = "Id of the last event received, sent by EventSource on reconnect")
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+			@Parameter(description = "Id of the last event received, for clients that cannot set headers")
+			@RequestParam(required = false) String lastEventId) {
+		return changeFeedService.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+	}
+
 	@Operation(
 			summary = "Borrow a book",
 			description = "Allow a borrower to borrow a book from the library. The book must not be already borrowed by the same borrower."
@@ -134,6 +440,39 @@ public class BookController {
 		return ResponseEntity.ok(GlobalResponse.success("Book borrowed successfully", borrowBookHistoryDTO));
 	}
 	
+	@Operation(
+			summary = "Borrow any copy of a title",
+			description = "Borrow whichever copy of the title is free, by ISBN. Fails when every copy is borrowed."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Book borrowed successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - no copy available or invalid borrower",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "No book with this ISBN",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "borrow/isbn", method = RequestMethod.POST)
+	public ResponseEntity<?> borrowByIsbn(
+			@Parameter(description = "Borrow request containing ISBN number and borrower ID", required = true)
+			@Valid @RequestBody BorrowByIsbnReq req) {
+		logger.debug("Start borrow by ISBN request : [{}] ", req);
+		BorrowBookHistoryDTO borrowBookHistoryDTO = borrowBookHistoryService.borrowBookByIsbn(req);
+		return ResponseEntity.ok(GlobalResponse.success("Book borrowed successfully", borrowBookHistoryDTO));
+	}
+
 	@Operation(
 			summary = "Return a borrowed book",
 			description = "Process the return of a borrowed book by a borrower. Updates the borrow status and records the return date."
@@ -163,4 +502,60 @@ public class BookController {
 		BorrowBookHistoryDTO borrowBookHistoryDTO = borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
         return ResponseEntity.ok(GlobalResponse.success("Book returned successfully", borrowBookHistoryDTO));
 	}
+
+	@Operation(
+			summary = "Borrow books in batch",
+			description = "Borrow up to 100 books in one request, e.g. a stack checked out at a circulation desk. Each item is processed independently and gets its own result."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Batch processed, see each item for its result",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - empty batch or too many items",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "borrow/batch", method = RequestMethod.POST)
+	public ResponseEntity<?> borrowBatch(
+			@Parameter(description = "Borrow requests containing book ID and borrower ID", required = true)
+			@RequestBody List<BorrowBookReq> reqs) {
+		logger.debug("Start batch borrow, items : [{}] ", reqs.size());
+		List<BatchItemResp> results = borrowBookHistoryService.borrowBooks(reqs);
+		return ResponseEntity.ok(GlobalResponse.success("Batch borrow processed", results));
+	}
+
+	@Operation(
+			summary = "Return books in batch",
+			description = "Return up to 100 borrowed books in one request. Each item is processed independently and gets its own result."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Batch processed, see each item for its result",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - empty batch or too many items",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "return/batch", method = RequestMethod.POST)
+	public ResponseEntity<?> returnBatch(
+			@Parameter(description = "Return requests containing book ID and borrower ID", required = true)
+			@RequestBody List<BorrowBookReq> reqs) {
+		logger.debug("Start batch return, items : [{}] ", reqs.size());
+		List<BatchItemResp> results = borrowBookHistoryService.returnBorrowBooks(reqs);
+		return ResponseEntity.ok(GlobalResponse.success("Batch return processed", results));
+	}
 }
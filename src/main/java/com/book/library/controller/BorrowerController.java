@@ -4,13 +4,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.book.library.constant.CommonConstant;
 import com.book.library.dto.GlobalResponse;
+import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowerDTO;
+import com.book.library.dto.PageDTO;
 import com.book.library.service.BorrowerService;
 
 
@@ -66,4 +71,73 @@ public class BorrowerController {
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(GlobalResponse.success("Borrower registered successfully", borrower));
 	}
+
+	@Operation(
+			summary = "Filter borrowers",
+			description = "Retrieve borrowers by email domain in id order using keyset pagination. Pass the nextCursor of the previous page to get the next one."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Borrowers retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid cursor or page size",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "filter", method = RequestMethod.GET)
+	public ResponseEntity<?> filterBorrowers(
+			@Parameter(description = "Email domain", example = "example.com")
+			@RequestParam(required = false) String emailDomain,
+			@Parameter(description = "Cursor returned by the previous page, empty for the first page")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_PAGE_SIZE) int size) {
+		PageDTO<BorrowerDTO> borrowers = borrowerService.filterBorrowers(emailDomain, cursor, size);
+		return ResponseEntity.ok(GlobalResponse.success("Borrowers retrieved successfully", borrowers));
+	}
+
+	@Operation(
+			summary = "List a borrower's loans",
+			description = "Retrieve the loans of a borrower, newest first, using keyset pagination. Filter by returned=false for active loans or returned=true for returned ones; omit it for both. Pass the nextCursor of the previous page to get the next one."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Loans retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid cursor or page size",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "Borrower not found",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "{id}/loans", method = RequestMethod.GET)
+	public ResponseEntity<?> getLoans(
+			@Parameter(description = "Borrower id", required = true, example = "1")
+			@PathVariable Long id,
+			@Parameter(description = "true for returned loans, false for active loans, empty for all")
+			@RequestParam(required = false) Boolean returned,
+			@Parameter(description = "Cursor returned by the previous page, empty for the first page")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_PAGE_SIZE) int size) {
+		PageDTO<BorrowBookHistoryDTO> loans = borrowerService.getLoans(id, returned, cursor, size);
+		return ResponseEntity.ok(GlobalResponse.success("Loans retrieved successfully", loans));
+	}
 }
@@ -0,0 +1,187 @@
+package com.book.library.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.ReservationStatus;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.GlobalResponse;
+import com.book.library.dto.ReservationDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.service.ReservationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/reservation")
+@RequiredArgsConstructor
+@Tag(name = "Reservation Management", description = "APIs for queueing for a title whose copies are all borrowed")
+public class ReservationController {
+
+	private final Logger logger = LoggerFactory.getLogger(ReservationController.class);
+
+	private final ReservationService reservationService;
+
+	@Operation(
+			summary = "Reserve a title",
+			description = "Queue the borrower for the next free copy of a title, first come first served. When a copy is returned it is lent to the head of the queue automatically. If a copy is free and nobody is queued ahead, it is lent at once and the reservation is FULFILLED."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "201",
+				description = "Reservation created, see its status and position",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - borrower is already waiting for the title",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "No book with this ISBN or invalid borrower",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "", method = RequestMethod.POST)
+	public ResponseEntity<?> reserve(
+			@Parameter(description = "Reservation request containing ISBN number and borrower ID", required = true)
+			@Valid @RequestBody BorrowByIsbnReq req) {
+		logger.debug("Start reservation request : [{}] ", req);
+		ReservationDTO reservation = reservationService.reserve(req);
+		return ResponseEntity.status(HttpStatus.CREATED)
+				.body(GlobalResponse.success(reservation.getStatus() == ReservationStatus.FULFILLED
+						? "Book borrowed successfully" : "Reservation created successfully", reservation));
+	}
+
+	@Operation(
+			summary = "Get a reservation",
+			description = "Current status of a reservation and, while it is waiting, its position in the queue."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Reservation retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "Reservation not found",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "{id}", method = RequestMethod.GET)
+	public ResponseEntity<?> getReservation(
+			@Parameter(description = "Reservation id", required = true, example = "1")
+			@PathVariable Long id) {
+		return ResponseEntity.ok(GlobalResponse.success("Reservation retrieved successfully", reservationService.getReservation(id)));
+	}
+
+	@Operation(
+			summary = "Wait for a reservation",
+			description = "Long poll: answers as soon as the reservation is fulfilled or cancelled, or after timeoutMs with the still waiting reservation. Call it again to keep waiting; no request thread is held meanwhile."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Reservation retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid timeout",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "Reservation not found",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "503",
+				description = "Too many clients are waiting, retry later",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "{id}/wait", method = RequestMethod.GET)
+	public DeferredResult<ResponseEntity<?>> awaitReservation(
+			@Parameter(description = "Reservation id", required = true, example = "1")
+			@PathVariable Long id,
+			@Parameter(description = "Longest time to wait in milliseconds", example = "30000")
+			@RequestParam(defaultValue = "" + CommonConstant.DEFAULT_RESERVATION_WAIT_MS) long timeoutMs) {
+		if (timeoutMs < 1 || timeoutMs > CommonConstant.MAX_RESERVATION_WAIT_MS) {
+			throw new BusinessException(String.format("timeoutMs must be between 1 and %d.", CommonConstant.MAX_RESERVATION_WAIT_MS));
+		}
+		CompletableFuture<ReservationDTO> change = reservationService.awaitChange(id);
+		DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeoutMs,
+				() -> ResponseEntity.ok(GlobalResponse.success("Reservation retrieved successfully", reservationService.getReservation(id))));
+		change.thenAccept(reservation -> result.setResult(
+				ResponseEntity.ok(GlobalResponse.success("Reservation retrieved successfully", reservation))));
+		// timed out or client gone: stop waiting
+		result.onCompletion(() -> change.cancel(false));
+		return result;
+	}
+
+	@Operation(
+			summary = "Cancel a reservation",
+			description = "Leave the queue of a title. Only a waiting reservation can be cancelled."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Reservation cancelled successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - reservation is no longer waiting",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "Reservation not found for this borrower",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "{id}/cancel", method = RequestMethod.POST)
+	public ResponseEntity<?> cancel(
+			@Parameter(description = "Reservation id", required = true, example = "1")
+			@PathVariable Long id,
+			@Parameter(description = "ID of the borrower who made the reservation", required = true, example = "1")
+			@RequestParam(required = true) Long borrowerId) {
+		ReservationDTO reservation = reservationService.cancel(id, borrowerId);
+		return ResponseEntity.ok(GlobalResponse.success("Reservation cancelled successfully", reservation));
+	}
+}
@@ -0,0 +1,155 @@
+package com.book.library.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.book.library.constant.StatsDimension;
+import com.book.library.constant.StatsGranularity;
+import com.book.library.dto.GlobalResponse;
+import com.book.library.dto.StatsBucketDTO;
+import com.book.library.dto.StatsCountDTO;
+import com.book.library.dto.TitleUtilizationDTO;
+import com.book.library.service.StatsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping(value = "/v1/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+	private final StatsService statsService;
+
+	@Operation(
+			summary = "Most borrowed titles, authors or borrowers",
+			description = "All-time loan counts of the titles (by ISBN), authors or borrowers with the most loans, most first. Answered from pre-aggregated counts, which trail the loans by a few seconds."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Top list retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - dimension without a top list or invalid limit",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "top", method = RequestMethod.GET)
+	public ResponseEntity<?> getTop(
+			@Parameter(description = "TITLE, AUTHOR or BORROWER", example = "TITLE")
+			@RequestParam(defaultValue = "TITLE") StatsDimension dimension,
+			@Parameter(description = "Number of entries", example = "10")
+			@RequestParam(defaultValue = "10") int limit) {
+		List<StatsCountDTO> top = statsService.getTop(dimension, limit);
+		return ResponseEntity.ok(GlobalResponse.success("Top list retrieved successfully", top));
+	}
+
+	@Operation(
+			summary = "Busiest hours",
+			description = "All-time loans started and ended per hour of the day (server time), for all 24 hours."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Hours retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			)
+		})
+	@RequestMapping(value = "hours", method = RequestMethod.GET)
+	public ResponseEntity<?> getBusiestHours() {
+		List<StatsCountDTO> hours = statsService.getBusiestHours();
+		return ResponseEntity.ok(GlobalResponse.success("Hours retrieved successfully", hours));
+	}
+
+	@Operation(
+			summary = "Loans over time",
+			description = "Hourly or daily loan counts of a title (ISBN), author, borrower (id) or the whole library (ALL, no key) in [from, to). Hours and days without loans are left out."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Series retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - missing key, invalid window or too many buckets",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "series", method = RequestMethod.GET)
+	public ResponseEntity<?> getSeries(
+			@Parameter(description = "TITLE, AUTHOR, BORROWER or ALL", example = "TITLE")
+			@RequestParam StatsDimension dimension,
+			@Parameter(description = "ISBN number, author or borrower id; empty for ALL", example = "978-3-16-148410-0")
+			@RequestParam(required = false) String key,
+			@Parameter(description = "HOUR or DAY", example = "DAY")
+			@RequestParam(defaultValue = "DAY") StatsGranularity granularity,
+			@Parameter(description = "Start of the window (inclusive), ISO date-time", example = "2024-05-01T00:00:00")
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "End of the window (exclusive), ISO date-time", example = "2024-06-01T00:00:00")
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		List<StatsBucketDTO> series = statsService.getSeries(dimension, key, granularity, from, to);
+		return ResponseEntity.ok(GlobalResponse.success("Series retrieved successfully", series));
+	}
+
+	@Operation(
+			summary = "Copy utilization of a title",
+			description = "Copies of the title on loan now, and loans started per copy over the last days."
+		)
+		@ApiResponses(value = {
+			@ApiResponse(
+				responseCode = "200",
+				description = "Utilization retrieved successfully",
+				content = @Content(
+					mediaType = "application/json",
+					schema = @Schema(implementation = GlobalResponse.class)
+				)
+			),
+			@ApiResponse(
+				responseCode = "400",
+				description = "Bad request - invalid number of days",
+				content = @Content(mediaType = "application/json")
+			),
+			@ApiResponse(
+				responseCode = "404",
+				description = "Unknown ISBN number",
+				content = @Content(mediaType = "application/json")
+			)
+		})
+	@RequestMapping(value = "titles/{isbnNumber}/utilization", method = RequestMethod.GET)
+	public ResponseEntity<?> getTitleUtilization(
+			@Parameter(description = "ISBN number", required = true, example = "978-3-16-148410-0")
+			@PathVariable String isbnNumber,
+			@Parameter(description = "Days counted, including today", example = "30")
+			@RequestParam(defaultValue = "30") int days) {
+		TitleUtilizationDTO utilization = statsService.getTitleUtilization(isbnNumber, days);
+		return ResponseEntity.ok(GlobalResponse.success("Utilization retrieved successfully", utilization));
+	}
+}
@@ -0,0 +1,34 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResp implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 1902347749817352190L;
+
+	// 0-based position of the item in the request
+	private int index;
+
+	private Long bookId;
+
+	private Long borrowerId;
+
+	private boolean success;
+
+	private String message;
+
+	private BorrowBookHistoryDTO history;
+}
@@ -1,12 +1,14 @@
 package com.book.library.dto;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
-import com.book.library.constant.CommonConstant;
+import com.book.library.config.LocalDateTimeJsonSerializer;
 import com.book.library.model.BorrowBookHistory;
-import com.book.library.utils.CommonUtils;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -39,9 +41,14 @@ public class BorrowBookHistoryDTO implements Serializable {
 
 	private boolean borrowStatus;
 	
-	private String borrowDate;
+	// written in the library.json.date-format style (legacy by default) for existing clients
+	@JsonSerialize(using = LocalDateTimeJsonSerializer.class)
+	@Schema(type = "string", example = "2024-05-01 03:15:00 PM")
+	private LocalDateTime borrowDate;
 	
-	private String returnDate;
+	@JsonSerialize(using = LocalDateTimeJsonSerializer.class)
+	@Schema(type = "string", example = "2024-05-15 10:02:41 AM")
+	private LocalDateTime returnDate;
 	
 	public BorrowBookHistoryDTO(BorrowBookHistory b) {
 		this.id = b.getId();
@@ -51,7 +58,7 @@ public class BorrowBookHistoryDTO implements Serializable {
 		this.borrowerId = b.getBorrower().getId();
 		this.borrowerName = b.getBorrower().getName();
 		this.borrowStatus = b.isBorrowStatus();
-		this.borrowDate = b.getBorrowDate() == null ? null : CommonUtils.formatLocalDateTime(b.getBorrowDate(), CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS);
-		this.returnDate = b.getReturnDate() == null ? null : CommonUtils.formatLocalDateTime(b.getReturnDate(), CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS);
+		this.borrowDate = b.getBorrowDate();
+		this.returnDate = b.getReturnDate();
 	}
 }
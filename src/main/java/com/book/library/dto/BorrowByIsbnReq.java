@@ -0,0 +1,27 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+@Data
+@Setter
+@Getter
+public class BorrowByIsbnReq implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = -8461259305961471302L;
+
+	@Schema(description = "ISBN number of the title to borrow any free copy of", example = "978-3-16-148410-0")
+	@NotEmpty(message = "ISBN Number must not be empty")
+	private String isbnNumber;
+
+	@NotNull(message = "Borrower Id must not be empty")
+	private Long borrowerId;
+}
@@ -0,0 +1,37 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.book.library.constant.CommonConstant;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+public class BulkRegisterResp implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 4489290618231436153L;
+
+	private int totalRows;
+
+	private int successCount;
+
+	private int failedCount;
+
+	// only the first MAX_BULK_ERRORS failures are listed, failedCount is always exact
+	private List<BulkRowError> errors = new ArrayList<>();
+
+	public void addError(int row, String isbnNumber, String message) {
+		failedCount++;
+		if (errors.size() < CommonConstant.MAX_BULK_ERRORS) {
+			errors.add(new BulkRowError(row, isbnNumber, message));
+		}
+	}
+}
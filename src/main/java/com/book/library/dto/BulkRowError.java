@@ -0,0 +1,28 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowError implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = -2760584146473398327L;
+
+	// 1-based position of the row in the request or uploaded file
+	private int row;
+
+	private String isbnNumber;
+
+	private String message;
+}
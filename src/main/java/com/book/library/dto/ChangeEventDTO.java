@@ -0,0 +1,51 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.book.library.constant.ChangeEventType;
+import com.book.library.model.Book;
+import com.book.library.model.BorrowBookHistory;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = -2409917468307714196L;
+
+	@Schema(description = "What happened to the copy", example = "BORROWED")
+	private ChangeEventType type;
+
+	private Long bookId;
+
+	@Schema(description = "ISBN number of the copy's title", example = "978-3-16-148410-0")
+	private String isbnNumber;
+
+	@Schema(description = "Borrower of a BORROWED or RETURNED copy")
+	private Long borrowerId;
+
+	@Schema(type = "string", example = "2024-05-01T15:15:00")
+	private LocalDateTime occurredAt;
+
+	public ChangeEventDTO(Book book) {
+		this(ChangeEventType.REGISTERED, book.getId(), book.getIsbnNumber(), null, book.getCreatedDate());
+	}
+
+	public ChangeEventDTO(ChangeEventType type, BorrowBookHistory borrowBookHistory) {
+		this(type, borrowBookHistory.getBook().getId(), borrowBookHistory.getBook().getIsbnNumber(),
+				borrowBookHistory.getBorrower().getId(),
+				type == ChangeEventType.RETURNED ? borrowBookHistory.getReturnDate() : borrowBookHistory.getBorrowDate());
+	}
+}
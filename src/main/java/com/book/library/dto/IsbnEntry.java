@@ -0,0 +1,30 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import com.book.library.model.Book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Title and author registered for an ISBN; every copy of an ISBN must share them.
+ */
+@Getter
+@AllArgsConstructor
+public class IsbnEntry implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 3115283724452063427L;
+
+	private String isbnNumber;
+
+	private String title;
+
+	private String author;
+
+	public IsbnEntry(Book book) {
+		this(book.getIsbnNumber(), book.getTitle(), book.getAuthor());
+	}
+}
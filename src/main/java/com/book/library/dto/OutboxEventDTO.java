@@ -0,0 +1,40 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.book.library.constant.ChangeEventType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 6150473980226153027L;
+
+	private Long id;
+
+	// delivery order, increases in commit order per book; consumers drop seqs they have already seen
+	private Long seq;
+
+	private ChangeEventType type;
+
+	private Long bookId;
+
+	// the ChangeEventDTO as written by the API
+	@JsonRawValue
+	private String payload;
+
+	private LocalDateTime createdDate;
+}
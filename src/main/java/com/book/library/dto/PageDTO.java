@@ -22,4 +22,6 @@ public class PageDTO<T> implements Serializable {
 	int numberofElements;
 	long totalElements;
 	int totalPages;
+	// Keyset pagination: opaque token for the next page, null on the last page
+	String nextCursor;
 }
@@ -0,0 +1,59 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.book.library.constant.ReservationStatus;
+import com.book.library.model.Reservation;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 1736208573094315762L;
+
+	private Long id;
+
+	@Schema(description = "ISBN number of the reserved title", example = "978-3-16-148410-0")
+	private String isbnNumber;
+
+	private Long borrowerId;
+
+	@Schema(description = "WAITING until a copy is lent to the borrower, then FULFILLED; or CANCELLED")
+	private ReservationStatus status;
+
+	@Schema(description = "Place in the title's queue, 1 for the next copy; only while WAITING", example = "2")
+	private Long position;
+
+	@Schema(description = "Copy lent to the borrower once FULFILLED")
+	private Long bookId;
+
+	@Schema(description = "Borrow history record of that loan once FULFILLED")
+	private Long historyId;
+
+	@Schema(type = "string", example = "2024-05-01T15:15:00")
+	private LocalDateTime createdDate;
+
+	public ReservationDTO(Reservation reservation, Long position) {
+		this.id = reservation.getId();
+		this.isbnNumber = reservation.getIsbnNumber();
+		this.borrowerId = reservation.getBorrowerId();
+		this.status = reservation.getStatus();
+		this.position = position;
+		this.bookId = reservation.getBookId();
+		this.historyId = reservation.getHistoryId();
+		this.createdDate = reservation.getCreatedDate();
+	}
+}
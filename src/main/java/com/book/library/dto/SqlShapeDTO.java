@@ -0,0 +1,37 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlShapeDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = -4113296452960519754L;
+
+	// the SQL with literals replaced by ? and IN lists collapsed
+	private String shape;
+
+	private long executions;
+
+	private long errors;
+
+	private double totalMillis;
+
+	private double meanMillis;
+
+	private double maxMillis;
+
+	// rows read by queries, rows changed by updates
+	private long rows;
+}
@@ -0,0 +1,32 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsBucketDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = -3407723170148870154L;
+
+	@Schema(type = "string", description = "Start of the hour or day", example = "2024-05-01T00:00:00")
+	private LocalDateTime bucketStart;
+
+	@Schema(description = "Loans started in the bucket", example = "12")
+	private long borrowCount;
+
+	@Schema(description = "Loans ended in the bucket", example = "9")
+	private long returnCount;
+}
@@ -0,0 +1,31 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsCountDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 2748017369205418307L;
+
+	@Schema(description = "ISBN number, author, borrower id or hour of day, depending on the dimension", example = "978-3-16-148410-0")
+	private String key;
+
+	@Schema(description = "Loans started", example = "42")
+	private long borrowCount;
+
+	@Schema(description = "Loans ended", example = "40")
+	private long returnCount;
+}
@@ -0,0 +1,31 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitleAvailabilityDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = -5032713596422086915L;
+
+	@Schema(description = "ISBN number of the title", example = "978-3-16-148410-0")
+	private String isbnNumber;
+
+	@Schema(description = "Copies of the title in the library", example = "3")
+	private int totalCopies;
+
+	@Schema(description = "Copies not currently borrowed", example = "1")
+	private int availableCopies;
+}
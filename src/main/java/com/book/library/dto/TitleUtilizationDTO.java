@@ -0,0 +1,43 @@
+package com.book.library.dto;
+
+import java.io.Serializable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitleUtilizationDTO implements Serializable {
+	/**
+	* 
+	*/
+	private static final long serialVersionUID = 6043318212657401180L;
+
+	@Schema(description = "ISBN number of the title", example = "978-3-16-148410-0")
+	private String isbnNumber;
+
+	@Schema(description = "Copies of the title in the library", example = "4")
+	private int totalCopies;
+
+	@Schema(description = "Copies currently borrowed", example = "3")
+	private int copiesOnLoan;
+
+	@Schema(description = "Share of the copies currently borrowed", example = "0.75")
+	private double utilization;
+
+	@Schema(description = "Days counted, including today", example = "30")
+	private int days;
+
+	@Schema(description = "Loans of the title started in those days", example = "18")
+	private long borrowCount;
+
+	@Schema(description = "Loans started per copy in those days", example = "4.5")
+	private double borrowsPerCopy;
+}
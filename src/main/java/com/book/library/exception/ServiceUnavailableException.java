@@ -0,0 +1,12 @@
+package com.book.library.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    /**
+	 * 
+	 */
+	private static final long serialVersionUID = -2810764925871315804L;
+
+	public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
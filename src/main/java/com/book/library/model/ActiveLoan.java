@@ -0,0 +1,74 @@
+package com.book.library.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Compact projection of the open loans in borrow_book_history, keyed by book id.
+ * Plain id columns on purpose: the hot path only needs primary key lookups, no joins.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "active_loan")
+@NoArgsConstructor
+public class ActiveLoan implements Persistable<Long>, Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -4018402526432390962L;
+
+	@Id
+	@Column(name = "book_id")
+	private Long bookId;
+
+	@Column(name = "history_id", nullable = false)
+	private Long historyId;
+
+	@Column(name = "borrower_id", nullable = false)
+	private Long borrowerId;
+
+	@Column(name = "borrow_date")
+	private LocalDateTime borrowDate;
+
+	// assigned ids would otherwise make save() merge (select + update) instead of insert
+	@Transient
+	private boolean isNew = true;
+
+	public ActiveLoan(BorrowBookHistory borrowBookHistory) {
+		this.bookId = borrowBookHistory.getBook().getId();
+		this.historyId = borrowBookHistory.getId();
+		this.borrowerId = borrowBookHistory.getBorrower().getId();
+		this.borrowDate = borrowBookHistory.getBorrowDate();
+	}
+
+	@Override
+	public Long getId() {
+		return bookId;
+	}
+
+	@Override
+	public boolean isNew() {
+		return isNew;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+}
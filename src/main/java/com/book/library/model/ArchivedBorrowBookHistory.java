@@ -0,0 +1,70 @@
+package com.book.library.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A returned loan moved out of borrow_book_history by the archive job, under its original id.
+ * Rows are only ever written by that job's SQL, so the entity is read-only; it mirrors
+ * {@link BorrowBookHistory} closely enough for the same specifications and projections.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "borrow_book_history_archive", indexes = {
+		@Index(name = "idx_bbh_borrower_archive", columnList = "borrower_id, id"),
+		@Index(name = "idx_bbh_book_archive", columnList = "book_id, id"),
+		@Index(name = "idx_bbh_borrow_date_archive", columnList = "borrow_date, id") })
+public class ArchivedBorrowBookHistory extends BaseEntity {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 4193630617251877480L;
+
+	@Id
+	@Column(name = "id")
+	private Long id;
+
+	// yyyymm of the borrow date, the archive's partitioning column
+	@Column(name = "borrow_month")
+	private int borrowMonth;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "book_id")
+	private Book book;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "borrower_id")
+	private Borrower borrower;
+
+	@Column(name = "borrow_status")
+	private boolean borrowStatus;
+
+	@Column(name = "borrow_date")
+	private LocalDateTime borrowDate;
+
+	@Column(name = "return_date")
+	private LocalDateTime returnDate;
+
+	@Column(name = "due_date")
+	private LocalDateTime dueDate;
+
+	@Column(name = "archived_date", columnDefinition = "TIMESTAMP")
+	private LocalDateTime archivedDate;
+}
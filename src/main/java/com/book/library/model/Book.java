@@ -1,18 +1,33 @@
 package com.book.library.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.book.library.constant.CommonConstant;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "book")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CommonConstant.BOOK_CACHE_REGION)
+@EntityListeners(CacheVersionListener.class)
+@Table(name = "book", indexes = {
+		@Index(name = "idx_book_isbn_number", columnList = "isbn_number, id"),
+		@Index(name = "idx_book_created_date", columnList = "created_date"),
+		@Index(name = "idx_book_author", columnList = "author, id") })
 public class Book extends BaseEntity{
 
 	/**
@@ -20,8 +35,11 @@ public class Book extends BaseEntity{
 	 */
 	private static final long serialVersionUID = 4540796522934050774L;
 
+	// table hi-lo instead of IDENTITY so Hibernate can batch inserts (bulk import)
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "book_id_gen")
+	@TableGenerator(name = "book_id_gen", table = CommonConstant.ID_GENERATOR_TABLE, pkColumnName = "gen_name",
+			valueColumnName = "gen_value", pkColumnValue = "book", allocationSize = CommonConstant.ID_ALLOCATION_SIZE)
 	@Column(name = "id")
 	private Long id;
 	
@@ -2,21 +2,41 @@ package com.book.library.model;
 
 import java.time.LocalDateTime;
 
+import com.book.library.constant.CommonConstant;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * Book and borrower are lazy, so a plain load reads only this row and their ids come from
+ * the foreign key columns without initializing the proxies. Use cases that build a
+ * {@code BorrowBookHistoryDTO} load through {@link #WITH_BOOK_AND_BORROWER} instead.
+ */
 @Getter
 @Setter
+@NoArgsConstructor
 @Entity
-@Table(name = "borrow_book_history")
+@NamedEntityGraph(name = BorrowBookHistory.WITH_BOOK_AND_BORROWER, attributeNodes = {
+		@NamedAttributeNode("book"),
+		@NamedAttributeNode("borrower") })
+@Table(name = "borrow_book_history", indexes = {
+		@Index(name = "idx_bbh_book_status_borrower", columnList = "book_id, borrow_status, borrower_id"),
+		@Index(name = "idx_bbh_borrower_status", columnList = "borrower_id, borrow_status"),
+		@Index(name = "idx_bbh_borrow_date", columnList = "borrow_date, id"),
+		@Index(name = "idx_bbh_status_due_date", columnList = "borrow_status, due_date, id, book_id, borrower_id") })
 public class BorrowBookHistory extends BaseEntity {
 
 	/**
@@ -24,16 +44,18 @@ public class BorrowBookHistory extends BaseEntity {
 	 */
 	private static final long serialVersionUID = -7595629945158221533L;
 
+	public static final String WITH_BOOK_AND_BORROWER = "BorrowBookHistory.withBookAndBorrower";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	@Column(name = "id")
 	private Long id;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "book_id")
 	private Book book;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "borrower_id")
 	private Borrower borrower;
 	
@@ -45,4 +67,21 @@ public class BorrowBookHistory extends BaseEntity {
 	
 	@Column(name = "return_date")
 	private LocalDateTime returnDate;
+
+	@Column(name = "due_date")
+	private LocalDateTime dueDate;
+
+	/**
+	 * A new, open loan of the copy starting now and due after the loan period.
+	 */
+	public BorrowBookHistory(Book book, Borrower borrower) {
+		LocalDateTime now = LocalDateTime.now();
+		this.book = book;
+		this.borrower = borrower;
+		this.borrowStatus = false;
+		this.borrowDate = now;
+		this.dueDate = now.plusDays(CommonConstant.LOAN_PERIOD_DAYS);
+		setCreatedDate(now);
+		setUpdatedDate(now);
+	}
 }
@@ -1,12 +1,22 @@
 package com.book.library.model;
 
+import java.util.Locale;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.book.library.constant.CommonConstant;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -14,9 +24,12 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "borrower")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CommonConstant.BORROWER_CACHE_REGION)
+@EntityListeners(CacheVersionListener.class)
+@Table(name = "borrower", indexes = {
+		@Index(name = "idx_borrower_email_domain", columnList = "email_domain, id") })
 @NoArgsConstructor
-@AllArgsConstructor
 public class Borrower extends BaseEntity {
 
 	/**
@@ -34,4 +47,21 @@ public class Borrower extends BaseEntity {
 	
 	@Column(name = "email", unique = true, nullable = false)
 	private String email;
+
+	// derived from email so borrowers can be listed by domain through an index
+	@Setter(AccessLevel.NONE)
+	@Column(name = "email_domain")
+	private String emailDomain;
+
+	public Borrower(Long id, String name, String email) {
+		this.id = id;
+		this.name = name;
+		setEmail(email);
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+		int at = email == null ? -1 : email.lastIndexOf('@');
+		this.emailDomain = at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+	}
 }
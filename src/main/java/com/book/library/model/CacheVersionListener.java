@@ -0,0 +1,32 @@
+package com.book.library.model;
+
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.book.library.service.CacheInvalidationService;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Bumps the cache_version stamp of a cached entity's region when it is updated or removed,
+ * so the other replicas evict their copy. Instantiated by Hibernate through Spring.
+ */
+public class CacheVersionListener {
+
+	private final ObjectProvider<CacheInvalidationService> cacheInvalidationService;
+
+	public CacheVersionListener(ObjectProvider<CacheInvalidationService> cacheInvalidationService) {
+		this.cacheInvalidationService = cacheInvalidationService;
+	}
+
+	@PostUpdate
+	@PostRemove
+	void entityChanged(Object entity) {
+		Cache cache = Hibernate.getClass(entity).getAnnotation(Cache.class);
+		if (cache != null) {
+			cacheInvalidationService.getObject().bumpVersionAfterCommit(cache.region());
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.book.library.model;
+
+import com.book.library.constant.ReservationStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A borrower waiting for any copy of a title. Plain id columns like {@link ActiveLoan}: the
+ * queue is only ever read by (isbn_number, status, id) and never needs the joined rows.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "reservation", indexes = {
+		@Index(name = "idx_reservation_queue", columnList = "isbn_number, status, id"),
+		@Index(name = "idx_reservation_borrower", columnList = "borrower_id, status") })
+public class Reservation extends BaseEntity {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 3874411065720412518L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "isbn_number", nullable = false)
+	private String isbnNumber;
+
+	@Column(name = "borrower_id", nullable = false)
+	private Long borrowerId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status", nullable = false, length = 16)
+	private ReservationStatus status;
+
+	// the copy lent and its loan, once fulfilled
+	@Column(name = "book_id")
+	private Long bookId;
+
+	@Column(name = "history_id")
+	private Long historyId;
+}
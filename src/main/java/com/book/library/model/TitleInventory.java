@@ -0,0 +1,45 @@
+package com.book.library.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Copy counters of one title. Only ever changed through the conditional updates of
+ * TitleInventoryRepository, never by loading and saving the entity.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "title_inventory")
+@NoArgsConstructor
+public class TitleInventory implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 2287452168310930546L;
+
+	@Id
+	@Column(name = "isbn_number")
+	private String isbnNumber;
+
+	// of the first registered copy; every copy of the ISBN must share them
+	@Column(name = "title")
+	private String title;
+
+	@Column(name = "author")
+	private String author;
+
+	@Column(name = "total_copies", nullable = false)
+	private int totalCopies;
+
+	@Column(name = "available_copies", nullable = false)
+	private int availableCopies;
+}
@@ -0,0 +1,25 @@
+package com.book.library.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.book.library.model.ActiveLoan;
+
+@Repository
+public interface ActiveLoanRepository extends JpaRepository<ActiveLoan, Long> {
+
+	/**
+	 * Conditional delete used as the atomic "claim" of a return; 0 means another request got there first.
+	 * Clears the persistence context so a copy handed straight to a reservation can get a new
+	 * active loan with the same id in the same transaction.
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("delete from ActiveLoan a where a.historyId in :historyIds")
+	int deleteByHistoryIdIn(@Param("historyIds") Collection<Long> historyIds);
+
+}
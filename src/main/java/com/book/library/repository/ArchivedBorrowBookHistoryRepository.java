@@ -0,0 +1,29 @@
+package com.book.library.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.model.ArchivedBorrowBookHistory;
+
+@Repository
+public interface ArchivedBorrowBookHistoryRepository extends JpaRepository<ArchivedBorrowBookHistory, Long> {
+
+	/**
+	 * Archive side of {@link BorrowBookHistoryRepository#findLoansByBorrowerId}: the same keyset
+	 * page and projection. Archived loans are all returned, so there is no status filter.
+	 */
+	@Query("select new com.book.library.dto.BorrowBookHistoryDTO(h.id, b.id, b.title, b.author, r.id, r.name, "
+			+ "h.borrowStatus, h.borrowDate, h.returnDate) "
+			+ "from ArchivedBorrowBookHistory h join h.book b join h.borrower r "
+			+ "where h.borrower.id = :borrowerId and h.id < :beforeId "
+			+ "order by h.id desc")
+	List<BorrowBookHistoryDTO> findLoansByBorrowerId(@Param("borrowerId") Long borrowerId,
+			@Param("beforeId") Long beforeId, Limit limit);
+
+}
@@ -1,16 +1,93 @@
 package com.book.library.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.book.library.constant.CommonConstant;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.IsbnEntry;
 import com.book.library.model.Book;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>{
 
 	Optional<Book> findFirstByIsbnNumber(String isbnNumber);
 
+	/**
+	 * One copy (the lowest id) per ISBN, for set-based ISBN consistency checks.
+	 */
+	@Query("select b from Book b where b.id in "
+			+ "(select min(c.id) from Book c where c.isbnNumber in :isbnNumbers group by c.isbnNumber)")
+	List<Book> findFirstCopiesByIsbnNumberIn(@Param("isbnNumbers") Collection<String> isbnNumbers);
+
+	/**
+	 * Streams ISBN, title and author of every book for warming the in-process ISBN registry.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CommonConstant.STREAM_FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select new com.book.library.dto.IsbnEntry(b.isbnNumber, b.title, b.author) from Book b")
+	Stream<IsbnEntry> streamIsbnEntries();
+
+	/**
+	 * ISBN entries of books created since the given time, for syncing inserts made by other replicas.
+	 */
+	@Query("select new com.book.library.dto.IsbnEntry(b.isbnNumber, b.title, b.author) from Book b "
+			+ "where b.createdDate >= :since")
+	List<IsbnEntry> findIsbnEntriesCreatedSince(@Param("since") LocalDateTime since);
+
+	/**
+	 * Streams every book as a DTO for building the search index, without loading entities.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CommonConstant.STREAM_FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select new com.book.library.dto.BookDTO(b.id, b.isbnNumber, b.title, b.author) from Book b")
+	Stream<BookDTO> streamBookDTOs();
+
+	/**
+	 * Books created since the given time, for catching the search index up with other replicas.
+	 */
+	@Query("select new com.book.library.dto.BookDTO(b.id, b.isbnNumber, b.title, b.author) from Book b "
+			+ "where b.createdDate >= :since")
+	List<BookDTO> findBookDTOsCreatedSince(@Param("since") LocalDateTime since);
+
+	/**
+	 * Copies of a title with no active loan, lowest id first.
+	 */
+	@Query("select b from Book b where b.isbnNumber = :isbnNumber "
+			+ "and not exists (select a.bookId from ActiveLoan a where a.bookId = b.id) order by b.id")
+	List<Book> findFreeCopies(@Param("isbnNumber") String isbnNumber, Limit limit);
+
+	/**
+	 * Keyset page: books with an id strictly greater than the given one, in id order.
+	 */
+	List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	/**
+	 * Streams the whole catalog with a JDBC fetch size so rows are pulled from the
+	 * server in chunks. Must be consumed inside a transaction and closed afterwards.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CommonConstant.STREAM_FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	Stream<Book> streamAllByOrderByIdAsc();
+
 }
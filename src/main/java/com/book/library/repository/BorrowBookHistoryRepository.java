@@ -1,19 +1,43 @@
 package com.book.library.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.model.BorrowBookHistory;
 
 @Repository
 public interface BorrowBookHistoryRepository
 		extends JpaRepository<BorrowBookHistory, Long>, JpaSpecificationExecutor<BorrowBookHistory> {
 
-	Optional<BorrowBookHistory> findByBookIdAndBorrowerIdAndBorrowStatus(Long bookId, Long borrowerId, Boolean borrowStatus);
+	/**
+	 * Loads a history row with its book and borrower joined in, for building the DTO.
+	 */
+	@EntityGraph(BorrowBookHistory.WITH_BOOK_AND_BORROWER)
+	Optional<BorrowBookHistory> findWithBookAndBorrowerById(Long id);
 
-	Optional<BorrowBookHistory> findByBookIdAndBorrowStatus(Long bookId, Boolean borrowStatus);
+	@EntityGraph(BorrowBookHistory.WITH_BOOK_AND_BORROWER)
+	List<BorrowBookHistory> findWithBookAndBorrowerByIdIn(Collection<Long> ids);
+
+	/**
+	 * Keyset page of a borrower's loans, newest first, as DTOs built in the same statement
+	 * that joins book and borrower. A null {@code returned} lists active and returned loans.
+	 */
+	@Query("select new com.book.library.dto.BorrowBookHistoryDTO(h.id, b.id, b.title, b.author, r.id, r.name, "
+			+ "h.borrowStatus, h.borrowDate, h.returnDate) "
+			+ "from BorrowBookHistory h join h.book b join h.borrower r "
+			+ "where h.borrower.id = :borrowerId and (:returned is null or h.borrowStatus = :returned) and h.id < :beforeId "
+			+ "order by h.id desc")
+	List<BorrowBookHistoryDTO> findLoansByBorrowerId(@Param("borrowerId") Long borrowerId,
+			@Param("returned") Boolean returned, @Param("beforeId") Long beforeId, Limit limit);
 
 }
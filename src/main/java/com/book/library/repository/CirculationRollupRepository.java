@@ -0,0 +1,163 @@
+package com.book.library.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.book.library.constant.StatsDimension;
+import com.book.library.constant.StatsGranularity;
+import com.book.library.dto.StatsBucketDTO;
+import com.book.library.dto.StatsCountDTO;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads and increments the circulation rollups. Increments are collected in a {@link Delta}
+ * and written as batched upserts in primary key order, so writers touching the same rows
+ * (every loan moves the ALL and HOUR_OF_DAY counts) queue up instead of deadlocking.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CirculationRollupRepository {
+
+	private static final String ADD_ROLLUP = "insert into circulation_rollup (dimension, dimension_key, granularity,"
+			+ " bucket_start, borrow_count, return_count) values (?, ?, ?, ?, ?, ?)"
+			+ " on duplicate key update borrow_count = borrow_count + ?, return_count = return_count + ?";
+
+	private static final String ADD_TOTAL = "insert into circulation_total (dimension, dimension_key, borrow_count, return_count)"
+			+ " values (?, ?, ?, ?) on duplicate key update borrow_count = borrow_count + ?, return_count = return_count + ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Adds the delta in the caller's transaction.
+	 */
+	public void add(Delta delta) {
+		List<Map.Entry<RollupKey, long[]>> rollups = new ArrayList<>(delta.rollups.entrySet());
+		jdbcTemplate.batchUpdate(ADD_ROLLUP, rollups, rollups.size(), (ps, entry) -> {
+			RollupKey key = entry.getKey();
+			ps.setString(1, key.dimension().name());
+			ps.setString(2, key.key());
+			ps.setString(3, key.granularity().getCode());
+			ps.setTimestamp(4, Timestamp.valueOf(key.bucketStart()));
+			ps.setLong(5, entry.getValue()[0]);
+			ps.setLong(6, entry.getValue()[1]);
+			ps.setLong(7, entry.getValue()[0]);
+			ps.setLong(8, entry.getValue()[1]);
+		});
+		List<Map.Entry<TotalKey, long[]>> totals = new ArrayList<>(delta.totals.entrySet());
+		jdbcTemplate.batchUpdate(ADD_TOTAL, totals, totals.size(), (ps, entry) -> {
+			ps.setString(1, entry.getKey().dimension().name());
+			ps.setString(2, entry.getKey().key());
+			ps.setLong(3, entry.getValue()[0]);
+			ps.setLong(4, entry.getValue()[1]);
+			ps.setLong(5, entry.getValue()[0]);
+			ps.setLong(6, entry.getValue()[1]);
+		});
+	}
+
+	/**
+	 * The keys of a dimension with the most loans, read backwards along
+	 * idx_circulation_total_borrows.
+	 */
+	public List<StatsCountDTO> findTop(StatsDimension dimension, int limit) {
+		return jdbcTemplate.query("select dimension_key, borrow_count, return_count from circulation_total"
+				+ " where dimension = ? order by borrow_count desc, dimension_key desc limit ?",
+				(rs, rowNum) -> new StatsCountDTO(rs.getString(1), rs.getLong(2), rs.getLong(3)), dimension.name(), limit);
+	}
+
+	public List<StatsCountDTO> findTotals(StatsDimension dimension) {
+		return jdbcTemplate.query("select dimension_key, borrow_count, return_count from circulation_total"
+				+ " where dimension = ? order by dimension_key",
+				(rs, rowNum) -> new StatsCountDTO(rs.getString(1), rs.getLong(2), rs.getLong(3)), dimension.name());
+	}
+
+	/**
+	 * Buckets of one key starting in [from, to), oldest first; buckets without loans are absent.
+	 */
+	public List<StatsBucketDTO> findBuckets(StatsDimension dimension, String key, StatsGranularity granularity,
+			LocalDateTime from, LocalDateTime to) {
+		return jdbcTemplate.query("select bucket_start, borrow_count, return_count from circulation_rollup"
+				+ " where dimension = ? and dimension_key = ? and granularity = ? and bucket_start >= ? and bucket_start < ?"
+				+ " order by bucket_start",
+				(rs, rowNum) -> new StatsBucketDTO(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), rs.getLong(3)),
+				dimension.name(), key, granularity.getCode(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+	}
+
+	/**
+	 * Counts of a set of loan events, summed per rollup and total row.
+	 */
+	public static final class Delta {
+
+		private final Map<RollupKey, long[]> rollups = new TreeMap<>();
+
+		private final Map<TotalKey, long[]> totals = new TreeMap<>();
+
+		private long events;
+
+		public void borrowed(String isbnNumber, String author, Long borrowerId, LocalDateTime at) {
+			count(0, isbnNumber, author, borrowerId, at);
+		}
+
+		public void returned(String isbnNumber, String author, Long borrowerId, LocalDateTime at) {
+			count(1, isbnNumber, author, borrowerId, at);
+		}
+
+		public long getEvents() {
+			return events;
+		}
+
+		private void count(int column, String isbnNumber, String author, Long borrowerId, LocalDateTime at) {
+			events++;
+			count(column, StatsDimension.TITLE, isbnNumber, at);
+			count(column, StatsDimension.AUTHOR, author, at);
+			count(column, StatsDimension.BORROWER, borrowerId == null ? null : borrowerId.toString(), at);
+			count(column, StatsDimension.ALL, "", at);
+			totals.computeIfAbsent(new TotalKey(StatsDimension.HOUR_OF_DAY, String.format("%02d", at.getHour())),
+					k -> new long[2])[column]++;
+		}
+
+		private void count(int column, StatsDimension dimension, String key, LocalDateTime at) {
+			if (key == null) {
+				return;
+			}
+			for (StatsGranularity granularity : StatsGranularity.values()) {
+				rollups.computeIfAbsent(new RollupKey(dimension, key, granularity, granularity.bucketOf(at)),
+						k -> new long[2])[column]++;
+			}
+			totals.computeIfAbsent(new TotalKey(dimension, key), k -> new long[2])[column]++;
+		}
+	}
+
+	private record RollupKey(StatsDimension dimension, String key, StatsGranularity granularity, LocalDateTime bucketStart)
+			implements Comparable<RollupKey> {
+
+		private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::dimension)
+				.thenComparing(RollupKey::key)
+				.thenComparing(RollupKey::granularity)
+				.thenComparing(RollupKey::bucketStart);
+
+		@Override
+		public int compareTo(RollupKey other) {
+			return ORDER.compare(this, other);
+		}
+	}
+
+	private record TotalKey(StatsDimension dimension, String key) implements Comparable<TotalKey> {
+
+		private static final Comparator<TotalKey> ORDER = Comparator.comparing(TotalKey::dimension)
+				.thenComparing(TotalKey::key);
+
+		@Override
+		public int compareTo(TotalKey other) {
+			return ORDER.compare(this, other);
+		}
+	}
+}
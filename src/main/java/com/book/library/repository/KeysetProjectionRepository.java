@@ -0,0 +1,75 @@
+package com.book.library.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs a {@link Specification} as one keyset page with a constructor (DTO) projection, so only the
+ * selected columns are read and no entities enter the persistence context.
+ * JpaSpecificationExecutor itself always loads entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeysetProjectionRepository {
+
+	private static final String ID = "id";
+
+	private final EntityManager entityManager;
+
+	/**
+	 * Rows matching the specification with an id greater than {@code afterId}, in id order.
+	 *
+	 * @param columns the constructor arguments of {@code dtoClass}, in order
+	 */
+	public <E, D> List<D> findPage(Class<E> entityClass, Specification<E> specification, Long afterId, int limit,
+			Class<D> dtoClass, Function<Root<E>, List<Selection<?>>> columns) {
+		return findPage(entityClass, specification, null, (String) null, afterId, limit, dtoClass, columns);
+	}
+
+	/**
+	 * Rows matching the specification in ({@code sortAttribute}, id) order, after the given position.
+	 * Used when the filter is a range on an indexed column, so the same index serves the order.
+	 * A null {@code sortAttribute} means id order; a null {@code afterSortValue} means the first page.
+	 */
+	public <E, D, S extends Comparable<? super S>> List<D> findPage(Class<E> entityClass, Specification<E> specification,
+			String sortAttribute, S afterSortValue, Long afterId, int limit, Class<D> dtoClass, Function<Root<E>, List<Selection<?>>> columns) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<D> query = cb.createQuery(dtoClass);
+		Root<E> root = query.from(entityClass);
+		List<Predicate> predicates = new ArrayList<>(2);
+		if (specification != null) {
+			Predicate filter = specification.toPredicate(root, query, cb);
+			if (filter != null) {
+				predicates.add(filter);
+			}
+		}
+		if (sortAttribute == null) {
+			predicates.add(cb.greaterThan(root.get(ID), afterId));
+			query.orderBy(cb.asc(root.get(ID)));
+		} else {
+			Path<S> sort = root.get(sortAttribute);
+			if (afterSortValue != null) {
+				predicates.add(cb.or(cb.greaterThan(sort, afterSortValue),
+						cb.and(cb.equal(sort, afterSortValue), cb.greaterThan(root.get(ID), afterId))));
+			}
+			query.orderBy(cb.asc(sort), cb.asc(root.get(ID)));
+		}
+		query.select(cb.construct(dtoClass, columns.apply(root).toArray(Selection[]::new)))
+				.where(predicates.toArray(Predicate[]::new));
+		return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+	}
+}
@@ -0,0 +1,52 @@
+package com.book.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.book.library.constant.ReservationStatus;
+import com.book.library.model.Reservation;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+	/**
+	 * Head of a title's queue. A locking read, so it sees reservations committed after the
+	 * transaction's snapshot was taken and no other transaction can hand out the same ones.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select r from Reservation r where r.isbnNumber = :isbnNumber "
+			+ "and r.status = com.book.library.constant.ReservationStatus.WAITING order by r.id")
+	List<Reservation> lockQueueHead(@Param("isbnNumber") String isbnNumber, Limit limit);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<Reservation> findForUpdateById(Long id);
+
+	boolean existsByIsbnNumberAndBorrowerIdAndStatus(String isbnNumber, Long borrowerId, ReservationStatus status);
+
+	@Query("select count(r) from Reservation r where r.isbnNumber = :isbnNumber "
+			+ "and r.status = com.book.library.constant.ReservationStatus.WAITING and r.id <= :id")
+	long countQueuedUpTo(@Param("isbnNumber") String isbnNumber, @Param("id") Long id);
+
+	/**
+	 * Titles where someone is waiting although a copy is free, e.g. after copies were
+	 * registered or a replica stopped between a return and its hand-over.
+	 */
+	@Query("select distinct r.isbnNumber from Reservation r, TitleInventory t where t.isbnNumber = r.isbnNumber "
+			+ "and r.status = com.book.library.constant.ReservationStatus.WAITING and t.availableCopies > 0 "
+			+ "order by r.isbnNumber")
+	List<String> findServableTitles();
+
+	long countByStatus(ReservationStatus status);
+
+	List<Reservation> findByIdInAndStatusNot(Collection<Long> ids, ReservationStatus status);
+}
@@ -0,0 +1,70 @@
+package com.book.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.book.library.dto.IsbnEntry;
+import com.book.library.dto.TitleAvailabilityDTO;
+import com.book.library.model.TitleInventory;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface TitleInventoryRepository extends JpaRepository<TitleInventory, String> {
+
+	/**
+	 * Takes copies of a title if that many are available; 0 means they are not.
+	 */
+	@Modifying
+	@Query("update TitleInventory t set t.availableCopies = t.availableCopies - :copies "
+			+ "where t.isbnNumber = :isbnNumber and t.availableCopies >= :copies")
+	int takeCopies(@Param("isbnNumber") String isbnNumber, @Param("copies") int copies);
+
+	/**
+	 * Puts copies of a title back; 0 means the counters had drifted.
+	 */
+	@Modifying
+	@Query("update TitleInventory t set t.availableCopies = t.availableCopies + :copies "
+			+ "where t.isbnNumber = :isbnNumber and t.availableCopies + :copies <= t.totalCopies")
+	int releaseCopies(@Param("isbnNumber") String isbnNumber, @Param("copies") int copies);
+
+	/**
+	 * Counts newly registered copies, creating the title with its title and author on its first
+	 * copy. The row lock it takes serializes registrations of the same ISBN until commit.
+	 */
+	@Modifying
+	@Query(value = "insert into title_inventory (isbn_number, title, author, total_copies, available_copies) "
+			+ "values (:isbnNumber, :title, :author, :copies, :copies) on duplicate key update "
+			+ "title = coalesce(title, :title), author = coalesce(author, :author), "
+			+ "total_copies = total_copies + :copies, available_copies = available_copies + :copies", nativeQuery = true)
+	int addCopies(@Param("isbnNumber") String isbnNumber, @Param("title") String title, @Param("author") String author,
+			@Param("copies") int copies);
+
+	/**
+	 * Title and author the ISBNs were first registered with. Read after addCopies in the same
+	 * transaction, these are the latest committed ones: the rows are locked and changed by it.
+	 */
+	@Query("select new com.book.library.dto.IsbnEntry(t.isbnNumber, t.title, t.author) from TitleInventory t "
+			+ "where t.isbnNumber in :isbnNumbers")
+	List<IsbnEntry> findIsbnEntries(@Param("isbnNumbers") Collection<String> isbnNumbers);
+
+	/**
+	 * Locks a title's counters for a decision that reads them first, like queueing for it.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select t from TitleInventory t where t.isbnNumber = :isbnNumber")
+	Optional<TitleInventory> lockByIsbnNumber(@Param("isbnNumber") String isbnNumber);
+
+	@Query("select new com.book.library.dto.TitleAvailabilityDTO(t.isbnNumber, t.totalCopies, t.availableCopies) "
+			+ "from TitleInventory t where t.isbnNumber in :isbnNumbers")
+	List<TitleAvailabilityDTO> findAvailability(@Param("isbnNumbers") Collection<String> isbnNumbers);
+
+}
@@ -0,0 +1,27 @@
+package com.book.library.repository.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.book.library.model.Book;
+
+/**
+ * Book filters. Each one is an equality or a left-anchored LIKE on an indexed column;
+ * a null argument means "no filter".
+ */
+public class BookSpecification {
+
+	public static Specification<Book> hasAuthor(String author) {
+		if (author == null || author.isBlank()) {
+			return null;
+		}
+		return (root, query, cb) -> cb.equal(root.get("author"), author);
+	}
+
+	public static Specification<Book> isbnStartsWith(String isbnPrefix) {
+		if (isbnPrefix == null || isbnPrefix.isBlank()) {
+			return null;
+		}
+		return (root, query, cb) -> cb.like(root.get("isbnNumber"),
+				SpecificationUtils.escapeLike(isbnPrefix) + "%", SpecificationUtils.LIKE_ESCAPE);
+	}
+}
@@ -0,0 +1,55 @@
+package com.book.library.repository.specification;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Borrow history filters. Book and borrower compare the foreign key columns directly
+ * (no join), so they are served by idx_bbh_book_status_borrower and idx_bbh_borrower_status.
+ * The filters are generic so they apply as is to the archive, which has the same attributes.
+ */
+public class BorrowBookHistorySpecification {
+
+	public static <T> Specification<T> hasBorrower(Long borrowerId) {
+		if (borrowerId == null) {
+			return null;
+		}
+		return (root, query, cb) -> cb.equal(root.get("borrower").get("id"), borrowerId);
+	}
+
+	public static <T> Specification<T> hasBook(Long bookId) {
+		if (bookId == null) {
+			return null;
+		}
+		return (root, query, cb) -> cb.equal(root.get("book").get("id"), bookId);
+	}
+
+	/**
+	 * true for returned loans, false for loans still open.
+	 */
+	public static <T> Specification<T> hasStatus(Boolean returned) {
+		if (returned == null) {
+			return null;
+		}
+		return (root, query, cb) -> cb.equal(root.get("borrowStatus"), returned);
+	}
+
+	/**
+	 * Borrowed in [from, to); either bound may be null.
+	 */
+	public static <T> Specification<T> borrowedBetween(LocalDateTime from, LocalDateTime to) {
+		if (from == null && to == null) {
+			return null;
+		}
+		return (root, query, cb) -> {
+			if (to == null) {
+				return cb.greaterThanOrEqualTo(root.get("borrowDate"), from);
+			}
+			if (from == null) {
+				return cb.lessThan(root.get("borrowDate"), to);
+			}
+			return cb.and(cb.greaterThanOrEqualTo(root.get("borrowDate"), from), cb.lessThan(root.get("borrowDate"), to));
+		};
+	}
+}
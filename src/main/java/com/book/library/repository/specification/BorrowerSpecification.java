@@ -0,0 +1,21 @@
+package com.book.library.repository.specification;
+
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.book.library.model.Borrower;
+
+public class BorrowerSpecification {
+
+	/**
+	 * Matches the derived email_domain column, which is indexed, rather than a suffix LIKE on email.
+	 */
+	public static Specification<Borrower> hasEmailDomain(String emailDomain) {
+		if (emailDomain == null || emailDomain.isBlank()) {
+			return null;
+		}
+		String domain = emailDomain.trim().toLowerCase(Locale.ROOT);
+		return (root, query, cb) -> cb.equal(root.get("emailDomain"), domain.startsWith("@") ? domain.substring(1) : domain);
+	}
+}
@@ -0,0 +1,21 @@
+package com.book.library.repository.specification;
+
+public class SpecificationUtils {
+
+	public static final char LIKE_ESCAPE = '\\';
+
+	/**
+	 * Escapes LIKE wildcards so user input only ever forms a literal prefix.
+	 */
+	public static String escapeLike(String value) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+				escaped.append(LIKE_ESCAPE);
+			}
+			escaped.append(c);
+		}
+		return escaped.toString();
+	}
+}
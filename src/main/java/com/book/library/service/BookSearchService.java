@@ -0,0 +1,23 @@
+package com.book.library.service;
+
+import java.util.List;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.PageDTO;
+
+public interface BookSearchService {
+
+	/**
+	 * Relevance-ranked search over title, author and ISBN; pages are chained with nextCursor.
+	 */
+	public PageDTO<BookDTO> search(String query, String cursor, int size);
+
+	/**
+	 * Adds books to the index; inside a transaction this happens after commit.
+	 */
+	public void index(List<BookDTO> books);
+
+	public void warmUp();
+
+	public void syncRecent();
+}
@@ -1,12 +1,30 @@
 package com.book.library.service;
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.book.library.constant.ImportFormat;
 import com.book.library.dto.BookDTO;
+import com.book.library.dto.BulkRegisterResp;
+import com.book.library.dto.PageDTO;
+import com.book.library.dto.TitleAvailabilityDTO;
 
 public interface BookService {
 	
      public BookDTO register(BookDTO bookDTO);
 
+     public BulkRegisterResp registerBulk(List<BookDTO> books);
+
+     public BulkRegisterResp registerBulk(InputStream inputStream, ImportFormat format);
+
 	 public List<BookDTO> getAllBooks();
+
+	 public PageDTO<BookDTO> getBooks(String cursor, int size);
+
+	 public PageDTO<BookDTO> filterBooks(String author, String isbnPrefix, String cursor, int size);
+
+	 public void streamAllBooks(Consumer<BookDTO> consumer);
+
+	 public List<TitleAvailabilityDTO> getAvailability(List<String> isbnNumbers);
 	
 }
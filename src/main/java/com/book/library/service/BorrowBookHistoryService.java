@@ -1,12 +1,27 @@
 package com.book.library.service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.book.library.dto.BatchItemResp;
 import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.PageDTO;
 
 public interface BorrowBookHistoryService {
 	
 	public BorrowBookHistoryDTO borrowBook(BorrowBookReq req);
 
+	public BorrowBookHistoryDTO borrowBookByIsbn(BorrowByIsbnReq req);
+
 	public BorrowBookHistoryDTO returnBorrowBook(Long bookId, Long borrowerId);
 
+	public List<BatchItemResp> borrowBooks(List<BorrowBookReq> reqs);
+
+	public List<BatchItemResp> returnBorrowBooks(List<BorrowBookReq> reqs);
+
+	public PageDTO<BorrowBookHistoryDTO> filterHistory(Long borrowerId, Long bookId, Boolean returned,
+			LocalDateTime from, LocalDateTime to, String cursor, int size);
+
 }
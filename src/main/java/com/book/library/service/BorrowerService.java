@@ -1,8 +1,14 @@
 package com.book.library.service;
 
+import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowerDTO;
+import com.book.library.dto.PageDTO;
 
 public interface BorrowerService {
 
 	public BorrowerDTO register(BorrowerDTO borrowerDTO);
+
+	public PageDTO<BorrowerDTO> filterBorrowers(String emailDomain, String cursor, int size);
+
+	public PageDTO<BorrowBookHistoryDTO> getLoans(Long borrowerId, Boolean returned, String cursor, int size);
 }
@@ -0,0 +1,10 @@
+package com.book.library.service;
+
+public interface CacheInvalidationService {
+
+	public void bumpVersionAfterCommit(String region);
+
+	public void pollVersions();
+
+	public void logStatistics();
+}
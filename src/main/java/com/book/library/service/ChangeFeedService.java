@@ -0,0 +1,28 @@
+package com.book.library.service;
+
+import java.util.List;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.book.library.dto.OutboxEventDTO;
+
+public interface ChangeFeedService {
+
+	/**
+	 * Starts the feed after the given outbox seq, unless it has started already.
+	 */
+	public void startAfter(long seq);
+
+	/**
+	 * Outbox seq of the newest event published, -1 until started.
+	 */
+	public long getLastSeq();
+
+	public void publish(List<OutboxEventDTO> events);
+
+	public SseEmitter subscribe(String lastEventId);
+
+	public int getSubscriberCount();
+
+	public void sendHeartbeats();
+}
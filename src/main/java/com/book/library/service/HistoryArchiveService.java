@@ -0,0 +1,6 @@
+package com.book.library.service;
+
+public interface HistoryArchiveService {
+
+	public long archiveReturnedLoans();
+}
@@ -0,0 +1,24 @@
+package com.book.library.service;
+
+import java.util.Optional;
+
+import com.book.library.dto.IsbnEntry;
+
+public interface IsbnRegistry {
+
+	/**
+	 * True only if no book with this ISBN exists, so the database lookup can be skipped.
+	 */
+	public boolean isDefinitelyNew(String isbnNumber);
+
+	public Optional<IsbnEntry> getCached(String isbnNumber);
+
+	/**
+	 * Records a registered ISBN; inside a transaction this happens after commit.
+	 */
+	public void record(IsbnEntry entry);
+
+	public void warmUp();
+
+	public void syncRecent();
+}
@@ -0,0 +1,27 @@
+package com.book.library.service;
+
+import java.util.List;
+
+import com.book.library.dto.ChangeEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public interface OutboxService {
+
+	/**
+	 * Writes and reads event payloads and the events sinks send on. Not the API's mapper, so
+	 * downstream systems get ISO-8601 dates whatever format the API responds in.
+	 */
+	public static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+			.addModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.build();
+
+	public void append(List<ChangeEventDTO> changes);
+
+	public void relay();
+
+	public void purge();
+}
@@ -0,0 +1,27 @@
+package com.book.library.service;
+
+import java.util.List;
+
+import com.book.library.dto.OutboxEventDTO;
+
+/**
+ * Where the outbox relay delivers events. A sink returns only once the whole batch is
+ * durably accepted and throws otherwise; the relay then delivers the batch again, so a sink
+ * may see an event more than once but never out of order.
+ * <p>
+ * Every sink has its own lease and checkpoint row in outbox_relay, named by
+ * {@link #getRelayName()}, so a slow or failing sink never holds back the others.
+ */
+public interface OutboxSink {
+
+	public String getName();
+
+	/**
+	 * The outbox_relay row of this sink; the broker sinks share the row of the original relay.
+	 */
+	public default String getRelayName() {
+		return "default";
+	}
+
+	public void publish(List<OutboxEventDTO> events);
+}
@@ -0,0 +1,8 @@
+package com.book.library.service;
+
+public interface OverdueReminderService {
+
+	public long remindOverdueLoans();
+
+	public long resumeInterruptedRun();
+}
@@ -0,0 +1,25 @@
+package com.book.library.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.ReservationDTO;
+import com.book.library.model.BorrowBookHistory;
+
+public interface ReservationService {
+
+	public ReservationDTO reserve(BorrowByIsbnReq req);
+
+	public ReservationDTO getReservation(Long id);
+
+	public ReservationDTO cancel(Long id, Long borrowerId);
+
+	public CompletableFuture<ReservationDTO> awaitChange(Long id);
+
+	public void handOver(List<BorrowBookHistory> returnedLoans);
+
+	public void recover();
+
+	public void dispatch();
+}
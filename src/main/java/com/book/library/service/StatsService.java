@@ -0,0 +1,26 @@
+package com.book.library.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.book.library.constant.StatsDimension;
+import com.book.library.constant.StatsGranularity;
+import com.book.library.dto.StatsBucketDTO;
+import com.book.library.dto.StatsCountDTO;
+import com.book.library.dto.TitleUtilizationDTO;
+
+public interface StatsService {
+
+	public List<StatsCountDTO> getTop(StatsDimension dimension, int limit);
+
+	public List<StatsCountDTO> getBusiestHours();
+
+	public List<StatsBucketDTO> getSeries(StatsDimension dimension, String key, StatsGranularity granularity,
+			LocalDateTime from, LocalDateTime to);
+
+	public TitleUtilizationDTO getTitleUtilization(String isbnNumber, int days);
+
+	public long backfill();
+
+	public void resumeBackfill();
+}
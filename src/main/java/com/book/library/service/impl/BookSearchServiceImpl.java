@@ -0,0 +1,365 @@
+package com.book.library.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.PageDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.exception.ServiceUnavailableException;
+import com.book.library.repository.BookRepository;
+import com.book.library.service.BookSearchService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded Lucene index over the catalog, kept in a local directory (memory-mapped, so it lives
+ * in the page cache rather than on the heap) and rebuilt from a streaming scan at startup. Title and author match by term, prefix and (for longer terms) fuzzily; a query that
+ * looks like an ISBN also matches the normalized ISBN exactly. Until the startup build has
+ * finished search answers 503 so readiness never waits on it.
+ */
+@Service
+@Slf4j
+public class BookSearchServiceImpl implements BookSearchService {
+
+	private static final String ID = "id";
+	private static final String ID_SORT = "idSort";
+	private static final String ISBN = "isbn";
+	private static final String ISBN_NUMBER = "isbnNumber";
+	private static final String TITLE = "title";
+	private static final String AUTHOR = "author";
+
+	private static final float TITLE_BOOST = 2f;
+	private static final float ISBN_BOOST = 10f;
+	private static final int FUZZY_MIN_LENGTH = 4;
+
+	// relevance first, id breaks ties so the cursor position is unique
+	private static final Sort SORT = new Sort(SortField.FIELD_SCORE, new SortField(ID_SORT, SortField.Type.LONG));
+
+	private final BookRepository bookRepository;
+
+	private final TransactionTemplate readOnly;
+
+	private final long syncOverlapMillis;
+
+	private final Analyzer analyzer;
+
+	private final Path indexDir;
+
+	private final Directory directory;
+
+	private final IndexWriter writer;
+
+	private final SearcherManager searcherManager;
+
+	private volatile boolean ready;
+
+	private volatile LocalDateTime lastSyncStart;
+
+	public BookSearchServiceImpl(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+			@Value("${library.search.sync-overlap-ms:60000}") long syncOverlapMillis,
+			@Value("${library.search.index-dir:${java.io.tmpdir}}") String indexBaseDir) {
+		this.bookRepository = bookRepository;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.syncOverlapMillis = syncOverlapMillis;
+		this.analyzer = new StandardAnalyzer();
+		try {
+			// a directory of its own per instance: the index is rebuilt at startup and never shared
+			this.indexDir = Files.createTempDirectory(Files.createDirectories(Path.of(indexBaseDir)), "search-index-");
+			this.directory = FSDirectory.open(indexDir);
+			this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+					.setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+			this.searcherManager = new SearcherManager(writer, null);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public PageDTO<BookDTO> search(String query, String cursor, int size) {
+		if (query == null || query.isBlank()) {
+			throw new BusinessException("Search query must not be empty.");
+		}
+		if (size < 1 || size > CommonConstant.MAX_PAGE_SIZE) {
+			throw new BusinessException(String.format("Page size must be between 1 and %d.", CommonConstant.MAX_PAGE_SIZE));
+		}
+		if (!ready) {
+			throw new ServiceUnavailableException("The search index is being built, please retry.");
+		}
+		Object[] after = decodeCursor(cursor);
+		Query luceneQuery = buildQuery(query);
+		try {
+			IndexSearcher searcher = searcherManager.acquire();
+			try {
+				// one extra hit tells us whether another page exists
+				// on a full tie Lucene compares doc ids, so the highest one keeps the cursor hit itself out
+				TopFieldDocs top = after == null ? searcher.search(luceneQuery, size + 1, SORT, true)
+						: searcher.searchAfter(new FieldDoc(searcher.getIndexReader().maxDoc() - 1, (Float) after[0], after),
+								luceneQuery, size + 1, SORT, true);
+				boolean hasNext = top.scoreDocs.length > size;
+				int count = Math.min(size, top.scoreDocs.length);
+				StoredFields storedFields = searcher.storedFields();
+				List<BookDTO> content = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					content.add(toBookDTO(storedFields.document(top.scoreDocs[i].doc)));
+				}
+				PageDTO<BookDTO> page = new PageDTO<>();
+				page.setContent(content);
+				page.setSize(size);
+				page.setNumberofElements(count);
+				page.setNextCursor(hasNext ? encodeCursor((FieldDoc) top.scoreDocs[count - 1]) : null);
+				return page;
+			} finally {
+				searcherManager.release(searcher);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void index(List<BookDTO> books) {
+		if (books.isEmpty()) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			add(books);
+			return;
+		}
+		// a rolled back insert must not become searchable
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				add(books);
+			}
+		});
+	}
+
+	private void add(List<BookDTO> books) {
+		try {
+			for (BookDTO book : books) {
+				// keyed by id, so indexing the same book again (overlapping syncs) replaces it
+				writer.updateDocument(new Term(ID, String.valueOf(book.getId())), toDocument(book));
+			}
+			searcherManager.maybeRefresh();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Indexes the whole catalog from one streaming scan. Runs off the startup thread; books
+	 * registered meanwhile are indexed directly and are simply replaced when the scan reaches them.
+	 */
+	@Override
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		LocalDateTime syncStart = LocalDateTime.now();
+		long indexed = readOnly.execute(status -> {
+			long count = 0;
+			try (Stream<BookDTO> stream = bookRepository.streamBookDTOs()) {
+				for (BookDTO book : (Iterable<BookDTO>) stream::iterator) {
+					writer.updateDocument(new Term(ID, String.valueOf(book.getId())), toDocument(book));
+					count++;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return count;
+		});
+		try {
+			searcherManager.maybeRefreshBlocking();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		lastSyncStart = syncStart;
+		ready = true;
+		log.info("Search index built, books : {}", indexed);
+	}
+
+	/**
+	 * Indexes books registered by other replicas, using the same created_date overlap window
+	 * as the ISBN registry since ids are not ordered by commit time across replicas.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${library.search.sync-interval-ms:5000}",
+			initialDelayString = "${library.search.sync-interval-ms:5000}")
+	public void syncRecent() {
+		if (!ready) {
+			return;
+		}
+		LocalDateTime syncStart = LocalDateTime.now();
+		List<BookDTO> books = bookRepository.findBookDTOsCreatedSince(lastSyncStart.minus(syncOverlapMillis, ChronoUnit.MILLIS));
+		if (!books.isEmpty()) {
+			add(books);
+		}
+		lastSyncStart = syncStart;
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		searcherManager.close();
+		writer.close();
+		directory.close();
+		FileSystemUtils.deleteRecursively(indexDir);
+	}
+
+	private Query buildQuery(String text) {
+		BooleanQuery.Builder query = new BooleanQuery.Builder();
+		String isbn = normalizeIsbn(text);
+		if (looksLikeIsbn(isbn)) {
+			query.add(new BoostQuery(new TermQuery(new Term(ISBN, isbn)), ISBN_BOOST), BooleanClause.Occur.SHOULD);
+		}
+		List<String> terms = analyze(text);
+		if (!terms.isEmpty()) {
+			// every term has to match the title or the author
+			BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+			for (String term : terms) {
+				BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+				addTermClauses(anyField, TITLE, term, TITLE_BOOST);
+				addTermClauses(anyField, AUTHOR, term, 1f);
+				allTerms.add(anyField.build(), BooleanClause.Occur.MUST);
+			}
+			query.add(allTerms.build(), BooleanClause.Occur.SHOULD);
+		}
+		return query.build();
+	}
+
+	private void addTermClauses(BooleanQuery.Builder builder, String field, String term, float boost) {
+		Term fieldTerm = new Term(field, term);
+		builder.add(new BoostQuery(new TermQuery(fieldTerm), 3 * boost), BooleanClause.Occur.SHOULD);
+		builder.add(new BoostQuery(new PrefixQuery(fieldTerm), 2 * boost), BooleanClause.Occur.SHOULD);
+		if (term.length() >= FUZZY_MIN_LENGTH) {
+			// the first character must match, which keeps the term enumeration cheap
+			int maxEdits = term.length() >= 8 ? 2 : 1;
+			builder.add(new BoostQuery(new FuzzyQuery(fieldTerm, maxEdits, 1), boost), BooleanClause.Occur.SHOULD);
+		}
+	}
+
+	private List<String> analyze(String text) {
+		List<String> terms = new ArrayList<>();
+		try (TokenStream stream = analyzer.tokenStream(TITLE, text)) {
+			CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+			stream.reset();
+			while (stream.incrementToken() && terms.size() < CommonConstant.MAX_SEARCH_TERMS) {
+				terms.add(term.toString());
+			}
+			stream.end();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return terms;
+	}
+
+	private static Document toDocument(BookDTO book) {
+		Document document = new Document();
+		document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+		document.add(new NumericDocValuesField(ID_SORT, book.getId()));
+		String isbnNumber = Objects.toString(book.getIsbnNumber(), "");
+		document.add(new StringField(ISBN, normalizeIsbn(isbnNumber), Field.Store.NO));
+		document.add(new StoredField(ISBN_NUMBER, isbnNumber));
+		document.add(new TextField(TITLE, Objects.toString(book.getTitle(), ""), Field.Store.YES));
+		document.add(new TextField(AUTHOR, Objects.toString(book.getAuthor(), ""), Field.Store.YES));
+		return document;
+	}
+
+	private static BookDTO toBookDTO(Document document) {
+		return new BookDTO(Long.valueOf(document.get(ID)), document.get(ISBN_NUMBER),
+				document.get(TITLE), document.get(AUTHOR));
+	}
+
+	/**
+	 * "978-3-16-148410-0", "978 3 16 148410 0" and "9783161484100" all index and match the same way.
+	 */
+	private static String normalizeIsbn(String isbnNumber) {
+		StringBuilder normalized = new StringBuilder(isbnNumber.length());
+		for (int i = 0; i < isbnNumber.length(); i++) {
+			char c = isbnNumber.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				normalized.append(Character.toUpperCase(c));
+			}
+		}
+		return normalized.toString();
+	}
+
+	private static boolean looksLikeIsbn(String normalized) {
+		return normalized.length() >= 10 && normalized.chars().limit(normalized.length() - 1).allMatch(Character::isDigit);
+	}
+
+	/**
+	 * The cursor is the (score, id) of the last hit; the score is kept as its exact bit pattern.
+	 */
+	private static String encodeCursor(FieldDoc last) {
+		String position = Integer.toHexString(Float.floatToIntBits((Float) last.fields[0])) + ":" + last.fields[1];
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Object[] decodeCursor(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+			float score = Float.intBitsToFloat(Integer.parseUnsignedInt(position[0].toLowerCase(Locale.ROOT), 16));
+			return new Object[] { score, Long.valueOf(position[1]) };
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new BusinessException("Invalid cursor : " + cursor);
+		}
+	}
+}
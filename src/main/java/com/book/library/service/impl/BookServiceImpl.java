@@ -1,23 +1,63 @@
 package com.book.library.service.impl;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.ImportFormat;
 import com.book.library.dto.BookDTO;
+import com.book.library.dto.BulkRegisterResp;
+import com.book.library.dto.BulkRowError;
+import com.book.library.dto.ChangeEventDTO;
+import com.book.library.dto.IsbnEntry;
+import com.book.library.dto.PageDTO;
+import com.book.library.dto.TitleAvailabilityDTO;
 import com.book.library.exception.BusinessException;
 import com.book.library.exception.ResourceNotFoundException;
 import com.book.library.model.Book;
 import com.book.library.model.Borrower;
 import com.book.library.repository.BookRepository;
 import com.book.library.repository.BorrowerRepository;
+import com.book.library.repository.KeysetProjectionRepository;
+import com.book.library.repository.TitleInventoryRepository;
+import com.book.library.repository.specification.BookSpecification;
+import com.book.library.service.BookSearchService;
 import com.book.library.service.BookService;
+import com.book.library.service.IsbnRegistry;
+import com.book.library.service.OutboxService;
+import com.book.library.utils.BookImportReader;
+import com.book.library.utils.CommonUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +73,24 @@ public class BookServiceImpl implements BookService {
 
 	private final BorrowerRepository borrowerRepository;
 
+	private final EntityManager entityManager;
+
+	private final Validator validator;
+
+	private final ObjectMapper objectMapper;
+
+	private final IsbnRegistry isbnRegistry;
+
+	private final BookSearchService bookSearchService;
+
+	private final KeysetProjectionRepository keysetProjectionRepository;
+
+	private final TitleInventoryRepository titleInventoryRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final OutboxService outboxService;
+
 	@Override
 	@Transactional(rollbackFor = Exception.class)
 	public BookDTO register(BookDTO bookDTO) {
@@ -41,23 +99,191 @@ public class BookServiceImpl implements BookService {
 		book.setCreatedDate(LocalDateTime.now());
 		book.setUpdatedDate(LocalDateTime.now());
 		book = bookRepository.save(book);
+		titleInventoryRepository.addCopies(book.getIsbnNumber(), book.getTitle(), book.getAuthor(), 1);
+		checkRegisteredTitles(List.of(book));
+		outboxService.append(List.of(new ChangeEventDTO(book)));
+		isbnRegistry.record(new IsbnEntry(book));
+		bookSearchService.index(List.of(new BookDTO(book)));
 		bookDTO.setId(book.getId());
 		return bookDTO;
 	}
 
+	/**
+	 * Brand-new ISBNs are answered by the registry's Bloom filter and known ones by its cache;
+	 * only the remaining cases (false positives, evicted entries) go to the database. The
+	 * registry can be seconds behind other replicas, so this only rejects early:
+	 * {@link #checkRegisteredTitles} decides.
+	 */
 	public void checkISBNNumberAlreadyExist(BookDTO bookDTO) {
-		Optional<Book> bookOpt = bookRepository.findFirstByIsbnNumber(bookDTO.getIsbnNumber());
-		if (bookOpt.isPresent()) {
-			if (!bookOpt.get().getTitle().equals(bookDTO.getTitle())) {
-				log.info("Multiple books with the same ISBN number must have same Title");
-				throw new BusinessException(String.format("Multiple books with the same ISBN number must have same title. There is already ISBN Number(%s) with title (%s).", bookDTO.getIsbnNumber(), bookDTO.getTitle()));
+		if (isbnRegistry.isDefinitelyNew(bookDTO.getIsbnNumber())) {
+			return;
+		}
+		Optional<IsbnEntry> existing = isbnRegistry.getCached(bookDTO.getIsbnNumber());
+		if (existing.isEmpty()) {
+			existing = bookRepository.findFirstByIsbnNumber(bookDTO.getIsbnNumber()).map(IsbnEntry::new);
+			existing.ifPresent(isbnRegistry::record);
+		}
+		if (existing.isPresent()) {
+			checkSameTitleAndAuthor(existing.get(), bookDTO);
+		}
+	}
+
+	private void checkSameTitleAndAuthor(IsbnEntry existing, BookDTO bookDTO) {
+		if (!existing.getTitle().equals(bookDTO.getTitle())) {
+			log.info("Multiple books with the same ISBN number must have same Title");
+			throw new BusinessException(String.format("Multiple books with the same ISBN number must have same title. There is already ISBN Number(%s) with title (%s).", bookDTO.getIsbnNumber(), bookDTO.getTitle()));
+		}
+		if (!existing.getAuthor().equals(bookDTO.getAuthor())) {
+			log.info("Multiple books with the same ISBN number must have same Author");
+			throw new BusinessException(String.format("Multiple books with the same ISBN number must have same author. There is already ISBN Number(%s) with author (%s).", bookDTO.getIsbnNumber(), bookDTO.getAuthor()));
+		}
+	}
+
+	/**
+	 * Compares the books with the title and author title_inventory holds for their ISBNs, after
+	 * addCopies has locked those rows: a copy of the same ISBN registered moments ago by another
+	 * replica is seen here even when the registry has not synced it yet.
+	 */
+	private void checkRegisteredTitles(List<Book> books) {
+		Map<String, Book> firstOfIsbn = new HashMap<>();
+		books.forEach(book -> firstOfIsbn.putIfAbsent(book.getIsbnNumber(), book));
+		for (IsbnEntry registered : titleInventoryRepository.findIsbnEntries(firstOfIsbn.keySet())) {
+			if (registered.getTitle() != null && registered.getAuthor() != null) {
+				checkSameTitleAndAuthor(registered, new BookDTO(firstOfIsbn.get(registered.getIsbnNumber())));
+			}
+		}
+	}
+
+	@Override
+	public BulkRegisterResp registerBulk(List<BookDTO> books) {
+		Iterator<BookImportReader.Row> rows = IntStream.range(0, books.size())
+				.mapToObj(i -> new BookImportReader.Row(i + 1, books.get(i), null))
+				.iterator();
+		return registerRows(rows);
+	}
+
+	@Override
+	public BulkRegisterResp registerBulk(InputStream inputStream, ImportFormat format) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		return registerRows(new BookImportReader(reader, format, objectMapper));
+	}
+
+	/**
+	 * Registers rows chunk by chunk. Each chunk is committed on its own (saveAll), so a
+	 * failing chunk only fails its own rows and memory stays bounded by the chunk size.
+	 */
+	private BulkRegisterResp registerRows(Iterator<BookImportReader.Row> rows) {
+		BulkRegisterResp resp = new BulkRegisterResp();
+		List<BookImportReader.Row> chunk = new ArrayList<>(CommonConstant.BULK_CHUNK_SIZE);
+		while (rows.hasNext()) {
+			chunk.add(rows.next());
+			resp.setTotalRows(resp.getTotalRows() + 1);
+			if (chunk.size() == CommonConstant.BULK_CHUNK_SIZE) {
+				registerChunk(chunk, resp);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			registerChunk(chunk, resp);
+		}
+		resp.getErrors().sort(Comparator.comparingInt(BulkRowError::getRow));
+		log.info("Bulk registration finished, total : {}, success : {}, failed : {}",
+				resp.getTotalRows(), resp.getSuccessCount(), resp.getFailedCount());
+		return resp;
+	}
+
+	private void registerChunk(List<BookImportReader.Row> chunk, BulkRegisterResp resp) {
+		List<BookImportReader.Row> validRows = new ArrayList<>(chunk.size());
+		for (BookImportReader.Row row : chunk) {
+			String error = row.getError() != null ? row.getError() : validateBook(row.getBook());
+			if (error != null) {
+				resp.addError(row.getRowNumber(), row.getBook() == null ? null : row.getBook().getIsbnNumber(), error);
+			} else {
+				validRows.add(row);
+			}
+		}
+		if (validRows.isEmpty()) {
+			return;
+		}
+
+		// one set-based lookup per chunk for ISBNs the registry cannot answer; rows accepted
+		// earlier in the chunk are added as we go
+		Map<String, IsbnEntry> firstCopies = new HashMap<>();
+		Set<String> isbnNumbers = new HashSet<>();
+		for (BookImportReader.Row row : validRows) {
+			String isbnNumber = row.getBook().getIsbnNumber();
+			if (!isbnRegistry.isDefinitelyNew(isbnNumber)) {
+				isbnRegistry.getCached(isbnNumber).ifPresentOrElse(entry -> firstCopies.put(isbnNumber, entry),
+						() -> isbnNumbers.add(isbnNumber));
 			}
-			if (!bookOpt.get().getAuthor().equals(bookDTO.getAuthor())) {
-				log.info("Multiple books with the same ISBN number must have same Author");
-				throw new BusinessException(String.format("Multiple books with the same ISBN number must have same author. There is already ISBN Number(%s) with author (%s).", bookDTO.getIsbnNumber(), bookDTO.getAuthor()));
+		}
+		if (!isbnNumbers.isEmpty()) {
+			bookRepository.findFirstCopiesByIsbnNumberIn(isbnNumbers)
+					.forEach(book -> firstCopies.putIfAbsent(book.getIsbnNumber(), new IsbnEntry(book)));
+		}
+
+		List<BookImportReader.Row> acceptedRows = new ArrayList<>(validRows.size());
+		List<Book> books = new ArrayList<>(validRows.size());
+		for (BookImportReader.Row row : validRows) {
+			BookDTO bookDTO = row.getBook();
+			IsbnEntry existing = firstCopies.get(bookDTO.getIsbnNumber());
+			if (existing != null) {
+				try {
+					checkSameTitleAndAuthor(existing, bookDTO);
+				} catch (BusinessException e) {
+					resp.addError(row.getRowNumber(), bookDTO.getIsbnNumber(), e.getMessage());
+					continue;
+				}
 			}
+			Book book = generateBookModel(bookDTO);
+			book.setCreatedDate(LocalDateTime.now());
+			book.setUpdatedDate(LocalDateTime.now());
+			firstCopies.putIfAbsent(bookDTO.getIsbnNumber(), new IsbnEntry(book));
+			acceptedRows.add(row);
+			books.add(book);
+		}
+		if (books.isEmpty()) {
+			return;
 		}
 
+		try {
+			// the copies and their title counters commit together
+			transactionTemplate.executeWithoutResult(status -> {
+				bookRepository.saveAll(books);
+				Map<String, List<Book>> copiesOfIsbn = books.stream()
+						.collect(Collectors.groupingBy(Book::getIsbnNumber, TreeMap::new, Collectors.toList()));
+				copiesOfIsbn.forEach((isbnNumber, copies) -> titleInventoryRepository.addCopies(isbnNumber,
+						copies.get(0).getTitle(), copies.get(0).getAuthor(), copies.size()));
+				checkRegisteredTitles(books);
+				outboxService.append(books.stream().map(ChangeEventDTO::new).toList());
+			});
+			books.forEach(book -> isbnRegistry.record(new IsbnEntry(book)));
+			bookSearchService.index(books.stream().map(BookDTO::new).toList());
+			resp.setSuccessCount(resp.getSuccessCount() + books.size());
+		} catch (DataAccessException e) {
+			log.error("Bulk registration chunk starting at row {} failed", acceptedRows.get(0).getRowNumber(), e);
+			for (BookImportReader.Row row : acceptedRows) {
+				resp.addError(row.getRowNumber(), row.getBook().getIsbnNumber(), "Insert failed : " + e.getMostSpecificCause().getMessage());
+			}
+		} catch (BusinessException e) {
+			// another replica registered one of the chunk's ISBNs with a different title meanwhile
+			log.info("Bulk registration chunk starting at row {} rolled back : {}", acceptedRows.get(0).getRowNumber(),
+					e.getMessage());
+			for (BookImportReader.Row row : acceptedRows) {
+				resp.addError(row.getRowNumber(), row.getBook().getIsbnNumber(), "Insert failed : " + e.getMessage());
+			}
+		}
+	}
+
+	private String validateBook(BookDTO bookDTO) {
+		Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDTO);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(ConstraintViolation::getMessage)
+				.sorted(Comparator.naturalOrder())
+				.collect(Collectors.joining(", "));
 	}
 
 	private Book generateBookModel(BookDTO bookDTO) {
@@ -87,6 +313,7 @@ public class BookServiceImpl implements BookService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<BookDTO> getAllBooks() {
 		List<Book> bookList = bookRepository.findAll();
 		return bookList.stream()
@@ -94,4 +321,59 @@ public class BookServiceImpl implements BookService {
 	            .collect(Collectors.toList());
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public PageDTO<BookDTO> getBooks(String cursor, int size) {
+		CommonUtils.checkPageSize(size);
+		Long afterId = CommonUtils.decodeCursor(cursor);
+		List<Book> bookList = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+		return CommonUtils.toKeysetPage(bookList.stream()
+				.map(book -> new BookDTO(book))
+				.collect(Collectors.toList()), size, BookDTO::getId);
+	}
+
+	/**
+	 * Filters compose as Specifications and are read as a BookDTO projection, one keyset page at a time.
+	 * An author filter pages in id order through (author, id); an ISBN prefix alone is a range, so it
+	 * pages in (isbn_number, id) order, which is the order of its index.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public PageDTO<BookDTO> filterBooks(String author, String isbnPrefix, String cursor, int size) {
+		CommonUtils.checkPageSize(size);
+		Specification<Book> specification = Specification.where(BookSpecification.hasAuthor(author))
+				.and(BookSpecification.isbnStartsWith(isbnPrefix));
+		boolean isbnOrder = BookSpecification.hasAuthor(author) == null && BookSpecification.isbnStartsWith(isbnPrefix) != null;
+		List<BookDTO> books = keysetProjectionRepository.findPage(Book.class, specification,
+				isbnOrder ? "isbnNumber" : null, isbnOrder ? CommonUtils.decodeCursorSortValue(cursor) : null,
+				CommonUtils.decodeCursor(cursor), size + 1, BookDTO.class,
+				root -> List.of(root.get("id"), root.get("isbnNumber"), root.get("title"), root.get("author")));
+		return CommonUtils.toKeysetPage(books, size, BookDTO::getId, isbnOrder ? BookDTO::getIsbnNumber : null);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAllBooks(Consumer<BookDTO> consumer) {
+		try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+			books.forEach(book -> {
+				consumer.accept(new BookDTO(book));
+				// keep the persistence context empty so memory stays flat regardless of catalog size
+				entityManager.detach(book);
+			});
+		}
+	}
+
+	/**
+	 * Copy counters of the given titles, one primary key lookup each; titles the library
+	 * has no copy of are left out.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<TitleAvailabilityDTO> getAvailability(List<String> isbnNumbers) {
+		if (isbnNumbers == null || isbnNumbers.isEmpty() || isbnNumbers.size() > CommonConstant.MAX_AVAILABILITY_ISBNS) {
+			throw new BusinessException(String.format("Between 1 and %d ISBN numbers must be given.", CommonConstant.MAX_AVAILABILITY_ISBNS));
+		}
+		return titleInventoryRepository.findAvailability(new HashSet<>(isbnNumbers));
+	}
+
 }
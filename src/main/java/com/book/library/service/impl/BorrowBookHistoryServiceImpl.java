@@ -1,24 +1,54 @@
 package com.book.library.service.impl;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.book.library.constant.ChangeEventType;
+import com.book.library.constant.CommonConstant;
+import com.book.library.dto.BatchItemResp;
 import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.ChangeEventDTO;
+import com.book.library.dto.PageDTO;
 import com.book.library.exception.BusinessException;
 import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.model.ActiveLoan;
+import com.book.library.model.ArchivedBorrowBookHistory;
 import com.book.library.model.Book;
 import com.book.library.model.BorrowBookHistory;
 import com.book.library.model.Borrower;
+import com.book.library.repository.ActiveLoanRepository;
 import com.book.library.repository.BookRepository;
 import com.book.library.repository.BorrowBookHistoryRepository;
 import com.book.library.repository.BorrowerRepository;
+import com.book.library.repository.KeysetProjectionRepository;
+import com.book.library.repository.TitleInventoryRepository;
+import com.book.library.repository.specification.BorrowBookHistorySpecification;
 import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.OutboxService;
+import com.book.library.service.ReservationService;
+import com.book.library.utils.CommonUtils;
+
+import jakarta.persistence.criteria.Join;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,59 +66,292 @@ public class BorrowBookHistoryServiceImpl implements BorrowBookHistoryService{
 	
 	private final BorrowerRepository borrowerRepository;
 	
+	private final ActiveLoanRepository activeLoanRepository;
+
+	private final KeysetProjectionRepository keysetProjectionRepository;
+
+	private final TitleInventoryRepository titleInventoryRepository;
+
+	private final ReservationService reservationService;
+
+	private final OutboxService outboxService;
+	
+	/**
+	 * Borrows a copy. The active-loan check is a primary key lookup on active_loan and the
+	 * primary key itself rejects a second concurrent borrow of the same copy at flush time.
+	 */
 	@Override
 	@Transactional(rollbackFor = Exception.class)
 	public BorrowBookHistoryDTO borrowBook(BorrowBookReq req) {
+		Book book = checkAndGetBook(req.getBookId());
 		isBorrowAlready(req);
-		BorrowBookHistory borrowBookHistory = prepareToModel(req);
-		borrowBookHistory = borrowBookHistoryRepository.save(borrowBookHistory);
+		Borrower borrower = checkAndGetBorrower(req.getBorrowerId());
+		if (titleInventoryRepository.takeCopies(book.getIsbnNumber(), 1) == 0) {
+			log.info("Book Id : [{}] was Borrowed concurrently by Someone Else.", req.getBookId());
+			throw new BusinessException("Another Borrower Already Borrowed the book.");
+		}
+		return lendCopy(book, borrower);
+	}
+
+	/**
+	 * Borrows any free copy of a title. Taking the title's counter comes first: it fails at
+	 * once when no copy is left, and its row lock keeps every other borrow of the title out
+	 * until commit, so the copy picked afterwards cannot be picked by anyone else.
+	 */
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public BorrowBookHistoryDTO borrowBookByIsbn(BorrowByIsbnReq req) {
+		if (titleInventoryRepository.takeCopies(req.getIsbnNumber(), 1) == 0) {
+			if (!titleInventoryRepository.existsById(req.getIsbnNumber())) {
+				log.error("Invalid ISBN Number : {} ", req.getIsbnNumber());
+				throw new ResourceNotFoundException("Invalid ISBN Number");
+			}
+			log.info("No free copy of ISBN : [{}]", req.getIsbnNumber());
+			throw new BusinessException("No copy of the book is available.");
+		}
+		Borrower borrower = checkAndGetBorrower(req.getBorrowerId());
+		Book book = bookRepository.findFreeCopies(req.getIsbnNumber(), Limit.of(1)).stream()
+				.findFirst()
+				.orElseThrow(() -> {
+					log.error("Inventory of ISBN : [{}] counts a free copy but none is free", req.getIsbnNumber());
+					return new BusinessException("No copy of the book is available.");
+				});
+		return lendCopy(book, borrower);
+	}
+
+	private BorrowBookHistoryDTO lendCopy(Book book, Borrower borrower) {
+		BorrowBookHistory borrowBookHistory = borrowBookHistoryRepository.save(prepareToModel(book, borrower));
+		try {
+			activeLoanRepository.saveAndFlush(new ActiveLoan(borrowBookHistory));
+		} catch (DataIntegrityViolationException e) {
+			log.info("Book Id : [{}] was Borrowed concurrently by Someone Else.", book.getId());
+			throw new BusinessException("Another Borrower Already Borrowed the book.");
+		}
+		outboxService.append(List.of(new ChangeEventDTO(ChangeEventType.BORROWED, borrowBookHistory)));
 		return new BorrowBookHistoryDTO(borrowBookHistory);
 	}
 
 	private void isBorrowAlready(BorrowBookReq req) {
-		Optional<BorrowBookHistory> borrowOptional = borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(req.getBookId(), req.getBorrowerId(), Boolean.FALSE);
-		if(borrowOptional.isPresent()) {
+		Optional<ActiveLoan> activeLoanOptional = activeLoanRepository.findById(req.getBookId());
+		if (activeLoanOptional.isEmpty()) {
+			return;
+		}
+		if (activeLoanOptional.get().getBorrowerId().equals(req.getBorrowerId())) {
 			log.info("Book Id : [{}] is Already Borrowed by Borrower : [{}]", req.getBookId(), req.getBorrowerId());
 			throw new BusinessException("Borrower Already Borrowed the book.");
 		}
-		
-		Optional<BorrowBookHistory> borrowByAnyoneElseOptional = borrowBookHistoryRepository.findByBookIdAndBorrowStatus(req.getBookId(), Boolean.FALSE);
-		if(borrowByAnyoneElseOptional.isPresent()) {
-			log.info("Book Id : [{}] is Already Borrowed by Someone Else.", req.getBookId());
-			throw new BusinessException("Another Borrower Already Borrowed the book.");
-		}
+		log.info("Book Id : [{}] is Already Borrowed by Someone Else.", req.getBookId());
+		throw new BusinessException("Another Borrower Already Borrowed the book.");
 	}
 
-	private BorrowBookHistory prepareToModel(BorrowBookReq req) {
-		Book book = checkAndGetBook(req.getBookId());
-		Borrower borrower = checkAndGetBorrower(req.getBorrowerId());
-		BorrowBookHistory borrowBookHistory = new BorrowBookHistory();
-		borrowBookHistory.setBook(book);
-		borrowBookHistory.setBorrower(borrower);
-		borrowBookHistory.setBorrowStatus(Boolean.FALSE);
-		borrowBookHistory.setBorrowDate(LocalDateTime.now());
-		borrowBookHistory.setCreatedDate(LocalDateTime.now());
-		borrowBookHistory.setUpdatedDate(LocalDateTime.now());
-		return borrowBookHistory;
+	private BorrowBookHistory prepareToModel(Book book, Borrower borrower) {
+		return new BorrowBookHistory(book, borrower);
 	}
 
+	/**
+	 * Returns a copy. The active loan is claimed with a conditional delete, so of two
+	 * concurrent returns only one gets to close the history row. If someone is queued for
+	 * the title the copy is lent to them in the same transaction.
+	 */
 	@Override
-	@Transactional
+	@Transactional(rollbackFor = Exception.class)
 	public BorrowBookHistoryDTO returnBorrowBook(Long bookId, Long borrowerId) {
-		BorrowBookHistory borrowBookHistory = checkBorrowRecordExist(bookId, borrowerId);
+		ActiveLoan activeLoan = checkBorrowRecordExist(bookId, borrowerId);
+		if (activeLoanRepository.deleteByHistoryIdIn(List.of(activeLoan.getHistoryId())) == 0) {
+			throw borrowRecordNotFound(bookId, borrowerId);
+		}
+		BorrowBookHistory borrowBookHistory = borrowBookHistoryRepository.findWithBookAndBorrowerById(activeLoan.getHistoryId())
+				.orElseThrow(() -> borrowRecordNotFound(bookId, borrowerId));
 		updateBorrowBookStatus(borrowBookHistory);
+		outboxService.append(List.of(new ChangeEventDTO(ChangeEventType.RETURNED, borrowBookHistory)));
+		releaseCopies(List.of(borrowBookHistory));
+		reservationService.handOver(List.of(borrowBookHistory));
 		return new BorrowBookHistoryDTO(borrowBookHistory);
 	}
 
-	private BorrowBookHistory checkBorrowRecordExist(Long bookId, Long borrowerId) {
-		return borrowBookHistoryRepository
-	            .findByBookIdAndBorrowerIdAndBorrowStatus(bookId, borrowerId, Boolean.FALSE)
-	            .orElseThrow(() -> {
-	                log.error("Borrow record not found for bookId={} and borrowerId={}", bookId, borrowerId);
-	                return new BusinessException(
-	                        "Borrow record not found for bookId=" + bookId + " and borrowerId=" + borrowerId
-	                );
-	            });
+	/**
+	 * Borrows a stack of books in one transaction. Books, borrowers and active loans are
+	 * pre-loaded with set-based queries, every item is checked in memory and the new rows
+	 * are saved together at the end. A failing item is reported in its result and does not
+	 * affect the others; losing a race with a concurrent borrow fails the whole batch.
+	 */
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public List<BatchItemResp> borrowBooks(List<BorrowBookReq> reqs) {
+		validateBatchSize(reqs);
+		Set<Long> bookIds = collectIds(reqs, BorrowBookReq::getBookId);
+		Set<Long> borrowerIds = collectIds(reqs, BorrowBookReq::getBorrowerId);
+		Map<Long, Book> books = bookRepository.findAllById(bookIds).stream()
+				.collect(Collectors.toMap(Book::getId, Function.identity()));
+		Map<Long, Borrower> borrowers = borrowerRepository.findAllById(borrowerIds).stream()
+				.collect(Collectors.toMap(Borrower::getId, Function.identity()));
+		Map<Long, Long> activeBorrowers = findActiveLoans(bookIds).stream()
+				.collect(Collectors.toMap(ActiveLoan::getBookId, ActiveLoan::getBorrowerId));
+
+		List<BatchItemResp> results = new ArrayList<>(reqs.size());
+		List<BorrowBookHistory> newLoans = new ArrayList<>();
+		for (int i = 0; i < reqs.size(); i++) {
+			BorrowBookReq req = reqs.get(i);
+			BatchItemResp result = new BatchItemResp(i, req.getBookId(), req.getBorrowerId(), false, null, null);
+			results.add(result);
+			String error = checkBatchBorrow(req, books, borrowers, activeBorrowers);
+			if (error != null) {
+				result.setMessage(error);
+				continue;
+			}
+			// later items for the same book in this batch see it as borrowed
+			activeBorrowers.put(req.getBookId(), req.getBorrowerId());
+			newLoans.add(prepareToModel(books.get(req.getBookId()), borrowers.get(req.getBorrowerId())));
+			result.setSuccess(true);
+			result.setMessage("Book borrowed successfully");
+		}
+
+		// titles in a fixed order, so two batches never wait on each other's counters
+		countByIsbn(newLoans).forEach((isbnNumber, copies) -> {
+			if (titleInventoryRepository.takeCopies(isbnNumber, copies) == 0) {
+				log.info("Batch borrow lost a race for ISBN : [{}], items : {}", isbnNumber, reqs.size());
+				throw new BusinessException("Another Borrower Already Borrowed one of the books, please retry.");
+			}
+		});
+		borrowBookHistoryRepository.saveAll(newLoans);
+		try {
+			activeLoanRepository.saveAllAndFlush(newLoans.stream().map(ActiveLoan::new).toList());
+		} catch (DataIntegrityViolationException e) {
+			log.info("Batch borrow lost a race with a concurrent borrow, items : {}", reqs.size());
+			throw new BusinessException("Another Borrower Already Borrowed one of the books, please retry.");
+		}
+		publishChanges(ChangeEventType.BORROWED, newLoans);
+		fillHistory(results, newLoans);
+		log.info("Batch borrow processed, items : {}, borrowed : {}", reqs.size(), newLoans.size());
+		return results;
+	}
+
+	private String checkBatchBorrow(BorrowBookReq req, Map<Long, Book> books, Map<Long, Borrower> borrowers,
+			Map<Long, Long> activeBorrowers) {
+		if (req.getBookId() == null || req.getBorrowerId() == null) {
+			return "Book Id and Borrower Id must not be empty";
+		}
+		if (!books.containsKey(req.getBookId())) {
+			return "Invalid Book";
+		}
+		Long activeBorrowerId = activeBorrowers.get(req.getBookId());
+		if (activeBorrowerId != null) {
+			return activeBorrowerId.equals(req.getBorrowerId())
+					? "Borrower Already Borrowed the book."
+					: "Another Borrower Already Borrowed the book.";
+		}
+		if (!borrowers.containsKey(req.getBorrowerId())) {
+			return "Invalid Borrower";
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a stack of books in one transaction, matching every item against active
+	 * loans pre-loaded with one primary key lookup. If a concurrent return claimed one of
+	 * the loans first the whole batch is rolled back.
+	 */
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public List<BatchItemResp> returnBorrowBooks(List<BorrowBookReq> reqs) {
+		validateBatchSize(reqs);
+		Map<Long, ActiveLoan> activeLoans = findActiveLoans(collectIds(reqs, BorrowBookReq::getBookId)).stream()
+				.collect(Collectors.toMap(ActiveLoan::getBookId, Function.identity()));
+
+		List<BatchItemResp> results = new ArrayList<>(reqs.size());
+		List<Long> historyIds = new ArrayList<>();
+		for (int i = 0; i < reqs.size(); i++) {
+			BorrowBookReq req = reqs.get(i);
+			BatchItemResp result = new BatchItemResp(i, req.getBookId(), req.getBorrowerId(), false, null, null);
+			results.add(result);
+			ActiveLoan activeLoan = req.getBookId() == null ? null : activeLoans.get(req.getBookId());
+			if (activeLoan == null || !activeLoan.getBorrowerId().equals(req.getBorrowerId())) {
+				result.setMessage("Borrow record not found for bookId=" + req.getBookId() + " and borrowerId=" + req.getBorrowerId());
+				continue;
+			}
+			activeLoans.remove(req.getBookId());
+			historyIds.add(activeLoan.getHistoryId());
+			result.setSuccess(true);
+			result.setMessage("Book returned successfully");
+		}
+
+		if (historyIds.isEmpty()) {
+			return results;
+		}
+		if (activeLoanRepository.deleteByHistoryIdIn(historyIds) != historyIds.size()) {
+			log.info("Batch return lost a race with a concurrent return, items : {}", reqs.size());
+			throw new BusinessException("One of the books was returned concurrently, please retry.");
+		}
+		Map<Long, BorrowBookHistory> histories = borrowBookHistoryRepository.findWithBookAndBorrowerByIdIn(historyIds).stream()
+				.collect(Collectors.toMap(BorrowBookHistory::getId, Function.identity()));
+		List<BorrowBookHistory> returnedLoans = new ArrayList<>(historyIds.size());
+		for (Long historyId : historyIds) {
+			BorrowBookHistory borrowBookHistory = histories.get(historyId);
+			borrowBookHistory.setBorrowStatus(Boolean.TRUE);
+			borrowBookHistory.setReturnDate(LocalDateTime.now());
+			borrowBookHistory.setUpdatedDate(LocalDateTime.now());
+			returnedLoans.add(borrowBookHistory);
+		}
+		borrowBookHistoryRepository.saveAll(returnedLoans);
+		publishChanges(ChangeEventType.RETURNED, returnedLoans);
+		releaseCopies(returnedLoans);
+		reservationService.handOver(returnedLoans);
+		fillHistory(results, returnedLoans);
+		log.info("Batch return processed, items : {}, returned : {}", reqs.size(), returnedLoans.size());
+		return results;
+	}
+
+	private void validateBatchSize(List<BorrowBookReq> reqs) {
+		if (reqs == null || reqs.isEmpty() || reqs.size() > CommonConstant.MAX_BATCH_SIZE) {
+			throw new BusinessException(String.format("Batch must contain between 1 and %d items.", CommonConstant.MAX_BATCH_SIZE));
+		}
+	}
+
+	private Set<Long> collectIds(List<BorrowBookReq> reqs, Function<BorrowBookReq, Long> idGetter) {
+		return reqs.stream().map(idGetter).filter(Objects::nonNull).collect(Collectors.toSet());
+	}
+
+	private List<ActiveLoan> findActiveLoans(Set<Long> bookIds) {
+		return bookIds.isEmpty() ? List.of() : activeLoanRepository.findAllById(bookIds);
+	}
+
+	private void releaseCopies(List<BorrowBookHistory> returnedLoans) {
+		countByIsbn(returnedLoans).forEach((isbnNumber, copies) -> {
+			if (titleInventoryRepository.releaseCopies(isbnNumber, copies) == 0) {
+				log.warn("Inventory of ISBN : [{}] could not take back {} copies", isbnNumber, copies);
+			}
+		});
+	}
+
+	private Map<String, Integer> countByIsbn(List<BorrowBookHistory> loans) {
+		return loans.stream().collect(Collectors.groupingBy(loan -> loan.getBook().getIsbnNumber(), TreeMap::new,
+				Collectors.summingInt(loan -> 1)));
+	}
+
+	private void publishChanges(ChangeEventType type, List<BorrowBookHistory> loans) {
+		outboxService.append(loans.stream().map(loan -> new ChangeEventDTO(type, loan)).toList());
+	}
+
+	private void fillHistory(List<BatchItemResp> results, List<BorrowBookHistory> histories) {
+		int next = 0;
+		for (BatchItemResp result : results) {
+			if (result.isSuccess()) {
+				result.setHistory(new BorrowBookHistoryDTO(histories.get(next++)));
+			}
+		}
+	}
+
+	private ActiveLoan checkBorrowRecordExist(Long bookId, Long borrowerId) {
+		return activeLoanRepository.findById(bookId)
+				.filter(activeLoan -> activeLoan.getBorrowerId().equals(borrowerId))
+				.orElseThrow(() -> borrowRecordNotFound(bookId, borrowerId));
+	}
+
+	private BusinessException borrowRecordNotFound(Long bookId, Long borrowerId) {
+		log.error("Borrow record not found for bookId={} and borrowerId={}", bookId, borrowerId);
+		return new BusinessException(
+				"Borrow record not found for bookId=" + bookId + " and borrowerId=" + borrowerId
+		);
 	}
 
 	private void updateBorrowBookStatus(BorrowBookHistory borrowBookHistory) {
@@ -98,6 +361,64 @@ public class BorrowBookHistoryServiceImpl implements BorrowBookHistoryService{
 		borrowBookHistoryRepository.save(borrowBookHistory);
 	}
 	
+	/**
+	 * Filters compose as Specifications; the book and borrower columns of the DTO come from
+	 * primary key joins, one keyset page at a time. The same page is read from the archive
+	 * unless only open loans are asked for, and the two are merged.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public PageDTO<BorrowBookHistoryDTO> filterHistory(Long borrowerId, Long bookId, Boolean returned,
+			LocalDateTime from, LocalDateTime to, String cursor, int size) {
+		CommonUtils.checkPageSize(size);
+		if (from != null && to != null && !from.isBefore(to)) {
+			throw new BusinessException("from must be before to.");
+		}
+		// a date window on its own is a range, so it pages in (borrow_date, id) order along its index
+		boolean dateOrder = borrowerId == null && bookId == null && (from != null || to != null);
+		String afterDate = dateOrder ? CommonUtils.decodeCursorSortValue(cursor) : null;
+		LocalDateTime afterBorrowDate = afterDate == null ? null : parseCursorDate(afterDate, cursor);
+		Long afterId = CommonUtils.decodeCursor(cursor);
+		List<BorrowBookHistoryDTO> histories = findHistoryPage(BorrowBookHistory.class, borrowerId, bookId, returned,
+				from, to, dateOrder, afterBorrowDate, afterId, size + 1);
+		if (!Boolean.FALSE.equals(returned)) {
+			List<BorrowBookHistoryDTO> archived = findHistoryPage(ArchivedBorrowBookHistory.class, borrowerId, bookId,
+					returned, from, to, dateOrder, afterBorrowDate, afterId, size + 1);
+			Comparator<BorrowBookHistoryDTO> order = dateOrder
+					? Comparator.comparing(BorrowBookHistoryDTO::getBorrowDate).thenComparing(BorrowBookHistoryDTO::getId)
+					: Comparator.comparing(BorrowBookHistoryDTO::getId);
+			histories = CommonUtils.mergeKeysetRows(histories, archived, order, BorrowBookHistoryDTO::getId, size + 1);
+		}
+		return CommonUtils.toKeysetPage(histories, size, BorrowBookHistoryDTO::getId,
+				dateOrder ? history -> history.getBorrowDate().toString() : null);
+	}
+
+	private <E> List<BorrowBookHistoryDTO> findHistoryPage(Class<E> entityClass, Long borrowerId, Long bookId,
+			Boolean returned, LocalDateTime from, LocalDateTime to, boolean dateOrder, LocalDateTime afterBorrowDate,
+			Long afterId, int limit) {
+		Specification<E> specification = Specification
+				.<E>where(BorrowBookHistorySpecification.hasBorrower(borrowerId))
+				.and(BorrowBookHistorySpecification.hasBook(bookId))
+				.and(BorrowBookHistorySpecification.hasStatus(returned))
+				.and(BorrowBookHistorySpecification.borrowedBetween(from, to));
+		return keysetProjectionRepository.findPage(entityClass, specification, dateOrder ? "borrowDate" : null,
+				afterBorrowDate, afterId, limit, BorrowBookHistoryDTO.class, root -> {
+					Join<E, Book> book = root.join("book");
+					Join<E, Borrower> borrower = root.join("borrower");
+					return List.of(root.get("id"), book.get("id"), book.get("title"), book.get("author"),
+							borrower.get("id"), borrower.get("name"), root.get("borrowStatus"),
+							root.get("borrowDate"), root.get("returnDate"));
+				});
+	}
+
+	private LocalDateTime parseCursorDate(String value, String cursor) {
+		try {
+			return LocalDateTime.parse(value);
+		} catch (DateTimeParseException e) {
+			throw new BusinessException("Invalid cursor : " + cursor);
+		}
+	}
+
 	public Borrower checkAndGetBorrower(Long borrowerId) {
 		Optional<Borrower> borrowerOptional = borrowerRepository.findById(borrowerId);
 		if (!borrowerOptional.isPresent()) {
@@ -1,19 +1,29 @@
 package com.book.library.service.impl;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowerDTO;
+import com.book.library.dto.PageDTO;
 import com.book.library.exception.ResourceAlreadyExistsException;
 import com.book.library.exception.ResourceNotFoundException;
 import com.book.library.model.Borrower;
+import com.book.library.repository.ArchivedBorrowBookHistoryRepository;
+import com.book.library.repository.BorrowBookHistoryRepository;
 import com.book.library.repository.BorrowerRepository;
+import com.book.library.repository.KeysetProjectionRepository;
+import com.book.library.repository.specification.BorrowerSpecification;
 import com.book.library.service.BorrowerService;
+import com.book.library.utils.CommonUtils;
 
 @Service
 public class BorrowerServiceImpl implements BorrowerService{
@@ -23,6 +33,15 @@ public class BorrowerServiceImpl implements BorrowerService{
 	@Autowired
 	BorrowerRepository borrowerRepository;
 
+	@Autowired
+	KeysetProjectionRepository keysetProjectionRepository;
+
+	@Autowired
+	BorrowBookHistoryRepository borrowBookHistoryRepository;
+
+	@Autowired
+	ArchivedBorrowBookHistoryRepository archivedBorrowBookHistoryRepository;
+
 	@Override
 	@Transactional
 	public BorrowerDTO register(BorrowerDTO borrowerDTO) {
@@ -33,8 +52,43 @@ public class BorrowerServiceImpl implements BorrowerService{
 		return borrowerDTO;
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public PageDTO<BorrowerDTO> filterBorrowers(String emailDomain, String cursor, int size) {
+		CommonUtils.checkPageSize(size);
+		List<BorrowerDTO> borrowers = keysetProjectionRepository.findPage(Borrower.class,
+				BorrowerSpecification.hasEmailDomain(emailDomain), CommonUtils.decodeCursor(cursor), size + 1,
+				BorrowerDTO.class, root -> List.of(root.get("id"), root.get("name"), root.get("email")));
+		return CommonUtils.toKeysetPage(borrowers, size, BorrowerDTO::getId);
+	}
+
+	/**
+	 * A borrower's loans, newest first. One statement reads the page with book and borrower
+	 * joined in, whatever the page size; no entity is loaded. Unless only open loans are asked
+	 * for, a second one reads the same page from the archive and the two are merged.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public PageDTO<BorrowBookHistoryDTO> getLoans(Long borrowerId, Boolean returned, String cursor, int size) {
+		CommonUtils.checkPageSize(size);
+		if (!borrowerRepository.existsById(borrowerId)) {
+			throw new ResourceNotFoundException("Borrower not found with id: " + borrowerId);
+		}
+		// pages run in descending id order, so the first page starts below every id
+		Long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : CommonUtils.decodeCursor(cursor);
+		List<BorrowBookHistoryDTO> loans = borrowBookHistoryRepository.findLoansByBorrowerId(borrowerId, returned,
+				beforeId, Limit.of(size + 1));
+		if (!Boolean.FALSE.equals(returned)) {
+			List<BorrowBookHistoryDTO> archived = archivedBorrowBookHistoryRepository.findLoansByBorrowerId(borrowerId,
+					beforeId, Limit.of(size + 1));
+			loans = CommonUtils.mergeKeysetRows(loans, archived,
+					Comparator.comparing(BorrowBookHistoryDTO::getId).reversed(), BorrowBookHistoryDTO::getId, size + 1);
+		}
+		return CommonUtils.toKeysetPage(loans, size, BorrowBookHistoryDTO::getId);
+	}
+
 	private void validateRequest(BorrowerDTO borrowerDTO) {
-		if (borrowerRepository.findByEmail(borrowerDTO.getEmail()).isPresent()) {
+		if (borrowerRepository.existsByEmail(borrowerDTO.getEmail())) {
             throw new ResourceAlreadyExistsException("Borrower with email " + borrowerDTO.getEmail() + " already exists");
         }
 	}
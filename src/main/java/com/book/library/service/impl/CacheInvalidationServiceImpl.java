@@ -0,0 +1,126 @@
+package com.book.library.service.impl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.service.CacheInvalidationService;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the second-level cache of every replica in step through the cache_version table:
+ * writers bump the region's version after commit, every replica polls the versions and
+ * evicts a local region whose version moved.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationServiceImpl implements CacheInvalidationService {
+
+	private static final List<String> REGIONS = List.of(CommonConstant.BOOK_CACHE_REGION,
+			CommonConstant.BORROWER_CACHE_REGION);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final SessionFactory sessionFactory;
+
+	private final TransactionTemplate requiresNew;
+
+	private final Map<String, Long> seenVersions = new ConcurrentHashMap<>();
+
+	public CacheInvalidationServiceImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+			PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.requiresNew = new TransactionTemplate(transactionManager);
+		this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Registers one bump per region for the current transaction. It runs after commit so other
+	 * replicas never evict, reload and re-cache the old row before the change is visible.
+	 */
+	@Override
+	public void bumpVersionAfterCommit(String region) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			bumpVersion(region);
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Set<String> regions = (Set<String>) TransactionSynchronizationManager.getResource(this);
+		if (regions == null) {
+			Set<String> pending = new HashSet<>();
+			regions = pending;
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					pending.forEach(CacheInvalidationServiceImpl.this::bumpVersion);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationServiceImpl.this);
+				}
+			});
+		}
+		regions.add(region);
+	}
+
+	private void bumpVersion(String region) {
+		try {
+			// the committed transaction's connection is still bound, so run on a fresh one
+			requiresNew.executeWithoutResult(status -> jdbcTemplate
+					.update("update cache_version set version = version + 1 where region = ?", region));
+		} catch (RuntimeException e) {
+			// other replicas fall back to the region TTL for this change
+			log.error("Failed to bump cache version of region : {}", region, e);
+		}
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${library.cache.poll-interval-ms:5000}")
+	public void pollVersions() {
+		for (Map<String, Object> row : jdbcTemplate.queryForList("select region, version from cache_version")) {
+			String region = (String) row.get("region");
+			Long version = ((Number) row.get("version")).longValue();
+			Long previous = seenVersions.put(region, version);
+			if (previous != null && !previous.equals(version)) {
+				sessionFactory.getCache().evictRegion(region);
+				log.info("Evicted cache region : {}, version {} -> {}", region, previous, version);
+			}
+		}
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${library.cache.stats-log-interval-ms:300000}",
+			initialDelayString = "${library.cache.stats-log-interval-ms:300000}")
+	public void logStatistics() {
+		Statistics statistics = sessionFactory.getStatistics();
+		if (!statistics.isStatisticsEnabled()) {
+			return;
+		}
+		for (String region : REGIONS) {
+			CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+			log.info("Cache region : {}, hits : {}, misses : {}, puts : {}, size : {}", region,
+					regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+					regionStatistics.getPutCount(), regionStatistics.getElementCountInMemory());
+		}
+	}
+}
@@ -0,0 +1,363 @@
+package com.book.library.service.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.book.library.dto.ChangeEventDTO;
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.exception.ServiceUnavailableException;
+import com.book.library.service.ChangeFeedService;
+import com.book.library.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-sent change feed of the borrows, returns and registrations of every replica. Each
+ * replica's outbox relay reads the outbox in seq order and publishes the events here, into
+ * one shared ring buffer; a subscriber is only a cursor into it, so an idle connection costs
+ * a few dozen bytes besides its socket. A small pool of sender threads drains subscribers
+ * that have something to send, one drain per subscriber at a time.
+ * <p>
+ * Event ids are the outbox seq, the same on every replica, so a client reconnecting with
+ * Last-Event-ID to any replica gets the events it missed if they are still within
+ * {@code max-lag}; otherwise, and when a subscriber falls that far behind or a write to it
+ * stalls, it is sent a {@code RESET} event meaning "reload the state you show" and is
+ * disconnected.
+ */
+@Service
+@Slf4j
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+	static final String RESET_EVENT = "RESET";
+
+	private final int bufferSize;
+
+	private final int maxLag;
+
+	private final int maxSubscribers;
+
+	private final long emitterTimeoutMillis;
+
+	private final long stallTimeoutNanos;
+
+	private final AtomicReferenceArray<FeedEvent> ring;
+
+	// position of the newest event in the ring, 0 before the first; written only under the ring lock
+	private volatile long head;
+
+	// outbox seq of the newest event, and the one the feed started after; -1 until started
+	private volatile long lastSeq = -1;
+
+	private volatile long startSeq = -1;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private final ExecutorService senders;
+
+	public ChangeFeedServiceImpl(@Value("${library.feed.buffer-size:8192}") int bufferSize,
+			@Value("${library.feed.max-lag:1024}") int maxLag,
+			@Value("${library.feed.max-subscribers:10000}") int maxSubscribers,
+			@Value("${library.feed.sender-threads:8}") int senderThreads,
+			@Value("${library.feed.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+			@Value("${library.feed.stall-timeout-ms:10000}") long stallTimeoutMillis) {
+		this.bufferSize = bufferSize;
+		this.maxLag = Math.min(maxLag, bufferSize);
+		this.maxSubscribers = maxSubscribers;
+		this.emitterTimeoutMillis = emitterTimeoutMillis;
+		this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+		this.ring = new AtomicReferenceArray<>(bufferSize);
+		this.senders = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("library-feed-"));
+	}
+
+	@Override
+	public void startAfter(long seq) {
+		synchronized (ring) {
+			if (lastSeq < 0) {
+				startSeq = seq;
+				lastSeq = seq;
+			}
+		}
+	}
+
+	@Override
+	public long getLastSeq() {
+		return lastSeq;
+	}
+
+	/**
+	 * Takes committed outbox events in seq order. Events at or below the last seq already
+	 * published are skipped, so overlapping reads never send an event twice.
+	 */
+	@Override
+	public void publish(List<OutboxEventDTO> events) {
+		List<FeedEvent> fresh = new ArrayList<>(events.size());
+		long seen = lastSeq;
+		for (OutboxEventDTO event : events) {
+			if (seen < 0 || event.getSeq() > seen) {
+				fresh.add(new FeedEvent(0, event.getSeq(), toChange(event)));
+				seen = event.getSeq();
+			}
+		}
+		if (fresh.isEmpty()) {
+			return;
+		}
+		synchronized (ring) {
+			long position = head;
+			long seq = lastSeq;
+			if (seq < 0) {
+				startSeq = fresh.get(0).seq() - 1;
+			}
+			for (FeedEvent event : fresh) {
+				if (event.seq() > seq) {
+					position++;
+					seq = event.seq();
+					ring.set(index(position), new FeedEvent(position, seq, event.change()));
+				}
+			}
+			// slots first, then the head, so a drain never reads past what is written
+			lastSeq = seq;
+			head = position;
+		}
+		subscribers.forEach(this::schedule);
+	}
+
+	@Override
+	public SseEmitter subscribe(String lastEventId) {
+		if (subscribers.size() >= maxSubscribers) {
+			throw new ServiceUnavailableException("Too many change feed subscribers, please retry.");
+		}
+		Subscriber subscriber = new Subscriber(new SseEmitter(emitterTimeoutMillis));
+		Long resumeAfter = parseOffset(lastEventId);
+		boolean resumed = false;
+		synchronized (ring) {
+			long current = head;
+			if (resumeAfter != null && canResume(resumeAfter, current)) {
+				// replays the last max-lag events, minus the ones the client already has
+				subscriber.cursor = Math.max(0, current - maxLag);
+				subscriber.skipThrough = resumeAfter;
+				resumed = true;
+			} else {
+				subscriber.cursor = current;
+			}
+		}
+		if (!resumed && lastEventId != null && !lastEventId.isBlank()) {
+			log.info("Change feed offset {} is no longer available, current : {}", lastEventId, lastSeq);
+			sendReset(subscriber);
+		}
+		subscriber.emitter.onCompletion(() -> remove(subscriber));
+		subscriber.emitter.onTimeout(() -> close(subscriber));
+		subscriber.emitter.onError(error -> remove(subscriber));
+		subscribers.add(subscriber);
+		schedule(subscriber);
+		return subscriber.emitter;
+	}
+
+	@Override
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * Keeps idle connections from being dropped by proxies, finds clients that went away
+	 * without closing, and evicts subscribers whose writes have been blocked too long.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${library.feed.heartbeat-interval-ms:15000}",
+			initialDelayString = "${library.feed.heartbeat-interval-ms:15000}")
+	public void sendHeartbeats() {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : subscribers) {
+			long drainStarted = subscriber.drainStarted;
+			if (subscriber.draining.get() && drainStarted != 0 && now - drainStarted > stallTimeoutNanos) {
+				log.info("Change feed subscriber stalled for {} ms, evicting",
+						TimeUnit.NANOSECONDS.toMillis(now - drainStarted));
+				close(subscriber);
+				continue;
+			}
+			subscriber.heartbeatDue = true;
+			schedule(subscriber);
+		}
+		log.debug("Change feed subscribers : {}, last seq : {}", subscribers.size(), lastSeq);
+	}
+
+	@EventListener(ContextClosedEvent.class)
+	public void shutdown() {
+		// open streams would otherwise hold up the graceful shutdown until they time out
+		subscribers.forEach(this::close);
+		senders.shutdown();
+	}
+
+	private void schedule(Subscriber subscriber) {
+		if (subscriber.closed || !subscriber.draining.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			senders.execute(() -> drain(subscriber));
+		} catch (RejectedExecutionException e) {
+			subscriber.draining.set(false);
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		subscriber.drainStarted = System.nanoTime();
+		try {
+			long target = head;
+			if (target - subscriber.cursor > maxLag) {
+				evict(subscriber, target);
+				return;
+			}
+			while (subscriber.cursor < target && !subscriber.closed) {
+				long next = subscriber.cursor + 1;
+				FeedEvent event = ring.get(index(next));
+				if (event == null || event.position() != next) {
+					evict(subscriber, target);
+					return;
+				}
+				if (event.seq() > subscriber.skipThrough) {
+					subscriber.emitter.send(SseEmitter.event().id(Long.toString(event.seq()))
+							.name(event.change().getType().name()).data(event.change()));
+				}
+				subscriber.cursor = next;
+			}
+			if (subscriber.heartbeatDue) {
+				subscriber.heartbeatDue = false;
+				subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+			}
+		} catch (IOException | IllegalStateException e) {
+			// the client went away or the emitter was completed meanwhile
+			remove(subscriber);
+			return;
+		} finally {
+			subscriber.drainStarted = 0;
+			subscriber.draining.set(false);
+		}
+		if (subscriber.cursor < head || subscriber.heartbeatDue) {
+			schedule(subscriber);
+		}
+	}
+
+	private void evict(Subscriber subscriber, long target) {
+		log.info("Change feed subscriber is {} events behind, evicting", target - subscriber.cursor);
+		sendReset(subscriber);
+		close(subscriber);
+	}
+
+	private void sendReset(Subscriber subscriber) {
+		long current = lastSeq;
+		try {
+			// resuming from this id continues after a reload of the current state
+			SseEmitter.SseEventBuilder reset = SseEmitter.event().name(RESET_EVENT)
+					.data("Changes were missed, reload the current state.");
+			subscriber.emitter.send(current < 0 ? reset : reset.id(Long.toString(current)));
+		} catch (IOException | IllegalStateException e) {
+			remove(subscriber);
+		}
+	}
+
+	private void close(Subscriber subscriber) {
+		// completing a stream whose connection already failed makes the container dispatch it again
+		if (!remove(subscriber)) {
+			return;
+		}
+		try {
+			subscriber.emitter.complete();
+		} catch (IllegalStateException e) {
+			// already completed
+		}
+	}
+
+	private boolean remove(Subscriber subscriber) {
+		subscriber.closed = true;
+		return subscribers.remove(subscriber);
+	}
+
+	/**
+	 * Whether every event after {@code seq} is within the last max-lag positions, so replaying
+	 * them and skipping up to {@code seq} misses nothing. A seq this replica has not read yet,
+	 * handed out by a replica further ahead, resumes too: its events are still to come here.
+	 * Called under the ring lock.
+	 */
+	private boolean canResume(long seq, long current) {
+		long last = lastSeq;
+		if (last < 0) {
+			return false;
+		}
+		if (seq >= last) {
+			return seq - last <= maxLag;
+		}
+		long base = Math.max(0, current - maxLag);
+		if (base == 0) {
+			return seq >= startSeq;
+		}
+		FeedEvent before = ring.get(index(base));
+		return before != null && before.position() == base && seq >= before.seq();
+	}
+
+	private static Long parseOffset(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank()) {
+			return null;
+		}
+		try {
+			long seq = Long.parseLong(lastEventId.trim());
+			return seq < 0 ? null : seq;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static ChangeEventDTO toChange(OutboxEventDTO event) {
+		try {
+			return OutboxService.JSON_MAPPER.readValue(event.getPayload(), ChangeEventDTO.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unreadable payload of outbox event " + event.getId(), e);
+		}
+	}
+
+	private int index(long position) {
+		return (int) (position % bufferSize);
+	}
+
+	private record FeedEvent(long position, long seq, ChangeEventDTO change) {
+	}
+
+	private static final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		// last ring position sent; only the drain holding "draining" moves it after subscribe
+		private volatile long cursor;
+
+		// seq the client resumed after; events up to it are not sent again
+		private volatile long skipThrough;
+
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		private volatile long drainStarted;
+
+		private volatile boolean heartbeatDue;
+
+		private volatile boolean closed;
+
+		private Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+	}
+}
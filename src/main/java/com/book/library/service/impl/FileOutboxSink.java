@@ -0,0 +1,94 @@
+package com.book.library.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.service.OutboxService;
+import com.book.library.service.OutboxSink;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default sink: appends every event as one JSON line to a local file and forces it to disk
+ * before the relay moves its checkpoint. Not the application log, whose appender drops
+ * lines rather than block.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "library.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+	private final Path path;
+
+	// not synchronized: forcing the file inside a monitor would pin a virtual thread's carrier
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private FileChannel channel;
+
+	public FileOutboxSink(@Value("${library.outbox.file:outbox-events.jsonl}") String path) {
+		this.path = Path.of(path);
+	}
+
+	@Override
+	public String getName() {
+		return "file";
+	}
+
+	@Override
+	public void publish(List<OutboxEventDTO> events) {
+		lock.lock();
+		try {
+			ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+			for (OutboxEventDTO event : events) {
+				lines.write(OutboxService.JSON_MAPPER.writeValueAsBytes(event));
+				lines.write('\n');
+			}
+			if (channel == null) {
+				channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.APPEND);
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			// reopen on the next batch, which repeats this one
+			close();
+			throw new UncheckedIOException("Failed to write outbox events to " + path, e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		lock.lock();
+		try {
+			if (channel == null) {
+				return;
+			}
+			try {
+				channel.close();
+			} catch (IOException e) {
+				log.warn("Failed to close outbox file : {}", path, e);
+			}
+			channel = null;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.book.library.service.impl;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.service.HistoryArchiveService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly job moving loans returned more than {@code after-days} ago from borrow_book_history
+ * to borrow_book_history_archive. It walks the primary key in fixed ranges; each range is
+ * copied and deleted in one transaction, so a loan is always in exactly one of the two tables
+ * and readers merging both never miss it. The move is idempotent: an interrupted run leaves
+ * whole ranges behind, and the next run picks them up. The claim on the job's checkpoint row
+ * lets one replica run per day.
+ */
+@Service
+@Slf4j
+public class HistoryArchiveServiceImpl implements HistoryArchiveService {
+
+	private static final String JOB_NAME = "history-archive";
+
+	private static final String COPY_RANGE = "insert into borrow_book_history_archive (id, borrow_month, created_date,"
+			+ " updated_date, book_id, borrower_id, borrow_status, borrow_date, return_date, due_date, archived_date)"
+			+ " select id, year(coalesce(borrow_date, return_date)) * 100 + month(coalesce(borrow_date, return_date)),"
+			+ " created_date, updated_date, book_id, borrower_id, borrow_status, borrow_date, return_date, due_date, ?"
+			+ " from borrow_book_history where id >= ? and id < ? and borrow_status = true and return_date < ?";
+
+	private static final String DELETE_RANGE = "delete from borrow_book_history"
+			+ " where id >= ? and id < ? and borrow_status = true and return_date < ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int afterDays;
+
+	private final int chunkSize;
+
+	private final JobCheckpoint checkpoint;
+
+	private final Counter archived;
+
+	private final Timer chunkTimer;
+
+	public HistoryArchiveServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${library.archive.after-days:180}") int afterDays,
+			@Value("${library.archive.chunk-size:10000}") int chunkSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.afterDays = afterDays;
+		this.chunkSize = chunkSize;
+		this.checkpoint = new JobCheckpoint(jdbcTemplate, JOB_NAME);
+		this.archived = Counter.builder("library.archive.loans")
+				.description("Returned loans moved to the history archive")
+				.register(Metrics.globalRegistry);
+		this.chunkTimer = Timer.builder("library.archive.chunk")
+				.description("Time to copy and delete one id range of archived loans")
+				.register(Metrics.globalRegistry);
+	}
+
+	/**
+	 * Archives every loan returned before the cutoff. Returns the loans moved, 0 when another
+	 * replica already claimed today's run.
+	 */
+	@Override
+	@Scheduled(cron = "${library.archive.cron:0 0 3 * * *}")
+	public long archiveReturnedLoans() {
+		LocalDate today = LocalDate.now();
+		LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+		if (!checkpoint.claimDaily(today, cutoff)) {
+			return 0;
+		}
+		Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+		Long from = jdbcTemplate.queryForObject("select min(id) from borrow_book_history", Long.class);
+		// nothing borrowed after the cutoff was returned before it; once archived, few rows are left in this range
+		Long to = jdbcTemplate.queryForObject("select max(id) from borrow_book_history where borrow_date < ?",
+				Long.class, cutoffTimestamp);
+		log.info("History archive run for {} started by : {}, cutoff : {}", today, checkpoint.getOwner(), cutoff);
+
+		long started = System.nanoTime();
+		long moved = 0;
+		if (from != null && to != null) {
+			for (long rangeStart = from; rangeStart <= to; rangeStart += chunkSize) {
+				long start = rangeStart;
+				long chunkStarted = System.nanoTime();
+				Integer count = transactionTemplate.execute(status -> archiveRange(status, start, start + chunkSize,
+						cutoffTimestamp));
+				chunkTimer.record(System.nanoTime() - chunkStarted, TimeUnit.NANOSECONDS);
+				if (count == null) {
+					log.warn("History archive run for {} lost its claim, stopping", today);
+					return moved;
+				}
+				moved += count;
+				archived.increment(count);
+			}
+		}
+
+		checkpoint.finish();
+		double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+		log.info("History archive run for {} done, loans moved : {}, {} s", today, moved, String.format("%.1f", seconds));
+		return moved;
+	}
+
+	/**
+	 * Copies the range's archivable loans and deletes them from the hot table, then moves the
+	 * checkpoint, all in the caller's transaction. Returns null if the run is no longer ours;
+	 * nothing is committed then.
+	 */
+	private Integer archiveRange(TransactionStatus status, long fromId, long toId, Timestamp cutoff) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		int copied = jdbcTemplate.update(COPY_RANGE, now, fromId, toId, cutoff);
+		int deleted = jdbcTemplate.update(DELETE_RANGE, fromId, toId, cutoff);
+		if (copied != deleted) {
+			// rolls the range back; returned loans never change, so this means the job is broken
+			throw new IllegalStateException("History archive copied " + copied + " but deleted " + deleted
+					+ " loans in ids " + fromId + " to " + toId);
+		}
+		int updated = jdbcTemplate.update("update job_checkpoint set last_id = ?, processed = processed + ?,"
+				+ " heartbeat = current_timestamp where job_name = ? and owner = ? and status = 'RUNNING'",
+				toId - 1, copied, JOB_NAME, checkpoint.getOwner());
+		if (updated == 0) {
+			status.setRollbackOnly();
+			return null;
+		}
+		return copied;
+	}
+}
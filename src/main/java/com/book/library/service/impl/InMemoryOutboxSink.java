@@ -0,0 +1,59 @@
+package com.book.library.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.exception.ServiceUnavailableException;
+import com.book.library.service.OutboxSink;
+
+/**
+ * Stand-in broker for tests and local runs: keeps the newest delivered events in memory and
+ * can be switched unavailable to exercise redelivery.
+ */
+@Service
+@ConditionalOnProperty(name = "library.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+	private final int capacity;
+
+	private final Deque<OutboxEventDTO> events = new ArrayDeque<>();
+
+	private volatile boolean available = true;
+
+	public InMemoryOutboxSink(@Value("${library.outbox.memory-capacity:10000}") int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	public String getName() {
+		return "memory";
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEventDTO> batch) {
+		if (!available) {
+			throw new ServiceUnavailableException("In-memory outbox sink is unavailable.");
+		}
+		for (OutboxEventDTO event : batch) {
+			if (events.size() == capacity) {
+				events.removeFirst();
+			}
+			events.addLast(event);
+		}
+	}
+
+	public synchronized List<OutboxEventDTO> getEvents() {
+		return new ArrayList<>(events);
+	}
+
+	public void setAvailable(boolean available) {
+		this.available = available;
+	}
+}
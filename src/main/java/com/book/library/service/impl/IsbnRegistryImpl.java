@@ -0,0 +1,158 @@
+package com.book.library.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.dto.IsbnEntry;
+import com.book.library.repository.BookRepository;
+import com.book.library.service.IsbnRegistry;
+import com.book.library.utils.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process view of the registered ISBNs: a Bloom filter answers "brand-new ISBN" without
+ * touching the database and a bounded cache keeps ISBN to (title, author) for known ones.
+ * Until the startup warm-up has finished every lookup falls through to the database.
+ */
+@Service
+@Slf4j
+public class IsbnRegistryImpl implements IsbnRegistry {
+
+	private final BookRepository bookRepository;
+
+	private final TransactionTemplate readOnly;
+
+	private final long minExpectedInsertions;
+
+	private final double falsePositiveRate;
+
+	private final long syncOverlapMillis;
+
+	private final Cache<String, IsbnEntry> entries;
+
+	private final AtomicLong distinctIsbns = new AtomicLong();
+
+	private volatile BloomFilter filter;
+
+	private volatile LocalDateTime lastSyncStart;
+
+	public IsbnRegistryImpl(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+			@Value("${library.isbn-registry.expected-insertions:1000000}") long minExpectedInsertions,
+			@Value("${library.isbn-registry.false-positive-rate:0.01}") double falsePositiveRate,
+			@Value("${library.isbn-registry.cache-size:100000}") long cacheSize,
+			@Value("${library.isbn-registry.sync-overlap-ms:60000}") long syncOverlapMillis) {
+		this.bookRepository = bookRepository;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.minExpectedInsertions = minExpectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.syncOverlapMillis = syncOverlapMillis;
+		this.entries = Caffeine.newBuilder().maximumSize(cacheSize).build();
+	}
+
+	@Override
+	public boolean isDefinitelyNew(String isbnNumber) {
+		BloomFilter current = filter;
+		return current != null && !current.mightContain(isbnNumber);
+	}
+
+	@Override
+	public Optional<IsbnEntry> getCached(String isbnNumber) {
+		return Optional.ofNullable(entries.getIfPresent(isbnNumber));
+	}
+
+	@Override
+	public void record(IsbnEntry entry) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			add(entry);
+			return;
+		}
+		// a rolled back insert must not leave its title behind in the cache
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				add(entry);
+			}
+		});
+	}
+
+	private void add(IsbnEntry entry) {
+		BloomFilter current = filter;
+		if (current != null && current.put(entry.getIsbnNumber())) {
+			distinctIsbns.incrementAndGet();
+		}
+		entries.asMap().putIfAbsent(entry.getIsbnNumber(), entry);
+	}
+
+	/**
+	 * Builds a fresh filter sized for the current catalog from one streaming scan and swaps it in.
+	 * Runs off the startup thread; lookups go to the database until it is done.
+	 */
+	@Override
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		LocalDateTime syncStart = LocalDateTime.now();
+		long expected = Math.max(minExpectedInsertions, bookRepository.count() * 2);
+		BloomFilter warmed = BloomFilter.create(expected, falsePositiveRate);
+		long distinct = readOnly.execute(status -> {
+			long count = 0;
+			try (Stream<IsbnEntry> stream = bookRepository.streamIsbnEntries()) {
+				for (IsbnEntry entry : (Iterable<IsbnEntry>) stream::iterator) {
+					if (warmed.put(entry.getIsbnNumber())) {
+						count++;
+					}
+					entries.asMap().putIfAbsent(entry.getIsbnNumber(), entry);
+				}
+			}
+			return count;
+		});
+		distinctIsbns.set(distinct);
+		// the sync start first: a scheduler that sees the filter must also see where to sync from
+		lastSyncStart = syncStart;
+		filter = warmed;
+		log.info("ISBN registry warmed, distinct ISBNs : {}, capacity : {}", distinct, expected);
+	}
+
+	/**
+	 * Adds books inserted by other replicas. Ids are allocated in blocks per replica and are not
+	 * ordered by commit time, so the delta is taken by created_date with an overlap window that
+	 * covers in-flight transactions and clock skew between replicas.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${library.isbn-registry.sync-interval-ms:5000}",
+			initialDelayString = "${library.isbn-registry.sync-interval-ms:5000}")
+	public void syncRecent() {
+		BloomFilter current = filter;
+		LocalDateTime since = lastSyncStart;
+		if (current == null || since == null) {
+			return;
+		}
+		if (distinctIsbns.get() > current.getCapacity()) {
+			log.info("ISBN registry over capacity ({} > {}), rebuilding", distinctIsbns.get(), current.getCapacity());
+			warmUp();
+			return;
+		}
+		LocalDateTime syncStart = LocalDateTime.now();
+		bookRepository.findIsbnEntriesCreatedSince(since.minus(syncOverlapMillis, ChronoUnit.MILLIS))
+				.forEach(this::add);
+		lastSyncStart = syncStart;
+	}
+}
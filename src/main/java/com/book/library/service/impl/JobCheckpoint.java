@@ -0,0 +1,60 @@
+package com.book.library.service.impl;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.book.library.utils.CommonUtils;
+
+import lombok.Getter;
+
+/**
+ * A nightly job's row in job_checkpoint, claimed by one replica at a time. The owner written
+ * with the claim fences the job's own checkpoint updates: once another replica has taken the
+ * run over, they match no row.
+ */
+public class JobCheckpoint {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Getter
+	private final String jobName;
+
+	@Getter
+	private final String owner;
+
+	public JobCheckpoint(JdbcTemplate jdbcTemplate, String jobName) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.jobName = jobName;
+		this.owner = CommonUtils.newOwnerId();
+	}
+
+	/**
+	 * Starts today's run from the beginning unless a replica already started one today.
+	 */
+	public boolean claimDaily(LocalDate today, LocalDateTime cutoff) {
+		return jdbcTemplate.update("update job_checkpoint set owner = ?, heartbeat = current_timestamp,"
+				+ " run_date = ?, cutoff = ?, last_due_date = null, last_id = 0, processed = 0, status = 'RUNNING'"
+				+ " where job_name = ? and (run_date is null or run_date < ?)",
+				owner, Date.valueOf(today), Timestamp.valueOf(cutoff), jobName, Date.valueOf(today)) == 1;
+	}
+
+	/**
+	 * Takes over the running run if its owner sent no heartbeat for {@code staleAfterSeconds}.
+	 * Claims only by the heartbeat, never by owner: an earlier attempt of this replica that
+	 * failed is resumed the same way as one of a crashed replica.
+	 */
+	public boolean claimStale(int staleAfterSeconds) {
+		return jdbcTemplate.update("update job_checkpoint set owner = ?, heartbeat = current_timestamp"
+				+ " where job_name = ? and status = 'RUNNING' and heartbeat < timestampadd(SECOND, ?, current_timestamp)",
+				owner, jobName, -staleAfterSeconds) == 1;
+	}
+
+	public void finish() {
+		jdbcTemplate.update("update job_checkpoint set status = 'DONE', heartbeat = current_timestamp"
+				+ " where job_name = ? and owner = ?", jobName, owner);
+	}
+}
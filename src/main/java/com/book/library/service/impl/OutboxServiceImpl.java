@@ -0,0 +1,343 @@
+package com.book.library.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.constant.ChangeEventType;
+import com.book.library.dto.ChangeEventDTO;
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.service.ChangeFeedService;
+import com.book.library.service.OutboxService;
+import com.book.library.service.OutboxSink;
+import com.book.library.utils.CommonUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transactional outbox for circulation events. {@link #append} inserts the events in the
+ * caller's transaction, so they exist exactly when the change commits. Each {@link OutboxSink}
+ * has its own row in outbox_relay: one replica at a time holds its lease and delivers the
+ * events to it in seq order, moving its checkpoint only after the sink accepted a batch.
+ * Delivery is at least once, and a failing sink holds back everything after it for that sink.
+ * <p>
+ * Ids of concurrent transactions commit out of order, so they are not the delivery order:
+ * before delivering, the relay stamps the events committed since its last run with the next
+ * seq values, under the row lock of outbox_sequence. An event that commits late is stamped
+ * late and delivered after the events stamped before it, never skipped. Events of one book
+ * stay in commit order: every writer takes the copy's row lock before it inserts its events,
+ * so a later change of the same copy gets a higher id and commits after the earlier one.
+ */
+@Service
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+	private static final RowMapper<OutboxEventDTO> EVENT_MAPPER = (rs, rowNum) -> new OutboxEventDTO(rs.getLong("id"),
+			rs.getLong("seq"), ChangeEventType.valueOf(rs.getString("event_type")), rs.getLong("book_id"),
+			rs.getString("payload"), rs.getTimestamp("created_date").toLocalDateTime());
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final List<Relay> relays;
+
+	private final ChangeFeedService changeFeedService;
+
+	private final int batchSize;
+
+	private final int maxBatchesPerRun;
+
+	private final int leaseSeconds;
+
+	private final long retentionMillis;
+
+	private final int purgeChunkSize;
+
+	private final String owner;
+
+	// not synchronized: a virtual thread blocked on JDBC inside a monitor pins its carrier
+	private final ReentrantLock relayLock = new ReentrantLock();
+
+	public OutboxServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			List<OutboxSink> sinks, ChangeFeedService changeFeedService,
+			@Value("${library.outbox.batch-size:500}") int batchSize,
+			@Value("${library.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+			@Value("${library.outbox.lease-seconds:30}") int leaseSeconds,
+			@Value("${library.outbox.retention-ms:86400000}") long retentionMillis,
+			@Value("${library.outbox.purge-chunk-size:10000}") int purgeChunkSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.changeFeedService = changeFeedService;
+		this.batchSize = batchSize;
+		this.maxBatchesPerRun = maxBatchesPerRun;
+		this.leaseSeconds = leaseSeconds;
+		this.retentionMillis = retentionMillis;
+		this.purgeChunkSize = purgeChunkSize;
+		this.owner = CommonUtils.newOwnerId();
+		this.relays = sinks.stream().map(Relay::new).toList();
+	}
+
+	/**
+	 * One multi-row insert for the whole list; the caller's transaction decides whether the
+	 * events ever exist. Change feed subscribers get them once a relay run has sequenced them.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void append(List<ChangeEventDTO> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.batchUpdate("insert into outbox_event (event_type, book_id, payload, created_date) values (?, ?, ?, ?)",
+				changes, changes.size(), (ps, change) -> {
+					ps.setString(1, change.getType().name());
+					ps.setLong(2, change.getBookId());
+					ps.setString(3, toJson(change));
+					ps.setTimestamp(4, now);
+				});
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${library.outbox.poll-interval-ms:1000}",
+			initialDelayString = "${library.outbox.poll-interval-ms:1000}")
+	public void relay() {
+		relayLock.lock();
+		try {
+			// every replica, lease or not: each one feeds its own change feed subscribers
+			sequence();
+			for (Relay relay : relays) {
+				Long checkpoint = acquireLease(relay);
+				if (checkpoint != null) {
+					for (int i = 0; i < maxBatchesPerRun && checkpoint != null; i++) {
+						checkpoint = relayBatch(relay, checkpoint);
+					}
+				}
+				updateLag(relay);
+			}
+			feedChanges();
+		} finally {
+			relayLock.unlock();
+		}
+	}
+
+	/**
+	 * Starts the change feed at the newest sequenced event, so subscribers of a fresh replica
+	 * get what is committed from now on rather than the whole retained outbox.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startChangeFeed() {
+		changeFeedService.startAfter(jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from outbox_event",
+				Long.class));
+	}
+
+	/**
+	 * Deletes events every sink has accepted and that are older than the retention, a primary
+	 * key range at a time.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${library.outbox.purge-interval-ms:600000}",
+			initialDelayString = "${library.outbox.purge-interval-ms:600000}")
+	public void purge() {
+		if (relays.stream().noneMatch(relay -> relay.leaseHolder)) {
+			return;
+		}
+		long checkpoint = relays.stream().mapToLong(relay -> readCheckpoint(relay.name)).min().orElse(0);
+		Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofMillis(retentionMillis)));
+		int purged = 0;
+		while (true) {
+			Long from = jdbcTemplate.queryForObject("select min(id) from outbox_event where seq <= ? and created_date < ?",
+					Long.class, checkpoint, cutoff);
+			if (from == null) {
+				break;
+			}
+			purged += jdbcTemplate.update("delete from outbox_event where id >= ? and id < ? and seq <= ? and created_date < ?",
+					from, from + purgeChunkSize, checkpoint, cutoff);
+		}
+		if (purged > 0) {
+			log.info("Purged {} delivered outbox events", purged);
+		}
+	}
+
+	/**
+	 * Takes or renews the relay's lease on the database clock, so replicas never compare their
+	 * own clocks. Returns the checkpoint, or null while another replica holds the lease.
+	 */
+	private Long acquireLease(Relay relay) {
+		int updated = jdbcTemplate.update("update outbox_relay set owner = ?, lease_until = timestampadd(SECOND, ?, current_timestamp)"
+				+ " where name = ? and (owner = ? or owner is null or lease_until < current_timestamp)",
+				owner, leaseSeconds, relay.name, owner);
+		if (updated == 0) {
+			if (relay.leaseHolder) {
+				log.info("Outbox relay : {} lease lost by : {}", relay.name, owner);
+				relay.leaseHolder = false;
+			}
+			return null;
+		}
+		if (!relay.leaseHolder) {
+			log.info("Outbox relay : {} lease acquired by : {}", relay.name, owner);
+			relay.leaseHolder = true;
+		}
+		return readCheckpoint(relay.name);
+	}
+
+	/**
+	 * Gives the events committed since the last run their place in the delivery order, oldest
+	 * id first. Any replica may do it; the row lock of outbox_sequence keeps seq values unique
+	 * and increasing in the order they are handed out.
+	 */
+	private void sequence() {
+		transactionTemplate.executeWithoutResult(status -> {
+			long lastSeq = jdbcTemplate.queryForObject("select last_seq from outbox_sequence where id = 1 for update",
+					Long.class);
+			List<Long> ids = jdbcTemplate.queryForList("select id from outbox_event where seq is null order by id limit ?",
+					Long.class, batchSize * maxBatchesPerRun);
+			if (ids.isEmpty()) {
+				return;
+			}
+			List<Object[]> stamps = new ArrayList<>(ids.size());
+			for (int i = 0; i < ids.size(); i++) {
+				stamps.add(new Object[] { lastSeq + i + 1, ids.get(i) });
+			}
+			jdbcTemplate.batchUpdate("update outbox_event set seq = ? where id = ?", stamps);
+			jdbcTemplate.update("update outbox_sequence set last_seq = ? where id = 1", lastSeq + ids.size());
+		});
+	}
+
+	/**
+	 * Delivers the next batch. Returns the new checkpoint, or null when there is nothing more
+	 * to deliver in this run.
+	 */
+	private Long relayBatch(Relay relay, long checkpoint) {
+		List<OutboxEventDTO> events = jdbcTemplate.query("select id, seq, event_type, book_id, payload, created_date"
+				+ " from outbox_event where seq > ? order by seq limit ?", EVENT_MAPPER, checkpoint, batchSize);
+		if (events.isEmpty()) {
+			return null;
+		}
+		try {
+			relay.sink.publish(events);
+		} catch (RuntimeException e) {
+			relay.deliveryFailures.increment();
+			log.warn("Outbox sink : {} rejected {} events from seq {}, retrying next run", relay.sink.getName(),
+					events.size(), events.get(0).getSeq(), e);
+			return null;
+		}
+		long delivered = events.get(events.size() - 1).getSeq();
+		// fenced by the owner: a replica whose lease ran out never moves the checkpoint back
+		if (jdbcTemplate.update("update outbox_relay set last_event_id = ? where name = ? and owner = ?",
+				delivered, relay.name, owner) == 0) {
+			log.info("Outbox relay : {} lease lost by : {} during delivery", relay.name, owner);
+			relay.leaseHolder = false;
+			return null;
+		}
+		relay.deliveredEvents.increment(events.size());
+		log.debug("Outbox relay : {} delivered events {} to {}", relay.name, events.get(0).getSeq(), delivered);
+		return events.size() == batchSize ? delivered : null;
+	}
+
+	/**
+	 * Passes the events sequenced since the last run to this replica's change feed. Stamps are
+	 * handed out under one row lock and committed together, so reading by seq never skips an
+	 * event that commits later.
+	 */
+	private void feedChanges() {
+		if (changeFeedService.getLastSeq() < 0) {
+			startChangeFeed();
+		}
+		for (int i = 0; i < maxBatchesPerRun; i++) {
+			List<OutboxEventDTO> events = jdbcTemplate.query("select id, seq, event_type, book_id, payload, created_date"
+					+ " from outbox_event where seq > ? order by seq limit ?", EVENT_MAPPER,
+					changeFeedService.getLastSeq(), batchSize);
+			changeFeedService.publish(events);
+			if (events.size() < batchSize) {
+				return;
+			}
+		}
+	}
+
+	private void updateLag(Relay relay) {
+		long checkpoint = readCheckpoint(relay.name);
+		// committed events not yet stamped are pending too
+		Map<String, Object> pending = jdbcTemplate.queryForMap("select count(*) as pending, min(created_date) as oldest"
+				+ " from outbox_event where seq > ? or seq is null", checkpoint);
+		Timestamp oldest = (Timestamp) pending.get("oldest");
+		relay.pendingEvents = ((Number) pending.get("pending")).longValue();
+		relay.oldestPendingSeconds = oldest == null ? 0
+				: Math.max(0, Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toMillis() / 1000.0);
+	}
+
+	private long readCheckpoint(String relayName) {
+		return jdbcTemplate.queryForObject("select last_event_id from outbox_relay where name = ?", Long.class, relayName);
+	}
+
+	private String toJson(ChangeEventDTO change) {
+		try {
+			return OutboxService.JSON_MAPPER.writeValueAsString(change);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to serialize change event " + change, e);
+		}
+	}
+
+	/**
+	 * Delivery state of one sink. Meters are registered on the global registry, so they show
+	 * up in whatever registry the deployment adds.
+	 */
+	private static final class Relay {
+
+		private final String name;
+
+		private final OutboxSink sink;
+
+		private volatile boolean leaseHolder;
+
+		private volatile long pendingEvents;
+
+		private volatile double oldestPendingSeconds;
+
+		private final Counter deliveredEvents;
+
+		private final Counter deliveryFailures;
+
+		private Relay(OutboxSink sink) {
+			this.name = sink.getRelayName();
+			this.sink = sink;
+			MeterRegistry registry = Metrics.globalRegistry;
+			Gauge.builder("library.outbox.pending", this, relay -> relay.pendingEvents)
+					.description("Outbox events not yet accepted by the sink")
+					.tag("relay", name)
+					.register(registry);
+			Gauge.builder("library.outbox.lag", this, relay -> relay.oldestPendingSeconds)
+					.description("Age of the oldest outbox event not yet accepted by the sink")
+					.tag("relay", name)
+					.baseUnit("seconds")
+					.register(registry);
+			this.deliveredEvents = Counter.builder("library.outbox.delivered")
+					.tag("sink", sink.getName())
+					.register(registry);
+			this.deliveryFailures = Counter.builder("library.outbox.delivery.failures")
+					.tag("sink", sink.getName())
+					.register(registry);
+		}
+	}
+}
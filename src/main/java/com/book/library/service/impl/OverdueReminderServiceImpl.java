@@ -0,0 +1,214 @@
+package com.book.library.service.impl;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.service.OverdueReminderService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly job writing a reminder for every open loan past its due date. It walks the
+ * (borrow_status, due_date, id) index in keyset chunks, so it reads only open overdue loans
+ * however large the returned history is, and no cursor or snapshot is held between chunks.
+ * Each chunk's reminders go in as one batched insert, committed together with the chunk's
+ * checkpoint in job_checkpoint: a run interrupted by a crash or redeploy resumes after its
+ * last committed chunk, on whichever replica notices first. A replica runs at most one run at
+ * a time, so the resume check never starts a second run next to its own, even on another
+ * scheduler thread.
+ */
+@Service
+@Slf4j
+public class OverdueReminderServiceImpl implements OverdueReminderService {
+
+	private static final String JOB_NAME = "overdue-reminder";
+
+	private static final String FIRST_CHUNK = "select id, book_id, borrower_id, due_date from borrow_book_history"
+			+ " where borrow_status = false and due_date < ? order by due_date, id limit ?";
+
+	private static final String NEXT_CHUNK = "select id, book_id, borrower_id, due_date from borrow_book_history"
+			+ " where borrow_status = false and due_date < ? and (due_date > ? or (due_date = ? and id > ?))"
+			+ " order by due_date, id limit ?";
+
+	private static final RowMapper<OverdueLoan> LOAN_MAPPER = (rs, rowNum) -> new OverdueLoan(rs.getLong("id"),
+			rs.getLong("book_id"), rs.getLong("borrower_id"), rs.getTimestamp("due_date"));
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int chunkSize;
+
+	private final int staleAfterSeconds;
+
+	private final JobCheckpoint checkpoint;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private final Counter reminders;
+
+	private final Timer chunkTimer;
+
+	public OverdueReminderServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${library.overdue.chunk-size:5000}") int chunkSize,
+			@Value("${library.overdue.stale-after-seconds:300}") int staleAfterSeconds) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+		this.staleAfterSeconds = staleAfterSeconds;
+		this.checkpoint = new JobCheckpoint(jdbcTemplate, JOB_NAME);
+		this.reminders = Counter.builder("library.overdue.reminders")
+				.description("Overdue reminders written")
+				.register(Metrics.globalRegistry);
+		this.chunkTimer = Timer.builder("library.overdue.chunk")
+				.description("Time to read, remind and checkpoint one chunk of overdue loans")
+				.register(Metrics.globalRegistry);
+	}
+
+	/**
+	 * Starts today's run, or resumes it if it was interrupted. Every replica fires this; the
+	 * claim on the checkpoint row lets exactly one of them run. Returns the reminders written.
+	 */
+	@Override
+	@Scheduled(cron = "${library.overdue.cron:0 30 2 * * *}")
+	public long remindOverdueLoans() {
+		return runExclusively(() -> {
+			LocalDate today = LocalDate.now();
+			LocalDateTime cutoff = LocalDateTime.now();
+			if (checkpoint.claimDaily(today, cutoff)) {
+				log.info("Overdue reminder run for {} started by : {}, cutoff : {}", today, checkpoint.getOwner(), cutoff);
+				return run();
+			}
+			return resumeStaleRun();
+		});
+	}
+
+	/**
+	 * Takes over a run whose owner stopped sending heartbeats, and continues it from its
+	 * checkpoint with the run's original cutoff.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${library.overdue.resume-interval-ms:300000}",
+			initialDelayString = "${library.overdue.resume-interval-ms:300000}")
+	public long resumeInterruptedRun() {
+		return runExclusively(this::resumeStaleRun);
+	}
+
+	/**
+	 * Runs the job unless this replica is already running it. Returns 0 without touching the
+	 * checkpoint row then.
+	 */
+	private long runExclusively(LongSupplier job) {
+		if (!running.compareAndSet(false, true)) {
+			log.debug("Overdue reminder run already in progress on : {}", checkpoint.getOwner());
+			return 0;
+		}
+		try {
+			return job.getAsLong();
+		} finally {
+			running.set(false);
+		}
+	}
+
+	private long resumeStaleRun() {
+		if (!checkpoint.claimStale(staleAfterSeconds)) {
+			return 0;
+		}
+		log.info("Overdue reminder run resumed by : {}", checkpoint.getOwner());
+		return run();
+	}
+
+	private long run() {
+		Map<String, Object> saved = jdbcTemplate.queryForMap(
+				"select run_date, cutoff, last_due_date, last_id, processed from job_checkpoint where job_name = ?", JOB_NAME);
+		Date runDate = (Date) saved.get("run_date");
+		Timestamp cutoff = (Timestamp) saved.get("cutoff");
+		Timestamp lastDueDate = (Timestamp) saved.get("last_due_date");
+		long lastId = ((Number) saved.get("last_id")).longValue();
+		long alreadyProcessed = ((Number) saved.get("processed")).longValue();
+
+		long started = System.nanoTime();
+		long written = 0;
+		while (true) {
+			Timestamp fromDueDate = lastDueDate;
+			long fromId = lastId;
+			long chunkStarted = System.nanoTime();
+			List<OverdueLoan> loans = transactionTemplate.execute(
+					status -> remindChunk(status, runDate, cutoff, fromDueDate, fromId));
+			chunkTimer.record(System.nanoTime() - chunkStarted, TimeUnit.NANOSECONDS);
+			if (loans == null) {
+				log.warn("Overdue reminder run for {} was taken over by another replica, stopping", runDate);
+				return written;
+			}
+			if (loans.isEmpty()) {
+				break;
+			}
+			written += loans.size();
+			reminders.increment(loans.size());
+			OverdueLoan last = loans.get(loans.size() - 1);
+			lastDueDate = last.dueDate();
+			lastId = last.id();
+		}
+
+		checkpoint.finish();
+		double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+		log.info("Overdue reminder run for {} done, reminders : {} ({} before resume), {} s, {} loans/s", runDate,
+				written, alreadyProcessed, String.format("%.1f", seconds), String.format("%.0f", written / seconds));
+		return written;
+	}
+
+	/**
+	 * Reads the next chunk, writes its reminders and moves the checkpoint, all in the caller's
+	 * transaction. Returns null if the checkpoint is no longer ours; nothing is committed then.
+	 */
+	private List<OverdueLoan> remindChunk(TransactionStatus status, Date runDate, Timestamp cutoff,
+			Timestamp lastDueDate, long lastId) {
+		List<OverdueLoan> loans = lastDueDate == null
+				? jdbcTemplate.query(FIRST_CHUNK, LOAN_MAPPER, cutoff, chunkSize)
+				: jdbcTemplate.query(NEXT_CHUNK, LOAN_MAPPER, cutoff, lastDueDate, lastDueDate, lastId, chunkSize);
+		if (loans.isEmpty()) {
+			return loans;
+		}
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.batchUpdate("insert into overdue_reminder (history_id, book_id, borrower_id, due_date, run_date, created_date)"
+				+ " values (?, ?, ?, ?, ?, ?)", loans, loans.size(), (ps, loan) -> {
+					ps.setLong(1, loan.id());
+					ps.setLong(2, loan.bookId());
+					ps.setLong(3, loan.borrowerId());
+					ps.setTimestamp(4, loan.dueDate());
+					ps.setDate(5, runDate);
+					ps.setTimestamp(6, now);
+				});
+		OverdueLoan last = loans.get(loans.size() - 1);
+		int updated = jdbcTemplate.update("update job_checkpoint set last_due_date = ?, last_id = ?, processed = processed + ?,"
+				+ " heartbeat = current_timestamp where job_name = ? and owner = ? and status = 'RUNNING'",
+				last.dueDate(), last.id(), loans.size(), JOB_NAME, checkpoint.getOwner());
+		if (updated == 0) {
+			status.setRollbackOnly();
+			return null;
+		}
+		return loans;
+	}
+
+	private record OverdueLoan(long id, long bookId, long borrowerId, Timestamp dueDate) {
+	}
+}
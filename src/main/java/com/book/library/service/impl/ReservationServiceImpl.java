@@ -0,0 +1,340 @@
+package com.book.library.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.constant.ChangeEventType;
+import com.book.library.constant.ReservationStatus;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.ChangeEventDTO;
+import com.book.library.dto.ReservationDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.exception.ServiceUnavailableException;
+import com.book.library.model.ActiveLoan;
+import com.book.library.model.Book;
+import com.book.library.model.BorrowBookHistory;
+import com.book.library.model.Reservation;
+import com.book.library.model.TitleInventory;
+import com.book.library.repository.ActiveLoanRepository;
+import com.book.library.repository.BookRepository;
+import com.book.library.repository.BorrowBookHistoryRepository;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.repository.ReservationRepository;
+import com.book.library.repository.TitleInventoryRepository;
+import com.book.library.service.OutboxService;
+import com.book.library.service.ReservationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Waiting lists per title. The queue lives in the reservation table and is served oldest
+ * first: a return lends its copy to the head of the queue inside the return's transaction,
+ * and copies that become free any other way are handed out by a periodic dispatch. Clients
+ * waiting on a reservation hold a future that completes after the commit that changed it,
+ * instead of polling the borrow endpoint.
+ */
+@Service
+@Slf4j
+public class ReservationServiceImpl implements ReservationService {
+
+	private static final int WAITER_CHECK_CHUNK = 500;
+
+	private final ReservationRepository reservationRepository;
+
+	private final TitleInventoryRepository titleInventoryRepository;
+
+	private final BookRepository bookRepository;
+
+	private final BorrowerRepository borrowerRepository;
+
+	private final BorrowBookHistoryRepository borrowBookHistoryRepository;
+
+	private final ActiveLoanRepository activeLoanRepository;
+
+	private final OutboxService outboxService;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int maxWaiters;
+
+	private final Map<Long, Set<CompletableFuture<ReservationDTO>>> waiters = new ConcurrentHashMap<>();
+
+	private final AtomicInteger waiterCount = new AtomicInteger();
+
+	public ReservationServiceImpl(ReservationRepository reservationRepository,
+			TitleInventoryRepository titleInventoryRepository, BookRepository bookRepository,
+			BorrowerRepository borrowerRepository, BorrowBookHistoryRepository borrowBookHistoryRepository,
+			ActiveLoanRepository activeLoanRepository, OutboxService outboxService,
+			PlatformTransactionManager transactionManager,
+			@Value("${library.reservation.max-waiters:10000}") int maxWaiters) {
+		this.reservationRepository = reservationRepository;
+		this.titleInventoryRepository = titleInventoryRepository;
+		this.bookRepository = bookRepository;
+		this.borrowerRepository = borrowerRepository;
+		this.borrowBookHistoryRepository = borrowBookHistoryRepository;
+		this.activeLoanRepository = activeLoanRepository;
+		this.outboxService = outboxService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxWaiters = maxWaiters;
+	}
+
+	/**
+	 * Queues the borrower for a title. The title's counters are locked first, the same row a
+	 * return locks when it puts its copy back, so a copy cannot be freed unseen between the
+	 * availability check and the insert. If a copy is free the queue is served on the spot,
+	 * which lends it to this reservation unless others are queued ahead.
+	 */
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public ReservationDTO reserve(BorrowByIsbnReq req) {
+		TitleInventory title = titleInventoryRepository.lockByIsbnNumber(req.getIsbnNumber())
+				.orElseThrow(() -> {
+					log.error("Invalid ISBN Number : {} ", req.getIsbnNumber());
+					return new ResourceNotFoundException("Invalid ISBN Number");
+				});
+		if (!borrowerRepository.existsById(req.getBorrowerId())) {
+			log.error("Invalid Borrower id : {} ", req.getBorrowerId());
+			throw new ResourceNotFoundException("Invalid Borrower");
+		}
+		if (reservationRepository.existsByIsbnNumberAndBorrowerIdAndStatus(req.getIsbnNumber(), req.getBorrowerId(),
+				ReservationStatus.WAITING)) {
+			log.info("Borrower : [{}] is already waiting for ISBN : [{}]", req.getBorrowerId(), req.getIsbnNumber());
+			throw new BusinessException("Borrower is already waiting for the book.");
+		}
+		Reservation reservation = new Reservation();
+		reservation.setIsbnNumber(req.getIsbnNumber());
+		reservation.setBorrowerId(req.getBorrowerId());
+		reservation.setStatus(ReservationStatus.WAITING);
+		reservation.setCreatedDate(LocalDateTime.now());
+		reservation.setUpdatedDate(LocalDateTime.now());
+		reservationRepository.save(reservation);
+		notifyAfterCommit(serveFreeCopies(title));
+		log.info("Reservation : [{}] of ISBN : [{}] by Borrower : [{}] is {}", reservation.getId(),
+				reservation.getIsbnNumber(), reservation.getBorrowerId(), reservation.getStatus());
+		return toDTO(reservation);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public ReservationDTO getReservation(Long id) {
+		return toDTO(reservationRepository.findById(id).orElseThrow(() -> reservationNotFound(id)));
+	}
+
+	/**
+	 * Withdraws a waiting reservation. The row is locked so a concurrent hand-over either
+	 * fulfils it first or skips it.
+	 */
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public ReservationDTO cancel(Long id, Long borrowerId) {
+		Reservation reservation = reservationRepository.findForUpdateById(id)
+				.filter(found -> found.getBorrowerId().equals(borrowerId))
+				.orElseThrow(() -> reservationNotFound(id));
+		if (reservation.getStatus() != ReservationStatus.WAITING) {
+			throw new BusinessException("Only a waiting reservation can be cancelled, it is " + reservation.getStatus() + ".");
+		}
+		reservation.setStatus(ReservationStatus.CANCELLED);
+		reservation.setUpdatedDate(LocalDateTime.now());
+		notifyAfterCommit(List.of(reservation));
+		return toDTO(reservation);
+	}
+
+	/**
+	 * Completes once the reservation is no longer waiting, right away if it already isn't.
+	 * The state is read again after registering, so a change committed in between is either
+	 * seen by that read or completes the future. Cancel the future to stop waiting.
+	 */
+	@Override
+	public CompletableFuture<ReservationDTO> awaitChange(Long id) {
+		ReservationDTO current = getReservation(id);
+		if (current.getStatus() != ReservationStatus.WAITING) {
+			return CompletableFuture.completedFuture(current);
+		}
+		if (waiterCount.incrementAndGet() > maxWaiters) {
+			waiterCount.decrementAndGet();
+			throw new ServiceUnavailableException("Too many clients are waiting for reservations, please retry.");
+		}
+		CompletableFuture<ReservationDTO> future = new CompletableFuture<>();
+		waiters.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(future);
+		future.whenComplete((reservation, error) -> {
+			waiterCount.decrementAndGet();
+			waiters.computeIfPresent(id, (key, futures) -> {
+				futures.remove(future);
+				return futures.isEmpty() ? null : futures;
+			});
+		});
+		try {
+			current = getReservation(id);
+		} catch (RuntimeException e) {
+			future.cancel(false);
+			throw e;
+		}
+		if (current.getStatus() != ReservationStatus.WAITING) {
+			future.complete(current);
+		}
+		return future;
+	}
+
+	/**
+	 * Lends returned copies to the oldest waiting reservations of their titles. Runs in the
+	 * return's transaction after the copies were put back, which has locked the titles'
+	 * counters, and visits titles in a fixed order like every other counter update.
+	 */
+	@Override
+	public void handOver(List<BorrowBookHistory> returnedLoans) {
+		Map<String, List<Book>> copiesByIsbn = returnedLoans.stream()
+				.map(BorrowBookHistory::getBook)
+				.collect(Collectors.groupingBy(Book::getIsbnNumber, TreeMap::new, Collectors.toList()));
+		List<Reservation> fulfilled = new ArrayList<>();
+		copiesByIsbn.forEach((isbnNumber, copies) -> {
+			List<Reservation> heads = reservationRepository.lockQueueHead(isbnNumber, Limit.of(copies.size()));
+			if (heads.isEmpty()) {
+				return;
+			}
+			if (titleInventoryRepository.takeCopies(isbnNumber, heads.size()) == 0) {
+				log.warn("Inventory of ISBN : [{}] could not hand over {} returned copies", isbnNumber, heads.size());
+				return;
+			}
+			for (int i = 0; i < heads.size(); i++) {
+				fulfil(heads.get(i), copies.get(i));
+			}
+			fulfilled.addAll(heads);
+		});
+		notifyAfterCommit(fulfilled);
+	}
+
+	/**
+	 * Serves every queue that is left with free copies once the application is up, e.g.
+	 * because a replica stopped between a return and its hand-over.
+	 */
+	@Override
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void recover() {
+		dispatch();
+		log.info("Reservation queues recovered, waiting : {}", reservationRepository.countByStatus(ReservationStatus.WAITING));
+	}
+
+	/**
+	 * Hands free copies to waiting reservations, one title per transaction, and completes
+	 * the local waiters of reservations that another replica has fulfilled or cancelled.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${library.reservation.dispatch-interval-ms:5000}",
+			initialDelayString = "${library.reservation.dispatch-interval-ms:5000}")
+	public void dispatch() {
+		for (String isbnNumber : reservationRepository.findServableTitles()) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> titleInventoryRepository.lockByIsbnNumber(isbnNumber)
+						.ifPresent(title -> notifyAfterCommit(serveFreeCopies(title))));
+			} catch (RuntimeException e) {
+				log.error("Failed to serve the reservation queue of ISBN : {}", isbnNumber, e);
+			}
+		}
+		List<Long> waitedIds = new ArrayList<>(waiters.keySet());
+		for (int from = 0; from < waitedIds.size(); from += WAITER_CHECK_CHUNK) {
+			List<Long> chunk = waitedIds.subList(from, Math.min(from + WAITER_CHECK_CHUNK, waitedIds.size()));
+			reservationRepository.findByIdInAndStatusNot(chunk, ReservationStatus.WAITING)
+					.forEach(reservation -> complete(toDTO(reservation)));
+		}
+	}
+
+	/**
+	 * Lends up to as many free copies as the locked counters show to the head of the queue.
+	 */
+	private List<Reservation> serveFreeCopies(TitleInventory title) {
+		if (title.getAvailableCopies() <= 0) {
+			return List.of();
+		}
+		String isbnNumber = title.getIsbnNumber();
+		List<Reservation> heads = reservationRepository.lockQueueHead(isbnNumber, Limit.of(title.getAvailableCopies()));
+		if (heads.isEmpty()) {
+			return List.of();
+		}
+		List<Book> copies = bookRepository.findFreeCopies(isbnNumber, Limit.of(heads.size()));
+		int served = Math.min(heads.size(), copies.size());
+		if (served < heads.size()) {
+			log.warn("Inventory of ISBN : [{}] counts {} free copies but only {} are free", isbnNumber,
+					title.getAvailableCopies(), copies.size());
+		}
+		if (served == 0 || titleInventoryRepository.takeCopies(isbnNumber, served) == 0) {
+			return List.of();
+		}
+		for (int i = 0; i < served; i++) {
+			fulfil(heads.get(i), copies.get(i));
+		}
+		return heads.subList(0, served);
+	}
+
+	private void fulfil(Reservation reservation, Book book) {
+		BorrowBookHistory borrowBookHistory = borrowBookHistoryRepository.save(
+				new BorrowBookHistory(book, borrowerRepository.getReferenceById(reservation.getBorrowerId())));
+		activeLoanRepository.save(new ActiveLoan(borrowBookHistory));
+		outboxService.append(List.of(new ChangeEventDTO(ChangeEventType.BORROWED, borrowBookHistory)));
+		reservation.setStatus(ReservationStatus.FULFILLED);
+		reservation.setBookId(book.getId());
+		reservation.setHistoryId(borrowBookHistory.getId());
+		reservation.setUpdatedDate(LocalDateTime.now());
+		log.info("Reservation : [{}] fulfilled, Book Id : [{}] lent to Borrower : [{}]", reservation.getId(),
+				book.getId(), reservation.getBorrowerId());
+	}
+
+	private void notifyAfterCommit(List<Reservation> changed) {
+		if (changed.isEmpty()) {
+			return;
+		}
+		List<ReservationDTO> reservations = changed.stream().map(reservation -> new ReservationDTO(reservation, null)).toList();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			reservations.forEach(this::complete);
+			return;
+		}
+		// a rolled back hand-over must not wake anyone up
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				reservations.forEach(ReservationServiceImpl.this::complete);
+			}
+		});
+	}
+
+	private void complete(ReservationDTO reservation) {
+		Set<CompletableFuture<ReservationDTO>> futures = waiters.remove(reservation.getId());
+		if (futures != null) {
+			futures.forEach(future -> future.complete(reservation));
+		}
+	}
+
+	private ReservationDTO toDTO(Reservation reservation) {
+		Long position = reservation.getStatus() == ReservationStatus.WAITING
+				? reservationRepository.countQueuedUpTo(reservation.getIsbnNumber(), reservation.getId())
+				: null;
+		return new ReservationDTO(reservation, position);
+	}
+
+	private ResourceNotFoundException reservationNotFound(Long id) {
+		log.error("Reservation not found with id: {}", id);
+		return new ResourceNotFoundException("Reservation not found with id: " + id);
+	}
+}
@@ -0,0 +1,115 @@
+package com.book.library.service.impl;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.constant.ChangeEventType;
+import com.book.library.dto.ChangeEventDTO;
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.model.Book;
+import com.book.library.repository.BookRepository;
+import com.book.library.repository.CirculationRollupRepository;
+import com.book.library.service.OutboxService;
+import com.book.library.service.OutboxSink;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Keeps the circulation rollups up to date from the outbox, off the borrow and return path.
+ * A batch's increments and the seq of its last event commit together, and events up to that
+ * seq are dropped, so redelivery by the relay never counts a loan twice. Loans before the
+ * backfill cutoff are left to the backfill.
+ */
+@Service
+public class StatsOutboxSink implements OutboxSink {
+
+	private static final String JOB_NAME = "circulation-rollup";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final BookRepository bookRepository;
+
+	private final CirculationRollupRepository circulationRollupRepository;
+
+	private volatile LocalDateTime cutoff;
+
+	public StatsOutboxSink(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			BookRepository bookRepository,
+			CirculationRollupRepository circulationRollupRepository) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.bookRepository = bookRepository;
+		this.circulationRollupRepository = circulationRollupRepository;
+	}
+
+	@Override
+	public String getName() {
+		return "stats";
+	}
+
+	@Override
+	public String getRelayName() {
+		return "stats";
+	}
+
+	@Override
+	public void publish(List<OutboxEventDTO> events) {
+		transactionTemplate.executeWithoutResult(status -> apply(events));
+	}
+
+	private void apply(List<OutboxEventDTO> events) {
+		// the row lock also keeps a relay whose lease just ran out from applying the batch a second time
+		long applied = jdbcTemplate.queryForObject("select last_id from job_checkpoint where job_name = ? for update",
+				Long.class, JOB_NAME);
+		List<OutboxEventDTO> fresh = events.stream().filter(event -> event.getSeq() > applied).toList();
+		if (fresh.isEmpty()) {
+			return;
+		}
+		LocalDateTime countFrom = getCutoff();
+		List<ChangeEventDTO> loans = fresh.stream()
+				.filter(event -> event.getType() != ChangeEventType.REGISTERED)
+				.map(this::toChange)
+				.filter(change -> !change.getOccurredAt().isBefore(countFrom))
+				.toList();
+		Map<Long, String> authors = bookRepository.findAllById(loans.stream().map(ChangeEventDTO::getBookId).distinct().toList())
+				.stream().filter(book -> book.getAuthor() != null)
+				.collect(Collectors.toMap(Book::getId, Book::getAuthor));
+		CirculationRollupRepository.Delta delta = new CirculationRollupRepository.Delta();
+		for (ChangeEventDTO loan : loans) {
+			String author = authors.get(loan.getBookId());
+			if (loan.getType() == ChangeEventType.BORROWED) {
+				delta.borrowed(loan.getIsbnNumber(), author, loan.getBorrowerId(), loan.getOccurredAt());
+			} else {
+				delta.returned(loan.getIsbnNumber(), author, loan.getBorrowerId(), loan.getOccurredAt());
+			}
+		}
+		circulationRollupRepository.add(delta);
+		jdbcTemplate.update("update job_checkpoint set last_id = ?, processed = processed + ? where job_name = ?",
+				fresh.get(fresh.size() - 1).getSeq(), delta.getEvents(), JOB_NAME);
+	}
+
+	private ChangeEventDTO toChange(OutboxEventDTO event) {
+		try {
+			return OutboxService.JSON_MAPPER.readValue(event.getPayload(), ChangeEventDTO.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unreadable payload of outbox event " + event.getId(), e);
+		}
+	}
+
+	private LocalDateTime getCutoff() {
+		if (cutoff == null) {
+			cutoff = jdbcTemplate.queryForObject("select cutoff from job_checkpoint where job_name = 'circulation-backfill'",
+					Timestamp.class).toLocalDateTime();
+		}
+		return cutoff;
+	}
+}
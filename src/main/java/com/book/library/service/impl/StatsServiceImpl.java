@@ -0,0 +1,283 @@
+package com.book.library.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.StatsDimension;
+import com.book.library.constant.StatsGranularity;
+import com.book.library.dto.StatsBucketDTO;
+import com.book.library.dto.StatsCountDTO;
+import com.book.library.dto.TitleAvailabilityDTO;
+import com.book.library.dto.TitleUtilizationDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.repository.CirculationRollupRepository;
+import com.book.library.repository.TitleInventoryRepository;
+import com.book.library.service.StatsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circulation analytics answered from the rollups kept by {@link StatsOutboxSink}: every
+ * query is a primary key or index range read bounded by its limit, bucket count or day
+ * count, whatever the size of the loan history.
+ * <p>
+ * The backfill counts the loans before the cutoff the rollup consumer starts from. It reads
+ * the hot history and the archive together in fixed id ranges, several ranges in parallel;
+ * each range's counts commit with a marker row, so a range is counted once however often
+ * the backfill restarts and however many replicas run it.
+ */
+@Service
+@Slf4j
+public class StatsServiceImpl implements StatsService {
+
+	private static final String BACKFILL_JOB = "circulation-backfill";
+
+	private static final long RANGE_SIZE = CommonConstant.BACKFILL_RANGE_SIZE;
+
+	private static final int RANGE_ATTEMPTS = 3;
+
+	// one statement, so a loan the archive job moves meanwhile is read from exactly one table
+	private static final String RANGE_LOANS = "select b.isbn_number, b.author, h.borrower_id, h.borrow_date, h.return_date"
+			+ " from (select book_id, borrower_id, borrow_date, return_date from borrow_book_history"
+			+ " where id >= ? and id < ? and borrow_date < ?"
+			+ " union all select book_id, borrower_id, borrow_date, return_date from borrow_book_history_archive"
+			+ " where id >= ? and id < ? and borrow_date < ?) h"
+			+ " join book b on b.id = h.book_id";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final CirculationRollupRepository circulationRollupRepository;
+
+	private final TitleInventoryRepository titleInventoryRepository;
+
+	private final int backfillThreads;
+
+	private final boolean backfillOnStartup;
+
+	public StatsServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			CirculationRollupRepository circulationRollupRepository, TitleInventoryRepository titleInventoryRepository,
+			@Value("${library.stats.backfill-threads:4}") int backfillThreads,
+			@Value("${library.stats.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.circulationRollupRepository = circulationRollupRepository;
+		this.titleInventoryRepository = titleInventoryRepository;
+		this.backfillThreads = backfillThreads;
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public List<StatsCountDTO> getTop(StatsDimension dimension, int limit) {
+		if (dimension != StatsDimension.TITLE && dimension != StatsDimension.AUTHOR && dimension != StatsDimension.BORROWER) {
+			throw new BusinessException("Top lists exist for TITLE, AUTHOR and BORROWER only.");
+		}
+		if (limit < 1 || limit > CommonConstant.MAX_STATS_TOP) {
+			throw new BusinessException(String.format("Limit must be between 1 and %d.", CommonConstant.MAX_STATS_TOP));
+		}
+		return circulationRollupRepository.findTop(dimension, limit);
+	}
+
+	/**
+	 * All-time loans per hour of the day, all 24 hours in order.
+	 */
+	@Override
+	public List<StatsCountDTO> getBusiestHours() {
+		Map<String, StatsCountDTO> counted = circulationRollupRepository.findTotals(StatsDimension.HOUR_OF_DAY).stream()
+				.collect(Collectors.toMap(StatsCountDTO::getKey, Function.identity()));
+		List<StatsCountDTO> hours = new ArrayList<>(24);
+		for (int hour = 0; hour < 24; hour++) {
+			String key = String.format("%02d", hour);
+			hours.add(counted.getOrDefault(key, new StatsCountDTO(key, 0, 0)));
+		}
+		return hours;
+	}
+
+	@Override
+	public List<StatsBucketDTO> getSeries(StatsDimension dimension, String key, StatsGranularity granularity,
+			LocalDateTime from, LocalDateTime to) {
+		if (dimension == StatsDimension.HOUR_OF_DAY) {
+			throw new BusinessException("HOUR_OF_DAY has all-time counts only.");
+		}
+		if (dimension != StatsDimension.ALL && (key == null || key.isBlank())) {
+			throw new BusinessException("key is required for " + dimension + ".");
+		}
+		if (from == null || to == null || !from.isBefore(to)) {
+			throw new BusinessException("from must be before to.");
+		}
+		LocalDateTime start = granularity.bucketOf(from);
+		if (granularity.getUnit().between(start, to) >= CommonConstant.MAX_STATS_BUCKETS) {
+			throw new BusinessException(String.format("At most %d buckets can be read at once.", CommonConstant.MAX_STATS_BUCKETS));
+		}
+		return circulationRollupRepository.findBuckets(dimension, dimension == StatsDimension.ALL ? "" : key,
+				granularity, start, to);
+	}
+
+	/**
+	 * Copies on loan now, from the title's inventory counters, and loans per copy over the
+	 * last {@code days} days, from at most that many daily buckets.
+	 */
+	@Override
+	public TitleUtilizationDTO getTitleUtilization(String isbnNumber, int days) {
+		if (days < 1 || days > CommonConstant.MAX_STATS_DAYS) {
+			throw new BusinessException(String.format("Days must be between 1 and %d.", CommonConstant.MAX_STATS_DAYS));
+		}
+		TitleAvailabilityDTO title = titleInventoryRepository.findAvailability(List.of(isbnNumber)).stream()
+				.findFirst()
+				.orElseThrow(() -> new ResourceNotFoundException("Invalid ISBN Number"));
+		LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+		long borrowCount = circulationRollupRepository.findBuckets(StatsDimension.TITLE, isbnNumber, StatsGranularity.DAY,
+				tomorrow.minusDays(days), tomorrow).stream().mapToLong(StatsBucketDTO::getBorrowCount).sum();
+		int total = title.getTotalCopies();
+		int onLoan = total - title.getAvailableCopies();
+		return new TitleUtilizationDTO(isbnNumber, total, onLoan, total == 0 ? 0 : (double) onLoan / total, days,
+				borrowCount, total == 0 ? 0 : (double) borrowCount / total);
+	}
+
+	/**
+	 * Counts the history before the cutoff, ranges in parallel. Returns the loan events this
+	 * call counted; ranges counted earlier or by another replica are skipped.
+	 */
+	@Override
+	public long backfill() {
+		Map<String, Object> checkpoint = jdbcTemplate.queryForMap(
+				"select cutoff, status from job_checkpoint where job_name = ?", BACKFILL_JOB);
+		if ("DONE".equals(checkpoint.get("status"))) {
+			return 0;
+		}
+		Timestamp cutoff = (Timestamp) checkpoint.get("cutoff");
+		Long minId = minOf(jdbcTemplate.queryForObject("select min(id) from borrow_book_history", Long.class),
+				jdbcTemplate.queryForObject("select min(id) from borrow_book_history_archive", Long.class));
+		Long maxId = maxOf(jdbcTemplate.queryForObject("select max(id) from borrow_book_history where borrow_date < ?",
+				Long.class, cutoff),
+				jdbcTemplate.queryForObject("select max(id) from borrow_book_history_archive", Long.class));
+		long counted = 0;
+		if (minId != null && maxId != null) {
+			long firstRange = Math.floorDiv(minId, RANGE_SIZE) * RANGE_SIZE;
+			log.info("Circulation backfill started, ids {} to {}, cutoff : {}", minId, maxId, cutoff);
+			long started = System.nanoTime();
+			counted = countRanges(firstRange, maxId, cutoff);
+			long ranges = (maxId - firstRange) / RANGE_SIZE + 1;
+			Long marked = jdbcTemplate.queryForObject(
+					"select count(*) from circulation_backfill_range where range_start >= ? and range_start <= ?",
+					Long.class, firstRange, maxId);
+			log.info("Circulation backfill counted {} loan events in {} s, ranges done : {} of {}", counted,
+					Duration.ofNanos(System.nanoTime() - started).toSeconds(), marked, ranges);
+			if (marked < ranges) {
+				return counted;
+			}
+		}
+		jdbcTemplate.update("update job_checkpoint set status = 'DONE', heartbeat = current_timestamp where job_name = ?",
+				BACKFILL_JOB);
+		return counted;
+	}
+
+	@Override
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeBackfill() {
+		if (backfillOnStartup) {
+			backfill();
+		}
+	}
+
+	private long countRanges(long firstRange, long maxId, Timestamp cutoff) {
+		AtomicLong nextRange = new AtomicLong(firstRange);
+		ExecutorService pool = Executors.newFixedThreadPool(backfillThreads);
+		try {
+			List<Future<Long>> workers = new ArrayList<>(backfillThreads);
+			for (int i = 0; i < backfillThreads; i++) {
+				workers.add(pool.submit(() -> {
+					long counted = 0;
+					for (long start = nextRange.getAndAdd(RANGE_SIZE); start <= maxId; start = nextRange.getAndAdd(RANGE_SIZE)) {
+						counted += countRange(start, cutoff);
+					}
+					return counted;
+				}));
+			}
+			long counted = 0;
+			for (Future<Long> worker : workers) {
+				counted += worker.get();
+			}
+			return counted;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Circulation backfill interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Circulation backfill failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Counts one id range in one transaction. Ranges share the ALL and HOUR_OF_DAY rows, so a
+	 * range that loses a lock conflict is tried again.
+	 */
+	private long countRange(long start, Timestamp cutoff) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				Long counted = transactionTemplate.execute(status -> {
+					jdbcTemplate.update("insert into circulation_backfill_range (range_start, created_date) values (?, ?)",
+							start, Timestamp.valueOf(LocalDateTime.now()));
+					CirculationRollupRepository.Delta delta = new CirculationRollupRepository.Delta();
+					jdbcTemplate.query(RANGE_LOANS, rs -> {
+						LocalDateTime borrowDate = rs.getTimestamp("borrow_date").toLocalDateTime();
+						Timestamp returnDate = rs.getTimestamp("return_date");
+						Long borrowerId = rs.getObject("borrower_id", Long.class);
+						delta.borrowed(rs.getString("isbn_number"), rs.getString("author"), borrowerId, borrowDate);
+						if (returnDate != null && returnDate.before(cutoff)) {
+							delta.returned(rs.getString("isbn_number"), rs.getString("author"), borrowerId,
+									returnDate.toLocalDateTime());
+						}
+					}, start, start + RANGE_SIZE, cutoff, start, start + RANGE_SIZE, cutoff);
+					circulationRollupRepository.add(delta);
+					return delta.getEvents();
+				});
+				return counted;
+			} catch (DuplicateKeyException e) {
+				// counted before, or right now by another replica
+				return 0;
+			} catch (ConcurrencyFailureException e) {
+				if (attempt == RANGE_ATTEMPTS) {
+					throw e;
+				}
+				log.info("Circulation backfill range from id {} conflicted, attempt {}", start, attempt);
+			}
+		}
+	}
+
+	private static Long minOf(Long a, Long b) {
+		return a == null ? b : b == null ? a : Math.min(a, b);
+	}
+
+	private static Long maxOf(Long a, Long b) {
+		return a == null ? b : b == null ? a : Math.max(a, b);
+	}
+}
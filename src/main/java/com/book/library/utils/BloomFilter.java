@@ -0,0 +1,94 @@
+package com.book.library.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings. {@link #mightContain(String)} never
+ * returns false for a value that was {@link #put(String) put}; it may return true for one
+ * that was not, with roughly the configured probability while under capacity.
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray words;
+
+	private final long numBits;
+
+	private final int numHashes;
+
+	private final long capacity;
+
+	private BloomFilter(long numBits, int numHashes, long capacity) {
+		this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+		this.numBits = numBits;
+		this.numHashes = numHashes;
+		this.capacity = capacity;
+	}
+
+	public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+		if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("Expected insertions must be positive and false positive rate in (0, 1)");
+		}
+		long numBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		numBits = Math.min(Math.max(numBits, 64), (long) Integer.MAX_VALUE * 64);
+		int numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+		return new BloomFilter(numBits, numHashes, expectedInsertions);
+	}
+
+	/**
+	 * Adds the value and returns true if that changed the filter, i.e. the value was definitely new.
+	 */
+	public boolean put(String value) {
+		long hash1 = hash(value);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		boolean changed = false;
+		for (int i = 0; i < numHashes; i++) {
+			long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % numBits;
+			int index = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long word;
+			while (((word = words.get(index)) & mask) == 0) {
+				if (words.compareAndSet(index, word, word | mask)) {
+					changed = true;
+					break;
+				}
+			}
+		}
+		return changed;
+	}
+
+	public boolean mightContain(String value) {
+		long hash1 = hash(value);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < numHashes; i++) {
+			long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % numBits;
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	// 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur3 mix
+	private static long hash(String value) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001B3L;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB93FE53E89C5L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,142 @@
+package com.book.library.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.book.library.constant.ImportFormat;
+import com.book.library.dto.BookDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Reads a bulk import file one line at a time. CSV rows are {@code isbnNumber,title,author}
+ * with an optional header line and RFC 4180 quoting; NDJSON rows are one {@link BookDTO}
+ * object per line. Blank lines are skipped. A malformed line becomes a row with an error
+ * instead of failing the whole file.
+ */
+public class BookImportReader implements Iterator<BookImportReader.Row> {
+
+	private static final String CSV_HEADER = "isbnnumber,title,author";
+
+	@Getter
+	@AllArgsConstructor
+	public static class Row {
+		private final int rowNumber;
+		private final BookDTO book;
+		private final String error;
+	}
+
+	private final BufferedReader reader;
+
+	private final ImportFormat format;
+
+	private final ObjectMapper objectMapper;
+
+	private int lineNumber;
+
+	private Row next;
+
+	public BookImportReader(BufferedReader reader, ImportFormat format, ObjectMapper objectMapper) {
+		this.reader = reader;
+		this.format = format;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = readRow();
+		}
+		return next != null;
+	}
+
+	@Override
+	public Row next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Row row = next;
+		next = null;
+		return row;
+	}
+
+	private Row readRow() {
+		String line;
+		try {
+			do {
+				line = reader.readLine();
+				lineNumber++;
+			} while (line != null && (line.isBlank() || isCsvHeader(line)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (line == null) {
+			return null;
+		}
+		return format == ImportFormat.CSV ? parseCsv(line) : parseJson(line);
+	}
+
+	private boolean isCsvHeader(String line) {
+		return format == ImportFormat.CSV && lineNumber == 1
+				&& line.replace(" ", "").replace("\"", "").equalsIgnoreCase(CSV_HEADER);
+	}
+
+	private Row parseJson(String line) {
+		try {
+			return new Row(lineNumber, objectMapper.readValue(line, BookDTO.class), null);
+		} catch (JsonProcessingException e) {
+			return new Row(lineNumber, null, "Malformed JSON line: " + e.getOriginalMessage());
+		}
+	}
+
+	private Row parseCsv(String line) {
+		List<String> fields = splitCsvLine(line);
+		if (fields == null || fields.size() != 3) {
+			return new Row(lineNumber, null, "Malformed CSV line, expected isbnNumber,title,author");
+		}
+		BookDTO book = new BookDTO(null, fields.get(0).trim(), fields.get(1).trim(), fields.get(2).trim());
+		return new Row(lineNumber, book, null);
+	}
+
+	/**
+	 * Splits one CSV line; returns null when a quoted field is not closed.
+	 */
+	static List<String> splitCsvLine(String line) {
+		List<String> fields = new ArrayList<>(3);
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		if (quoted) {
+			return null;
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -1,16 +1,226 @@
 package com.book.library.utils;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.dto.PageDTO;
+import com.book.library.exception.BusinessException;
 
 public class CommonUtils {
-	
+
+	/**
+	 * Length of a date written by {@link #writeStandardDateTime(LocalDateTime, char[])}.
+	 */
+	public static final int STANDARD_DATE_TIME_LENGTH = 22;
+
+	// DateTimeFormatter is immutable and thread-safe, so each pattern is compiled once
+	private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+	static {
+		// AM/PM text is pinned to English so the API output does not depend on the server locale
+		FORMATTERS.put(CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS,
+				DateTimeFormatter.ofPattern(CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS, Locale.ENGLISH));
+	}
+
 	public static String formatLocalDateTime(LocalDateTime dateTime, String format) {
         if (dateTime == null || format == null || format.isEmpty()) {
             throw new IllegalArgumentException("DateTime and format must not be null or empty");
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-        return dateTime.format(formatter);
+        if (CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS.equals(format)) {
+            char[] buf = new char[STANDARD_DATE_TIME_LENGTH];
+            int length = writeStandardDateTime(dateTime, buf);
+            if (length > 0) {
+                return new String(buf, 0, length);
+            }
+        }
+        return dateTime.format(getFormatter(format));
     }
 
+	/**
+	 * Returns the compiled formatter for a pattern, compiling it on first use.
+	 */
+	public static DateTimeFormatter getFormatter(String format) {
+		return FORMATTERS.computeIfAbsent(format, DateTimeFormatter::ofPattern);
+	}
+
+	/**
+	 * Writes {@code dateTime} in {@link CommonConstant#DATE_FORMAT_yyyymmdd_HHMMSS} into {@code buf}
+	 * without going through DateTimeFormatter. Returns the number of chars written, or -1 for years
+	 * outside 1..9999, which only the full formatter renders correctly.
+	 */
+	public static int writeStandardDateTime(LocalDateTime dateTime, char[] buf) {
+		int year = dateTime.getYear();
+		if (year < 1 || year > 9999) {
+			return -1;
+		}
+		int hour = dateTime.getHour();
+		int clockHour = hour % 12 == 0 ? 12 : hour % 12;
+		writeDigits(buf, 0, year, 4);
+		buf[4] = '-';
+		writeDigits(buf, 5, dateTime.getMonthValue(), 2);
+		buf[7] = '-';
+		writeDigits(buf, 8, dateTime.getDayOfMonth(), 2);
+		buf[10] = ' ';
+		writeDigits(buf, 11, clockHour, 2);
+		buf[13] = ':';
+		writeDigits(buf, 14, dateTime.getMinute(), 2);
+		buf[16] = ':';
+		writeDigits(buf, 17, dateTime.getSecond(), 2);
+		buf[19] = ' ';
+		buf[20] = hour < 12 ? 'A' : 'P';
+		buf[21] = 'M';
+		return STANDARD_DATE_TIME_LENGTH;
+	}
+
+	private static void writeDigits(char[] buf, int offset, int value, int width) {
+		for (int i = offset + width - 1; i >= offset; i--) {
+			buf[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	/**
+	 * Encodes the last seen id of a keyset page into an opaque cursor token.
+	 */
+	public static String encodeCursor(Long lastId) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Cursor for pages ordered by another column first; the id then breaks ties.
+	 */
+	public static String encodeCursor(Long lastId, String lastSortValue) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((lastId + ":" + lastSortValue).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a cursor token produced by {@link #encodeCursor(Long)}; a blank cursor means the first page.
+	 */
+	public static Long decodeCursor(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return 0L;
+		}
+		String position = decodePosition(cursor);
+		int separator = position.indexOf(':');
+		try {
+			return Long.valueOf(separator < 0 ? position : position.substring(0, separator));
+		} catch (NumberFormatException e) {
+			throw new BusinessException("Invalid cursor : " + cursor);
+		}
+	}
+
+	/**
+	 * The sort value of a cursor produced by {@link #encodeCursor(Long, String)}, null for the first page.
+	 */
+	public static String decodeCursorSortValue(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		String position = decodePosition(cursor);
+		int separator = position.indexOf(':');
+		if (separator < 0) {
+			throw new BusinessException("Invalid cursor : " + cursor);
+		}
+		return position.substring(separator + 1);
+	}
+
+	private static String decodePosition(String cursor) {
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new BusinessException("Invalid cursor : " + cursor);
+		}
+	}
+
+	public static void checkPageSize(int size) {
+		if (size < 1 || size > CommonConstant.MAX_PAGE_SIZE) {
+			throw new BusinessException(String.format("Page size must be between 1 and %d.", CommonConstant.MAX_PAGE_SIZE));
+		}
+	}
+
+	/**
+	 * Builds a keyset page from a query fetched with limit {@code size + 1}; the extra row
+	 * only tells whether another page exists, without a count query.
+	 */
+	public static <T> PageDTO<T> toKeysetPage(List<T> rows, int size, Function<T, Long> idOf) {
+		return toKeysetPage(rows, size, idOf, null);
+	}
+
+	/**
+	 * As {@link #toKeysetPage(List, int, Function)} for pages ordered by a sort value, then id.
+	 */
+	public static <T> PageDTO<T> toKeysetPage(List<T> rows, int size, Function<T, Long> idOf, Function<T, String> sortValueOf) {
+		boolean hasNext = rows.size() > size;
+		List<T> content = hasNext ? rows.subList(0, size) : rows;
+		PageDTO<T> page = new PageDTO<>();
+		page.setContent(content);
+		page.setSize(size);
+		page.setNumberofElements(content.size());
+		if (hasNext) {
+			T last = content.get(content.size() - 1);
+			page.setNextCursor(sortValueOf == null ? encodeCursor(idOf.apply(last))
+					: encodeCursor(idOf.apply(last), sortValueOf.apply(last)));
+		}
+		return page;
+	}
+
+	/**
+	 * Merges two keyset pages read in the same order from tables a row can move between, such as
+	 * a hot table and its archive. Reading the source before the destination means a moving row
+	 * can only show up twice, never not at all; it is kept once. Returns at most {@code limit} rows.
+	 */
+	public static <T> List<T> mergeKeysetRows(List<T> first, List<T> second, Comparator<? super T> order,
+			Function<T, Long> idOf, int limit) {
+		if (second.isEmpty()) {
+			return first;
+		}
+		List<T> all = new ArrayList<>(first.size() + second.size());
+		all.addAll(first);
+		all.addAll(second);
+		all.sort(order);
+		Set<Long> seen = new HashSet<>();
+		List<T> merged = new ArrayList<>(Math.min(limit, all.size()));
+		for (T row : all) {
+			if (merged.size() == limit) {
+				break;
+			}
+			if (seen.add(idOf.apply(row))) {
+				merged.add(row);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Identifies this process in claims and leases shared by the replicas: the host name, which
+	 * makes it readable in the tables, plus a random suffix, which keeps a restarted pod apart
+	 * from its previous instance.
+	 */
+	public static String newOwnerId() {
+		String hostName;
+		try {
+			hostName = InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			hostName = "unknown";
+		}
+		return hostName + "-" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
 }
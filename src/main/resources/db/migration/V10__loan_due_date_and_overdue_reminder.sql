@@ -0,0 +1,40 @@
+-- Loans get a due date; open loans are backfilled with the default loan period of 14 days
+-- (CommonConstant.LOAN_PERIOD_DAYS). Returned loans are left null, they are never overdue.
+alter table borrow_book_history add column due_date datetime(6) null;
+update borrow_book_history set due_date = timestampadd(DAY, 14, borrow_date) where borrow_status = false;
+
+-- The overdue job walks open loans in (due_date, id) order. Leading with borrow_status keeps
+-- returned loans, the bulk of the table, out of the range; book and borrower ids make the
+-- index covering, so a chunk never touches the table rows.
+create index idx_bbh_status_due_date on borrow_book_history (borrow_status, due_date, id, book_id, borrower_id);
+
+-- One reminder per overdue loan and nightly run.
+create table overdue_reminder (
+    id bigint not null auto_increment,
+    history_id bigint not null,
+    book_id bigint not null,
+    borrower_id bigint not null,
+    due_date datetime(6) not null,
+    run_date date not null,
+    created_date timestamp,
+    primary key (id),
+    constraint uk_overdue_reminder_run unique (history_id, run_date)
+);
+
+-- Progress of a batch job's current run. A chunk's output and its checkpoint commit together,
+-- so an interrupted run resumes after the last committed chunk without duplicates; owner and
+-- heartbeat keep a second replica from running or resuming it concurrently.
+create table job_checkpoint (
+    job_name varchar(64) not null,
+    owner varchar(128),
+    heartbeat timestamp,
+    run_date date,
+    cutoff datetime(6),
+    last_due_date datetime(6),
+    last_id bigint not null,
+    processed bigint not null,
+    status varchar(16) not null,
+    primary key (job_name)
+);
+
+insert into job_checkpoint (job_name, last_id, processed, status) values ('overdue-reminder', 0, 0, 'DONE');
@@ -0,0 +1,27 @@
+-- Returned loans past the retention move here in batches, so borrow_book_history keeps only open
+-- and recent loans and its indexes stay in the buffer pool. Rows keep their history id; nothing
+-- references them, so there are no foreign keys.
+-- borrow_month (yyyymm of the borrow date) is part of the primary key, so on MySQL the table can be
+-- range partitioned by month without changing any key:
+--   alter table borrow_book_history_archive partition by range (borrow_month) (...)
+create table borrow_book_history_archive (
+    id bigint not null,
+    borrow_month int not null,
+    created_date timestamp null,
+    updated_date timestamp null,
+    book_id bigint,
+    borrower_id bigint,
+    borrow_status bit,
+    borrow_date datetime(6),
+    return_date datetime(6),
+    due_date datetime(6),
+    archived_date timestamp null,
+    primary key (id, borrow_month)
+);
+
+-- The history APIs read the archive with the same filters as the hot table.
+create index idx_bbh_borrower_archive on borrow_book_history_archive (borrower_id, id);
+create index idx_bbh_book_archive on borrow_book_history_archive (book_id, id);
+create index idx_bbh_borrow_date_archive on borrow_book_history_archive (borrow_date, id);
+
+insert into job_checkpoint (job_name, last_id, processed, status) values ('history-archive', 0, 0, 'DONE');
@@ -0,0 +1,40 @@
+-- Pre-aggregated circulation counts for the /v1/stats endpoints, so analytics never scan
+-- borrow_book_history. Dimensions: TITLE (isbn), AUTHOR, BORROWER (id) and ALL (empty key).
+-- granularity is H (hour) or D (day); bucket_start is the start of the hour or day.
+create table circulation_rollup (
+    dimension varchar(16) not null,
+    dimension_key varchar(255) not null,
+    granularity char(1) not null,
+    bucket_start datetime not null,
+    borrow_count bigint not null,
+    return_count bigint not null,
+    primary key (dimension, dimension_key, granularity, bucket_start)
+);
+
+-- All-time counts per dimension key, plus HOUR_OF_DAY ('00' to '23'). The index serves the
+-- top lists as a backward range read of limit rows.
+create table circulation_total (
+    dimension varchar(16) not null,
+    dimension_key varchar(255) not null,
+    borrow_count bigint not null,
+    return_count bigint not null,
+    primary key (dimension, dimension_key)
+);
+
+create index idx_circulation_total_borrows on circulation_total (dimension, borrow_count, dimension_key);
+
+-- Id ranges of the history the backfill has counted; inserted in the range's transaction, so a
+-- range is counted once however often the backfill restarts or how many replicas run it.
+create table circulation_backfill_range (
+    range_start bigint not null,
+    created_date timestamp,
+    primary key (range_start)
+);
+
+-- Loans borrowed or returned before the cutoff (the start of the day of this migration) are
+-- counted by the backfill, later ones by the rollup consumer of the outbox. The consumer starts
+-- at the first event of that day, and last_id is the last event id it applied.
+insert into job_checkpoint (job_name, cutoff, last_id, processed, status) values ('circulation-backfill', current_date, 0, 0, 'PENDING');
+insert into job_checkpoint (job_name, last_id, processed, status) values ('circulation-rollup', 0, 0, 'RUNNING');
+insert into outbox_relay (name, last_event_id)
+select 'stats', coalesce(min(case when created_date >= current_date then id end) - 1, max(id), 0) from outbox_event;
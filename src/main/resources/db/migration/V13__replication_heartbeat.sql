@@ -0,0 +1,10 @@
+-- Heartbeat for read replica lag. Application replicas stamp it on the primary every second
+-- (epoch millis of their clock) and read it back from each read replica: the value a read
+-- replica returns is the point up to which it has applied the primary's commits.
+create table replication_heartbeat (
+    id int not null,
+    beat bigint not null,
+    primary key (id)
+);
+
+insert into replication_heartbeat (id, beat) values (1, 0);
@@ -0,0 +1,19 @@
+-- Delivery order of the outbox. Ids are taken at insert, so concurrent transactions commit
+-- them out of order and a missing id says nothing about whether it will still commit. The
+-- relay stamps committed events with seq in the order it sees them, one replica at a time
+-- under the row lock of outbox_sequence, and relays deliver and checkpoint by seq: an event
+-- that commits late is stamped and delivered late instead of being skipped.
+alter table outbox_event add column seq bigint;
+
+-- events written so far keep their id as their position, matching the relay checkpoints
+update outbox_event set seq = id;
+
+create index idx_outbox_event_seq on outbox_event (seq);
+
+create table outbox_sequence (
+    id int not null,
+    last_seq bigint not null,
+    primary key (id)
+);
+
+insert into outbox_sequence (id, last_seq) select 1, coalesce(max(id), 0) from outbox_event;
@@ -0,0 +1,12 @@
+-- The heartbeat is stamped with the primary's clock (current_timestamp(3)) instead of the
+-- stamping application replica's, and never moves backwards. A client's last write is taken
+-- from the same clock, so comparing the two never mixes the clocks of different pods.
+drop table replication_heartbeat;
+
+create table replication_heartbeat (
+    id int not null,
+    beat timestamp(3) not null,
+    primary key (id)
+);
+
+insert into replication_heartbeat (id, beat) values (1, current_timestamp(3));
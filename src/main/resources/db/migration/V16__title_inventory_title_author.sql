@@ -0,0 +1,11 @@
+-- Title and author of each ISBN next to its copy counters. Registration upserts the row and
+-- compares them while it holds the row lock, so two replicas can never register one ISBN with
+-- different titles, whatever their in-process ISBN registries have seen so far. Null until
+-- known; the next registration of the ISBN fills them in.
+alter table title_inventory add column title varchar(255);
+
+alter table title_inventory add column author varchar(255);
+
+update title_inventory t
+set title = (select b.title from book b where b.isbn_number = t.isbn_number order by b.id limit 1),
+    author = (select b.author from book b where b.isbn_number = t.isbn_number order by b.id limit 1);
@@ -0,0 +1,6 @@
+-- V6 took the domain after the first '@', Borrower.setEmail takes it after the last one (a
+-- quoted local part may contain '@') and leaves it null without any. Only the rows where the
+-- two differ are rewritten; the greedy match strips everything up to the last '@'.
+update borrower
+set email_domain = case when locate('@', email) > 0 then lower(regexp_replace(email, '^.*@', '')) end
+where email not like '%@%' or email like '%@%@%';
@@ -0,0 +1,43 @@
+-- Schema as previously generated by hibernate ddl-auto=update.
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate),
+-- so this script only runs against an empty schema.
+
+create table book (
+    id bigint not null,
+    created_date timestamp null,
+    updated_date timestamp null,
+    isbn_number varchar(255) not null,
+    title varchar(255) not null,
+    author varchar(255) not null,
+    primary key (id)
+);
+
+create table borrower (
+    id bigint not null auto_increment,
+    created_date timestamp null,
+    updated_date timestamp null,
+    name varchar(255) not null,
+    email varchar(255) not null,
+    primary key (id),
+    constraint uk_borrower_email unique (email)
+);
+
+create table borrow_book_history (
+    id bigint not null auto_increment,
+    created_date timestamp null,
+    updated_date timestamp null,
+    book_id bigint,
+    borrower_id bigint,
+    borrow_status bit,
+    borrow_date datetime(6),
+    return_date datetime(6),
+    primary key (id),
+    constraint fk_bbh_book foreign key (book_id) references book (id),
+    constraint fk_bbh_borrower foreign key (borrower_id) references borrower (id)
+);
+
+create table id_generator (
+    gen_name varchar(255) not null,
+    gen_value bigint,
+    primary key (gen_name)
+);
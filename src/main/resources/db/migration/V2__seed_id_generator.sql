@@ -0,0 +1,12 @@
+-- book ids moved from IDENTITY to a pooled hi-lo generator. The pooled optimizer hands
+-- out (gen_value - 50, gen_value], so start one allocation block above the current max(id).
+
+create table if not exists id_generator (
+    gen_name varchar(255) not null,
+    gen_value bigint,
+    primary key (gen_name)
+);
+
+insert into id_generator (gen_name, gen_value)
+select 'book', coalesce(max(id), 0) + 50 from book
+where not exists (select 1 from id_generator where gen_name = 'book');
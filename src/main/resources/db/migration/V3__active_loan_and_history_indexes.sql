@@ -0,0 +1,28 @@
+-- Composite index serving both the (book_id, borrow_status) and the
+-- (book_id, borrower_id, borrow_status) lookups, plus one for per-borrower history.
+create index idx_bbh_book_status_borrower on borrow_book_history (book_id, borrow_status, borrower_id);
+create index idx_bbh_borrower_status on borrow_book_history (borrower_id, borrow_status);
+
+-- One row per currently borrowed copy. The primary key on book_id is what guarantees
+-- a copy cannot be lent twice; the borrow/return hot path only does primary key lookups here.
+create table active_loan (
+    book_id bigint not null,
+    history_id bigint not null,
+    borrower_id bigint not null,
+    borrow_date datetime(6),
+    primary key (book_id),
+    constraint uk_active_loan_history unique (history_id),
+    constraint fk_active_loan_book foreign key (book_id) references book (id),
+    constraint fk_active_loan_borrower foreign key (borrower_id) references borrower (id),
+    constraint fk_active_loan_history foreign key (history_id) references borrow_book_history (id)
+);
+
+-- Backfill from open loans; if a copy was ever double-lent keep the oldest loan.
+insert into active_loan (book_id, history_id, borrower_id, borrow_date)
+select h.book_id, h.id, h.borrower_id, h.borrow_date
+from borrow_book_history h
+where h.borrow_status = false
+  and h.book_id is not null
+  and h.borrower_id is not null
+  and h.id = (select min(h2.id) from borrow_book_history h2
+              where h2.book_id = h.book_id and h2.borrow_status = false);
@@ -0,0 +1,10 @@
+-- One version stamp per second-level cache region. A replica bumps it after committing a
+-- change to a cached entity; every replica polls it and evicts its local region on change.
+create table cache_version (
+    region varchar(64) not null,
+    version bigint not null,
+    primary key (region)
+);
+
+insert into cache_version (region, version) values ('book', 0);
+insert into cache_version (region, version) values ('borrower', 0);
@@ -0,0 +1,4 @@
+-- ISBN consistency checks look books up by isbn_number; the ISBN registry syncs
+-- books inserted by other replicas by created_date.
+create index idx_book_isbn_number on book (isbn_number);
+create index idx_book_created_date on book (created_date);
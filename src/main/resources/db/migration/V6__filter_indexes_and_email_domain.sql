@@ -0,0 +1,12 @@
+-- Borrowers are listed by email domain. A derived, indexed column keeps that an index
+-- lookup instead of a LIKE '%@domain' scan over every email.
+alter table borrower add column email_domain varchar(255) null;
+update borrower set email_domain = lower(substring(email, locate('@', email) + 1));
+create index idx_borrower_email_domain on borrower (email_domain, id);
+
+-- Filtered listings page by id within an author. An ISBN prefix and a borrow date window are
+-- ranges, so those listings page in (column, id) order, which these indexes serve directly.
+create index idx_book_author on book (author, id);
+alter table book drop index idx_book_isbn_number;
+create index idx_book_isbn_number on book (isbn_number, id);
+create index idx_bbh_borrow_date on borrow_book_history (borrow_date, id);
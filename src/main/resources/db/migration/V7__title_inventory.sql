@@ -0,0 +1,16 @@
+-- Copies per title (ISBN). Borrows and returns move available_copies with conditional
+-- updates, so "is this title available" is a primary key read instead of a scan of every
+-- copy, and the row lock taken by the update serializes borrows of the same title.
+create table title_inventory (
+    isbn_number varchar(255) not null,
+    total_copies int not null,
+    available_copies int not null,
+    primary key (isbn_number),
+    constraint ck_title_inventory_copies check (available_copies >= 0 and available_copies <= total_copies)
+);
+
+insert into title_inventory (isbn_number, total_copies, available_copies)
+select b.isbn_number, count(*), count(*) - count(a.book_id)
+from book b
+left join active_loan a on a.book_id = b.id
+group by b.isbn_number;
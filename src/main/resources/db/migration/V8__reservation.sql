@@ -0,0 +1,20 @@
+-- Waiting list per title. The queue is served in id order; a return hands its copy to the
+-- oldest WAITING reservation of the title in the same transaction, so no copy is ever free
+-- while someone is queued for it.
+create table reservation (
+    id bigint not null auto_increment,
+    isbn_number varchar(255) not null,
+    borrower_id bigint not null,
+    status varchar(16) not null,
+    book_id bigint,
+    history_id bigint,
+    created_date timestamp,
+    updated_date timestamp,
+    primary key (id),
+    constraint fk_reservation_title foreign key (isbn_number) references title_inventory (isbn_number),
+    constraint fk_reservation_borrower foreign key (borrower_id) references borrower (id)
+);
+
+-- head of a title's queue, and "is this borrower already queued"
+create index idx_reservation_queue on reservation (isbn_number, status, id);
+create index idx_reservation_borrower on reservation (borrower_id, status);
@@ -0,0 +1,22 @@
+-- Transactional outbox. Circulation events are inserted in the transaction that makes the
+-- change and a background relay delivers them in id order, so downstream systems see exactly
+-- the committed changes without their latency on the borrow and return path.
+create table outbox_event (
+    id bigint not null auto_increment,
+    event_type varchar(16) not null,
+    book_id bigint not null,
+    payload varchar(1024) not null,
+    created_date timestamp not null,
+    primary key (id)
+);
+
+-- One row per relay: which replica holds the lease and the last event id the sink accepted.
+create table outbox_relay (
+    name varchar(64) not null,
+    owner varchar(128),
+    lease_until timestamp,
+    last_event_id bigint not null,
+    primary key (name)
+);
+
+insert into outbox_relay (name, last_event_id) values ('default', 0);
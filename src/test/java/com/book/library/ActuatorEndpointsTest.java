@@ -0,0 +1,67 @@
+package com.book.library;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.book.library.repository.BookRepository;
+
+/**
+ * The probes library-app.yml points at exist, and the pool and repository timings reach the
+ * Prometheus scrape as histograms. The SQL profile, served on the application port, can only
+ * be read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class ActuatorEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void probes_AreUp() throws Exception {
+        mockMvc.perform(get("/actuator/health/liveness")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+        mockMvc.perform(get("/actuator/health/readiness")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    void prometheus_ExportsPoolAndRepositoryHistograms() throws Exception {
+        bookRepository.count();
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("hikaricp_connections_pending{")))
+                .andExpect(content().string(Matchers.containsString("hikaricp_connections_acquire_seconds_bucket{")))
+                .andExpect(content().string(Matchers.containsString("pool=\"primary\"")))
+                .andExpect(content().string(Matchers.matchesPattern(
+                        "(?s).*spring_data_repository_invocations_seconds_bucket\\{[^}]*method=\"count\".*")));
+    }
+
+    @Test
+    void sqlProfile_IsReadOnly() throws Exception {
+        mockMvc.perform(get("/actuator/sqlprofile/5")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleRate").value(0.0));
+        mockMvc.perform(post("/actuator/sqlprofile").contentType(MediaType.APPLICATION_JSON).content("{\"sampleRate\": 1}"))
+                .andExpect(status().isMethodNotAllowed());
+        mockMvc.perform(delete("/actuator/sqlprofile")).andExpect(status().isMethodNotAllowed());
+    }
+}
@@ -0,0 +1,127 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.PageDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.exception.ServiceUnavailableException;
+import com.book.library.repository.BookRepository;
+import com.book.library.service.impl.BookSearchServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path indexBaseDir;
+
+    private BookSearchServiceImpl bookSearchService;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchService = new BookSearchServiceImpl(bookRepository, transactionManager, 60000, indexBaseDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        bookSearchService.close();
+    }
+
+    @Test
+    void search_BeforeWarmUp_ThrowsServiceUnavailable() {
+        assertThrows(ServiceUnavailableException.class, () -> bookSearchService.search("java", null, 10));
+    }
+
+    @Test
+    void search_PrefixFuzzyAndIsbn() {
+        // Arrange
+        warmUp(new BookDTO(1L, "978-0-13-468599-1", "Effective Java", "Joshua Bloch"),
+                new BookDTO(2L, "978-0-59-600712-6", "Head First Design Patterns", "Eric Freeman"),
+                new BookDTO(3L, "978-0-13-235088-4", "Clean Code", "Robert Martin"));
+
+        // Act & Assert
+        assertEquals(List.of(1L), ids(bookSearchService.search("effect", null, 10)));
+        assertEquals(List.of(2L), ids(bookSearchService.search("desgin paterns", null, 10)));
+        assertEquals(List.of(3L), ids(bookSearchService.search("robert", null, 10)));
+        assertEquals(List.of(1L), ids(bookSearchService.search("9780134685991", null, 10)));
+        assertTrue(bookSearchService.search("kotlin", null, 10).getContent().isEmpty());
+    }
+
+    @Test
+    void search_TitleMatchRanksAboveAuthorMatch() {
+        // Arrange
+        warmUp(new BookDTO(1L, "978-1-00-000001-1", "Stories", "Martin Fowler"),
+                new BookDTO(2L, "978-1-00-000002-2", "Martin Eden", "Jack London"));
+
+        // Act
+        PageDTO<BookDTO> page = bookSearchService.search("martin", null, 10);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), ids(page));
+    }
+
+    @Test
+    void search_CursorWalksAllPagesOnce() {
+        // Arrange
+        warmUp(IntStream.rangeClosed(1, 25)
+                .mapToObj(i -> new BookDTO((long) i, "978-1-00-" + i, "Java Volume " + i, "Author"))
+                .toArray(BookDTO[]::new));
+        bookSearchService.index(List.of(new BookDTO(26L, "978-1-00-26", "Java Extra", "Author")));
+
+        // Act
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageDTO<BookDTO> page = bookSearchService.search("java", cursor, 10);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(26, seen.size());
+        assertEquals(26, seen.stream().distinct().count());
+    }
+
+    @Test
+    void search_InvalidInput_ThrowsBusinessException() {
+        warmUp();
+
+        assertThrows(BusinessException.class, () -> bookSearchService.search(" ", null, 10));
+        assertThrows(BusinessException.class, () -> bookSearchService.search("java", null, 0));
+        assertThrows(BusinessException.class, () -> bookSearchService.search("java", "not-a-cursor", 10));
+    }
+
+    private void warmUp(BookDTO... books) {
+        when(bookRepository.streamBookDTOs()).thenReturn(Stream.of(books));
+        bookSearchService.warmUp();
+        verify(bookRepository).streamBookDTOs();
+        verify(bookRepository, never()).findBookDTOsCreatedSince(any());
+    }
+
+    private static List<Long> ids(PageDTO<BookDTO> page) {
+        return page.getContent().stream().map(BookDTO::getId).toList();
+    }
+}
@@ -4,27 +4,54 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.ArrayList;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.ImportFormat;
 import com.book.library.dto.BookDTO;
+import com.book.library.dto.BulkRegisterResp;
+import com.book.library.dto.IsbnEntry;
+import com.book.library.dto.PageDTO;
+import com.book.library.dto.TitleAvailabilityDTO;
 import com.book.library.exception.BusinessException;
 import com.book.library.exception.ResourceNotFoundException;
 import com.book.library.model.Book;
 import com.book.library.model.Borrower;
 import com.book.library.repository.BookRepository;
 import com.book.library.repository.BorrowerRepository;
+import com.book.library.repository.TitleInventoryRepository;
+import com.book.library.service.BookSearchService;
+import com.book.library.service.IsbnRegistry;
+import com.book.library.service.OutboxService;
 import com.book.library.service.impl.BookServiceImpl;
+import com.book.library.utils.CommonUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceImplTest {
@@ -35,6 +62,30 @@ class BookServiceImplTest {
     @Mock
     private BorrowerRepository borrowerRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private IsbnRegistry isbnRegistry;
+
+    @Mock
+    private BookSearchService bookSearchService;
+
+    @Mock
+    private TitleInventoryRepository titleInventoryRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -94,6 +145,8 @@ class BookServiceImplTest {
                 savedBook.getCreatedDate() != null &&
                 savedBook.getUpdatedDate() != null
         ));
+        verify(bookSearchService).index(argThat(books -> books.size() == 1 && books.get(0).getId().equals(1L)));
+        verify(titleInventoryRepository, times(1)).addCopies("978-3-16-148410-0", "Test Book", "Test Author", 1);
     }
 
     @Test
@@ -243,6 +296,50 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findFirstByIsbnNumber(bookDTO.getIsbnNumber());
     }
 
+    @Test
+    void register_DefinitelyNewIsbn_SkipsDatabaseLookup() {
+        // Arrange
+        when(isbnRegistry.isDefinitelyNew(bookDTO.getIsbnNumber())).thenReturn(true);
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+
+        // Act
+        BookDTO result = bookService.register(bookDTO);
+
+        // Assert
+        assertEquals(1L, result.getId());
+        verify(bookRepository, never()).findFirstByIsbnNumber(anyString());
+        verify(isbnRegistry, times(1)).record(argThat(entry ->
+                entry.getIsbnNumber().equals("978-3-16-148410-0") && entry.getTitle().equals("Test Book")));
+    }
+
+    @Test
+    void checkISBNNumberAlreadyExist_CachedEntryDifferentTitle_ThrowsWithoutDatabaseLookup() {
+        // Arrange
+        when(isbnRegistry.getCached(bookDTO.getIsbnNumber()))
+                .thenReturn(Optional.of(new IsbnEntry("978-3-16-148410-0", "Different Title", "Test Author")));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> bookService.checkISBNNumberAlreadyExist(bookDTO)
+        );
+
+        assertTrue(exception.getMessage().contains("Multiple books with the same ISBN number must have same title"));
+        verify(bookRepository, never()).findFirstByIsbnNumber(anyString());
+    }
+
+    @Test
+    void checkISBNNumberAlreadyExist_CacheMiss_RecordsDatabaseResult() {
+        // Arrange
+        when(bookRepository.findFirstByIsbnNumber(bookDTO.getIsbnNumber())).thenReturn(Optional.of(book));
+
+        // Act
+        bookService.checkISBNNumberAlreadyExist(bookDTO);
+
+        // Assert
+        verify(isbnRegistry, times(1)).record(argThat(entry -> entry.getAuthor().equals("Test Author")));
+    }
+
     @Test
     void checkAndGetBorrower_ValidBorrowerId_ReturnsBorrower() {
         // Arrange
@@ -428,4 +525,201 @@ class BookServiceImplTest {
         // Act & Assert
         assertThrows(Exception.class, () -> bookService.checkISBNNumberAlreadyExist(newBookDTO));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBooks_FirstPage_ReturnsNextCursor() {
+        // Arrange
+        Book book2 = new Book();
+        book2.setId(2L);
+        book2.setIsbnNumber("978-3-16-148410-1");
+        book2.setTitle("Book Two");
+        book2.setAuthor("Author Two");
+
+        Book book3 = new Book();
+        book3.setId(3L);
+        book3.setIsbnNumber("978-3-16-148410-2");
+        book3.setTitle("Book Three");
+        book3.setAuthor("Author Three");
+
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(new ArrayList<>(Arrays.asList(book, book2, book3)));
+
+        // Act
+        PageDTO<BookDTO> result = bookService.getBooks(null, 2);
+
+        // Assert
+        assertEquals(2, result.getContent().size());
+        assertEquals(2, result.getNumberofElements());
+        assertEquals(1L, result.getContent().get(0).getId());
+        assertEquals(2L, result.getContent().get(1).getId());
+        assertEquals(2L, CommonUtils.decodeCursor(result.getNextCursor()));
+    }
+
+    @Test
+    void getBooks_LastPage_ReturnsNullCursor() {
+        // Arrange
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(new ArrayList<>(Arrays.asList(book)));
+
+        // Act
+        PageDTO<BookDTO> result = bookService.getBooks(CommonUtils.encodeCursor(0L), 2);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getBooks_InvalidPageSize_ThrowsBusinessException() {
+        assertThrows(BusinessException.class, () -> bookService.getBooks(null, 0));
+        assertThrows(BusinessException.class, () -> bookService.getBooks(null, 501));
+        verify(bookRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void getBooks_InvalidCursor_ThrowsBusinessException() {
+        assertThrows(BusinessException.class, () -> bookService.getBooks("not-a-cursor", 10));
+    }
+
+    @Test
+    void streamAllBooks_DetachesEveryBook() {
+        // Arrange
+        when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(book));
+        List<BookDTO> streamed = new ArrayList<>();
+
+        // Act
+        bookService.streamAllBooks(streamed::add);
+
+        // Assert
+        assertEquals(1, streamed.size());
+        assertEquals("Test Book", streamed.get(0).getTitle());
+        verify(entityManager, times(1)).detach(book);
+    }
+
+    @Test
+    void registerBulk_ReportsInvalidRowsAndSavesTheRest() {
+        // Arrange
+        Book existingBook = new Book();
+        existingBook.setId(2L);
+        existingBook.setIsbnNumber("978-3-16-148410-0");
+        existingBook.setTitle("Test Book");
+        existingBook.setAuthor("Test Author");
+
+        BookDTO sameTitle = new BookDTO(null, "978-3-16-148410-0", "Test Book", "Test Author");
+        BookDTO conflictingTitle = new BookDTO(null, "978-3-16-148410-0", "Other Title", "Test Author");
+        BookDTO missingAuthor = new BookDTO(null, "978-3-16-148410-9", "New Book", "");
+        BookDTO newIsbn = new BookDTO(null, "978-3-16-148410-5", "New Book", "New Author");
+        BookDTO newIsbnConflict = new BookDTO(null, "978-3-16-148410-5", "New Book", "Another Author");
+
+        when(bookRepository.findFirstCopiesByIsbnNumberIn(anyCollection())).thenReturn(List.of(existingBook));
+
+        // Act
+        BulkRegisterResp result = bookService.registerBulk(
+                List.of(sameTitle, conflictingTitle, missingAuthor, newIsbn, newIsbnConflict));
+
+        // Assert
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(3, result.getFailedCount());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().contains("must have same title"));
+        assertEquals(3, result.getErrors().get(1).getRow());
+        assertEquals("Author must not be empty", result.getErrors().get(1).getMessage());
+        assertEquals(5, result.getErrors().get(2).getRow());
+        assertTrue(result.getErrors().get(2).getMessage().contains("must have same author"));
+
+        verify(bookRepository, times(1)).findFirstCopiesByIsbnNumberIn(anyCollection());
+        verify(bookRepository, times(1)).saveAll(argThat(books -> ((List<Book>) books).size() == 2));
+        verify(titleInventoryRepository, times(1)).addCopies("978-3-16-148410-0", "Test Book", "Test Author", 1);
+        verify(titleInventoryRepository, times(1)).addCopies("978-3-16-148410-5", "New Book", "New Author", 1);
+        verify(bookRepository, never()).findFirstByIsbnNumber(anyString());
+    }
+
+    @Test
+    void registerBulk_CsvUpload_SkipsHeaderAndReportsMalformedLines() {
+        // Arrange
+        String csv = "isbnNumber,title,author\n"
+                + "978-3-16-148410-7,\"Effective Java, 3rd Edition\",Joshua Bloch\n"
+                + "\n"
+                + "978-3-16-148410-8,\"Broken\n";
+        when(bookRepository.findFirstCopiesByIsbnNumberIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        // Act
+        BulkRegisterResp result = bookService.registerBulk(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        // Assert
+        assertEquals(2, result.getTotalRows());
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(4, result.getErrors().get(0).getRow());
+        verify(bookRepository, times(1)).saveAll(argThat(books ->
+                ((List<Book>) books).get(0).getTitle().equals("Effective Java, 3rd Edition")));
+    }
+
+    @Test
+    void registerBulk_NdjsonUpload_ChunksLargeImports() {
+        // Arrange
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            ndjson.append("{\"isbnNumber\":\"isbn-").append(i)
+                    .append("\",\"title\":\"Title\",\"author\":\"Author\"}\n");
+        }
+        ndjson.append("{not json}\n");
+        when(bookRepository.findFirstCopiesByIsbnNumberIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        // Act
+        BulkRegisterResp result = bookService.registerBulk(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(1201, result.getTotalRows());
+        assertEquals(1200, result.getSuccessCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(1201, result.getErrors().get(0).getRow());
+        verify(bookRepository, times(3)).findFirstCopiesByIsbnNumberIn(anyCollection());
+        verify(bookRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void registerBulk_RegistryAnswersAllIsbns_SkipsSetLookup() {
+        // Arrange
+        BookDTO newIsbn = new BookDTO(null, "978-3-16-148410-5", "New Book", "New Author");
+        BookDTO cachedConflict = new BookDTO(null, "978-3-16-148410-0", "Other Title", "Test Author");
+        when(isbnRegistry.isDefinitelyNew("978-3-16-148410-5")).thenReturn(true);
+        when(isbnRegistry.getCached("978-3-16-148410-0"))
+                .thenReturn(Optional.of(new IsbnEntry("978-3-16-148410-0", "Test Book", "Test Author")));
+
+        // Act
+        BulkRegisterResp result = bookService.registerBulk(List.of(newIsbn, cachedConflict));
+
+        // Assert
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        verify(bookRepository, never()).findFirstCopiesByIsbnNumberIn(anyCollection());
+        verify(isbnRegistry, times(1)).record(argThat(entry -> entry.getIsbnNumber().equals("978-3-16-148410-5")));
+    }
+
+    @Test
+    void getAvailability_LooksUpDistinctIsbns() {
+        // Arrange
+        when(titleInventoryRepository.findAvailability(Set.of("978-3-16-148410-0", "978-3-16-148410-5")))
+                .thenReturn(List.of(new TitleAvailabilityDTO("978-3-16-148410-0", 3, 1)));
+
+        // Act
+        List<TitleAvailabilityDTO> result = bookService.getAvailability(
+                List.of("978-3-16-148410-0", "978-3-16-148410-5", "978-3-16-148410-0"));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).getAvailableCopies());
+    }
+
+    @Test
+    void getAvailability_TooManyIsbns_ThrowsBusinessException() {
+        List<String> isbnNumbers = Collections.nCopies(CommonConstant.MAX_AVAILABILITY_ISBNS + 1, "978-3-16-148410-0");
+
+        assertThrows(BusinessException.class, () -> bookService.getAvailability(isbnNumbers));
+        verify(titleInventoryRepository, never()).findAvailability(anyCollection());
+    }
+}
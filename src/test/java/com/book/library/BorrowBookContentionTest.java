@@ -0,0 +1,197 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.exception.BusinessException;
+import com.book.library.model.Book;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BookRepository;
+import com.book.library.repository.BorrowBookHistoryRepository;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BorrowBookHistoryService;
+
+/**
+ * Hammers a handful of hot titles from 64 threads and checks that a copy never has
+ * more than one active loan. Also logs borrow/return throughput under contention.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowBookContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowBookContentionTest.class);
+
+    private static final int THREADS = 64;
+    private static final int HOT_TITLES = 4;
+    private static final long RUN_MILLIS = 2000;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BorrowBookHistoryRepository borrowBookHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> borrowerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < HOT_TITLES; i++) {
+            Book book = new Book();
+            book.setIsbnNumber("978-0-00-00000" + i);
+            book.setTitle("Hot Title " + i);
+            book.setAuthor("Hot Author");
+            book.setCreatedDate(LocalDateTime.now());
+            bookIds.add(bookRepository.save(book).getId());
+            jdbcTemplate.update("insert into title_inventory (isbn_number, total_copies, available_copies) values (?, 1, 1)",
+                    book.getIsbnNumber());
+        }
+        for (int i = 0; i < THREADS; i++) {
+            Borrower borrower = new Borrower();
+            borrower.setName("Borrower " + i);
+            borrower.setEmail("contention" + i + "@example.com");
+            borrowerIds.add(borrowerRepository.save(borrower).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from active_loan");
+        borrowBookHistoryRepository.deleteAll();
+        bookRepository.deleteAllById(bookIds);
+        borrowerRepository.deleteAllById(borrowerIds);
+        jdbcTemplate.update("delete from title_inventory where isbn_number like '978-0-00-00000%'");
+    }
+
+    @Test
+    void concurrentBorrows_OnlyOneLoanPerBook() throws Exception {
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(index -> {
+            try {
+                borrowBookHistoryService.borrowBook(request(bookIds.get(index % HOT_TITLES), borrowerIds.get(index)));
+                success.incrementAndGet();
+            } catch (BusinessException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(HOT_TITLES, success.get());
+        assertEquals(THREADS - HOT_TITLES, rejected.get());
+        for (Long bookId : bookIds) {
+            assertEquals(1, activeLoans(bookId));
+        }
+        assertEquals(0, availableCopies());
+    }
+
+    @Test
+    void borrowAndReturn_UnderContention_NeverDoubleLends() throws Exception {
+        AtomicLong cycles = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicInteger violations = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+
+        long start = System.nanoTime();
+        runConcurrently(index -> {
+            Long borrowerId = borrowerIds.get(index);
+            while (System.currentTimeMillis() < deadline) {
+                Long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(HOT_TITLES));
+                try {
+                    borrowBookHistoryService.borrowBook(request(bookId, borrowerId));
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                    continue;
+                }
+                if (activeLoans(bookId) != 1) {
+                    violations.incrementAndGet();
+                }
+                borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
+                cycles.incrementAndGet();
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        logger.info("{} threads on {} hot titles: {} borrow/return cycles/s, {} rejected borrows/s",
+                THREADS, HOT_TITLES, String.format("%.1f", cycles.get() / seconds),
+                String.format("%.1f", rejected.get() / seconds));
+        assertEquals(0, violations.get());
+        assertTrue(cycles.get() > 0);
+        for (Long bookId : bookIds) {
+            assertEquals(0, activeLoans(bookId));
+        }
+        assertEquals(HOT_TITLES, availableCopies());
+    }
+
+    private void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                ready.await();
+                task.accept(index);
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private int activeLoans(Long bookId) {
+        Integer openHistory = jdbcTemplate.queryForObject(
+                "select count(*) from borrow_book_history where book_id = ? and borrow_status = false",
+                Integer.class, bookId);
+        Integer activeLoan = jdbcTemplate.queryForObject(
+                "select count(*) from active_loan where book_id = ?", Integer.class, bookId);
+        // the projection must always agree with the history it is derived from
+        return openHistory.equals(activeLoan) ? openHistory : -1;
+    }
+
+    private int availableCopies() {
+        return jdbcTemplate.queryForObject("select sum(available_copies) from title_inventory "
+                + "where isbn_number like '978-0-00-00000%'", Integer.class);
+    }
+
+    private BorrowBookReq request(Long bookId, Long borrowerId) {
+        BorrowBookReq req = new BorrowBookReq();
+        req.setBookId(bookId);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+}
@@ -0,0 +1,129 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.model.Book;
+import com.book.library.model.BorrowBookHistory;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BookRepository;
+import com.book.library.repository.BorrowBookHistoryRepository;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BorrowBookHistoryService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks the fetch plan of each borrow history use case with Hibernate statistics: a plain
+ * load reads only the history row, existence checks load nothing and the DTO builds of a
+ * return get book and borrower from the same statement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowBookHistoryFetchPlanTest {
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowBookHistoryRepository borrowBookHistoryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long bookId;
+
+    private Long borrowerId;
+
+    private Long historyId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Book book = new Book();
+        book.setIsbnNumber("978-0-66-000001");
+        book.setTitle("Fetch Plan Title");
+        book.setAuthor("Fetch Plan Author");
+        book.setCreatedDate(LocalDateTime.now());
+        bookId = bookRepository.save(book).getId();
+        jdbcTemplate.update("insert into title_inventory (isbn_number, total_copies, available_copies) values (?, 1, 1)",
+                book.getIsbnNumber());
+        borrowerId = borrowerRepository.save(new Borrower(null, "Fetch Plan", "fetch@plan.example")).getId();
+        BorrowBookReq req = new BorrowBookReq();
+        req.setBookId(bookId);
+        req.setBorrowerId(borrowerId);
+        historyId = borrowBookHistoryService.borrowBook(req).getId();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from active_loan where book_id = ?", bookId);
+        jdbcTemplate.update("delete from borrow_book_history where id = ?", historyId);
+        borrowerRepository.deleteById(borrowerId);
+        bookRepository.deleteById(bookId);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", "978-0-66-000001");
+    }
+
+    @Test
+    void plainLoad_ReadsOnlyTheHistoryRow() {
+        transactionTemplate.executeWithoutResult(status -> {
+            BorrowBookHistory history = borrowBookHistoryRepository.findById(historyId).get();
+
+            assertEquals(bookId, history.getBook().getId());
+            assertEquals(borrowerId, history.getBorrower().getId());
+            assertFalse(Hibernate.isInitialized(history.getBook()));
+            assertFalse(Hibernate.isInitialized(history.getBorrower()));
+        });
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void existenceCheck_LoadsNoEntity() {
+        assertTrue(borrowerRepository.existsByEmail("fetch@plan.example"));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void returnBorrowBook_FetchesBookAndBorrowerWithTheHistory() {
+        BorrowBookHistoryDTO returned = borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
+
+        assertEquals("Fetch Plan Title", returned.getBookTitle());
+        assertEquals("Fetch Plan", returned.getBorrowerName());
+        assertTrue(returned.isBorrowStatus());
+        // no secondary select for either association
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+}
@@ -5,6 +5,8 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -13,17 +15,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import com.book.library.dto.BatchItemResp;
 import com.book.library.dto.BorrowBookHistoryDTO;
 import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.BorrowByIsbnReq;
 import com.book.library.exception.BusinessException;
 import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.model.ActiveLoan;
 import com.book.library.model.Book;
 import com.book.library.model.BorrowBookHistory;
 import com.book.library.model.Borrower;
+import com.book.library.repository.ActiveLoanRepository;
 import com.book.library.repository.BookRepository;
 import com.book.library.repository.BorrowBookHistoryRepository;
 import com.book.library.repository.BorrowerRepository;
+import com.book.library.repository.TitleInventoryRepository;
+import com.book.library.service.OutboxService;
+import com.book.library.service.ReservationService;
 import com.book.library.service.impl.BorrowBookHistoryServiceImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +49,18 @@ class BorrowBookHistoryServiceImplTest {
     @Mock
     private BorrowerRepository borrowerRepository;
 
+    @Mock
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Mock
+    private TitleInventoryRepository titleInventoryRepository;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private BorrowBookHistoryServiceImpl borrowBookHistoryService;
 
@@ -45,12 +68,16 @@ class BorrowBookHistoryServiceImplTest {
     private Borrower borrower;
     private BorrowBookReq borrowBookReq;
     private BorrowBookHistory borrowBookHistory;
+    private ActiveLoan activeLoan;
+
+    private static final String ISBN = "978-3-16-148410-0";
 
     @BeforeEach
     void setUp() {
         // Setup Book
         book = new Book();
         book.setId(1L);
+        book.setIsbnNumber(ISBN);
         book.setTitle("Test Book");
         book.setAuthor("Test Author");
 
@@ -74,6 +101,9 @@ class BorrowBookHistoryServiceImplTest {
         borrowBookHistory.setBorrowDate(LocalDateTime.now());
         borrowBookHistory.setCreatedDate(LocalDateTime.now());
         borrowBookHistory.setUpdatedDate(LocalDateTime.now());
+
+        // Setup ActiveLoan
+        activeLoan = new ActiveLoan(borrowBookHistory);
     }
 
     @Test
@@ -81,8 +111,8 @@ class BorrowBookHistoryServiceImplTest {
         // Arrange
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
-        when(borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE))
-                .thenReturn(Optional.empty());
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.empty());
+        when(titleInventoryRepository.takeCopies(ISBN, 1)).thenReturn(1);
         when(borrowBookHistoryRepository.save(any(BorrowBookHistory.class))).thenReturn(borrowBookHistory);
 
         // Act
@@ -97,9 +127,75 @@ class BorrowBookHistoryServiceImplTest {
 
         verify(bookRepository, times(1)).findById(1L);
         verify(borrowerRepository, times(1)).findById(1L);
-        verify(borrowBookHistoryRepository, times(1))
-                .findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE);
+        verify(activeLoanRepository, times(1)).findById(1L);
+        verify(titleInventoryRepository, times(1)).takeCopies(ISBN, 1);
         verify(borrowBookHistoryRepository, times(1)).save(any(BorrowBookHistory.class));
+        verify(activeLoanRepository, times(1)).saveAndFlush(argThat(loan ->
+                loan.getBookId().equals(1L) && loan.getHistoryId().equals(1L) && loan.getBorrowerId().equals(1L)));
+    }
+
+    @Test
+    void borrowBook_NoCopyLeftOnTitle_ThrowsBusinessException() {
+        // Arrange
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.empty());
+        when(titleInventoryRepository.takeCopies(ISBN, 1)).thenReturn(0);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> borrowBookHistoryService.borrowBook(borrowBookReq)
+        );
+
+        assertEquals("Another Borrower Already Borrowed the book.", exception.getMessage());
+        verify(borrowBookHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void borrowBookByIsbn_TakesCopyThenLendsFirstFreeCopy() {
+        // Arrange
+        when(titleInventoryRepository.takeCopies(ISBN, 1)).thenReturn(1);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findFreeCopies(ISBN, Limit.of(1))).thenReturn(List.of(book));
+        when(borrowBookHistoryRepository.save(any(BorrowBookHistory.class))).thenReturn(borrowBookHistory);
+
+        // Act
+        BorrowBookHistoryDTO result = borrowBookHistoryService.borrowBookByIsbn(isbnRequest(ISBN, 1L));
+
+        // Assert
+        assertEquals(1L, result.getBookId());
+        verify(activeLoanRepository, times(1)).saveAndFlush(argThat(loan -> loan.getBookId().equals(1L)));
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void borrowBookByIsbn_NoCopyAvailable_ThrowsBusinessException() {
+        // Arrange
+        when(titleInventoryRepository.takeCopies(ISBN, 1)).thenReturn(0);
+        when(titleInventoryRepository.existsById(ISBN)).thenReturn(true);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> borrowBookHistoryService.borrowBookByIsbn(isbnRequest(ISBN, 1L))
+        );
+
+        assertEquals("No copy of the book is available.", exception.getMessage());
+        verify(bookRepository, never()).findFreeCopies(anyString(), any());
+        verify(borrowBookHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void borrowBookByIsbn_UnknownIsbn_ThrowsResourceNotFoundException() {
+        // Arrange
+        when(titleInventoryRepository.takeCopies("978-0-00-000000", 1)).thenReturn(0);
+        when(titleInventoryRepository.existsById("978-0-00-000000")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> borrowBookHistoryService.borrowBookByIsbn(isbnRequest("978-0-00-000000", 1L)));
+        verify(borrowerRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -140,8 +236,8 @@ class BorrowBookHistoryServiceImplTest {
     @Test
     void borrowBook_AlreadyBorrowed_ThrowsBusinessException() {
         // Arrange
-        when(borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE))
-                .thenReturn(Optional.of(borrowBookHistory));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(activeLoan));
 
         // Act & Assert
         BusinessException exception = assertThrows(
@@ -150,16 +246,54 @@ class BorrowBookHistoryServiceImplTest {
         );
 
         assertEquals("Borrower Already Borrowed the book.", exception.getMessage());
-        verify(borrowBookHistoryRepository, times(1))
-                .findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE);
+        verify(activeLoanRepository, times(1)).findById(1L);
         verify(borrowBookHistoryRepository, never()).save(any());
     }
 
+    @Test
+    void borrowBook_BorrowedByAnotherBorrower_ThrowsBusinessException() {
+        // Arrange
+        activeLoan.setBorrowerId(2L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(activeLoan));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> borrowBookHistoryService.borrowBook(borrowBookReq)
+        );
+
+        assertEquals("Another Borrower Already Borrowed the book.", exception.getMessage());
+        verify(borrowerRepository, never()).findById(anyLong());
+        verify(borrowBookHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void borrowBook_ConcurrentBorrowWinsActiveLoan_ThrowsBusinessException() {
+        // Arrange
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.empty());
+        when(titleInventoryRepository.takeCopies(ISBN, 1)).thenReturn(1);
+        when(borrowBookHistoryRepository.save(any(BorrowBookHistory.class))).thenReturn(borrowBookHistory);
+        when(activeLoanRepository.saveAndFlush(any(ActiveLoan.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> borrowBookHistoryService.borrowBook(borrowBookReq)
+        );
+
+        assertEquals("Another Borrower Already Borrowed the book.", exception.getMessage());
+    }
+
     @Test
     void returnBorrowBook_Success() {
         // Arrange
-        when(borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE))
-                .thenReturn(Optional.of(borrowBookHistory));
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(activeLoan));
+        when(activeLoanRepository.deleteByHistoryIdIn(List.of(1L))).thenReturn(1);
+        when(borrowBookHistoryRepository.findWithBookAndBorrowerById(1L)).thenReturn(Optional.of(borrowBookHistory));
         when(borrowBookHistoryRepository.save(any(BorrowBookHistory.class))).thenReturn(borrowBookHistory);
 
         // Act
@@ -171,16 +305,17 @@ class BorrowBookHistoryServiceImplTest {
         assertNotNull(borrowBookHistory.getReturnDate());
         assertNotNull(borrowBookHistory.getUpdatedDate());
 
-        verify(borrowBookHistoryRepository, times(1))
-                .findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE);
+        verify(activeLoanRepository, times(1)).findById(1L);
+        verify(activeLoanRepository, times(1)).deleteByHistoryIdIn(List.of(1L));
         verify(borrowBookHistoryRepository, times(1)).save(borrowBookHistory);
+        verify(titleInventoryRepository, times(1)).releaseCopies(ISBN, 1);
+        verify(reservationService, times(1)).handOver(List.of(borrowBookHistory));
     }
 
     @Test
     void returnBorrowBook_BorrowRecordNotFound_ThrowsBusinessException() {
         // Arrange
-        when(borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE))
-                .thenReturn(Optional.empty());
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         BusinessException exception = assertThrows(
@@ -192,8 +327,24 @@ class BorrowBookHistoryServiceImplTest {
         assertTrue(exception.getMessage().contains("bookId=1"));
         assertTrue(exception.getMessage().contains("borrowerId=1"));
 
-        verify(borrowBookHistoryRepository, times(1))
-                .findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE);
+        verify(activeLoanRepository, times(1)).findById(1L);
+        verify(activeLoanRepository, never()).deleteByHistoryIdIn(any());
+        verify(borrowBookHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void returnBorrowBook_ConcurrentReturnClaimedLoan_ThrowsBusinessException() {
+        // Arrange
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(activeLoan));
+        when(activeLoanRepository.deleteByHistoryIdIn(List.of(1L))).thenReturn(0);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> borrowBookHistoryService.returnBorrowBook(1L, 1L)
+        );
+
+        assertTrue(exception.getMessage().contains("Borrow record not found"));
         verify(borrowBookHistoryRepository, never()).save(any());
     }
 
@@ -262,8 +413,8 @@ class BorrowBookHistoryServiceImplTest {
         // Arrange
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
-        when(borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE))
-                .thenReturn(Optional.empty());
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.empty());
+        when(titleInventoryRepository.takeCopies(ISBN, 1)).thenReturn(1);
         when(borrowBookHistoryRepository.save(any(BorrowBookHistory.class))).thenAnswer(invocation -> {
             BorrowBookHistory saved = invocation.getArgument(0);
             saved.setId(1L);
@@ -293,8 +444,9 @@ class BorrowBookHistoryServiceImplTest {
         historyToReturn.setBorrowStatus(Boolean.FALSE);
         historyToReturn.setBorrowDate(LocalDateTime.now().minusDays(1));
 
-        when(borrowBookHistoryRepository.findByBookIdAndBorrowerIdAndBorrowStatus(1L, 1L, Boolean.FALSE))
-                .thenReturn(Optional.of(historyToReturn));
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(activeLoan));
+        when(activeLoanRepository.deleteByHistoryIdIn(List.of(1L))).thenReturn(1);
+        when(borrowBookHistoryRepository.findWithBookAndBorrowerById(1L)).thenReturn(Optional.of(historyToReturn));
         when(borrowBookHistoryRepository.save(any(BorrowBookHistory.class))).thenReturn(historyToReturn);
 
         // Act
@@ -308,4 +460,109 @@ class BorrowBookHistoryServiceImplTest {
                 history.getUpdatedDate() != null
         ));
     }
-}
\ No newline at end of file
+
+    @Test
+    void borrowBooks_PreloadsOnceAndReportsPerItem() {
+        // Arrange
+        Book book2 = new Book();
+        book2.setId(2L);
+        book2.setIsbnNumber("978-0-00-000002");
+        book2.setTitle("Second Book");
+        Book book3 = new Book();
+        book3.setId(3L);
+        book3.setTitle("Third Book");
+        activeLoan.setBookId(3L);
+        activeLoan.setBorrowerId(2L);
+
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(book, book2, book3));
+        when(borrowerRepository.findAllById(anyIterable())).thenReturn(List.of(borrower));
+        when(activeLoanRepository.findAllById(anyIterable())).thenReturn(List.of(activeLoan));
+        when(titleInventoryRepository.takeCopies(anyString(), eq(1))).thenReturn(1);
+
+        List<BorrowBookReq> reqs = List.of(
+                request(1L, 1L),   // ok
+                request(1L, 1L),   // same book again in the batch
+                request(3L, 1L),   // borrowed by someone else
+                request(9L, 1L),   // unknown book
+                request(2L, 9L),   // unknown borrower
+                request(2L, 1L));  // ok
+
+        // Act
+        List<BatchItemResp> results = borrowBookHistoryService.borrowBooks(reqs);
+
+        // Assert
+        assertEquals(6, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertNotNull(results.get(0).getHistory());
+        assertEquals("Borrower Already Borrowed the book.", results.get(1).getMessage());
+        assertEquals("Another Borrower Already Borrowed the book.", results.get(2).getMessage());
+        assertEquals("Invalid Book", results.get(3).getMessage());
+        assertEquals("Invalid Borrower", results.get(4).getMessage());
+        assertTrue(results.get(5).isSuccess());
+        assertEquals(2L, results.get(5).getHistory().getBookId());
+
+        verify(bookRepository, times(1)).findAllById(anyIterable());
+        verify(borrowerRepository, times(1)).findAllById(anyIterable());
+        verify(activeLoanRepository, times(1)).findAllById(anyIterable());
+        verify(borrowBookHistoryRepository, times(1)).saveAll(argThat(histories -> ((List<BorrowBookHistory>) histories).size() == 2));
+        verify(activeLoanRepository, times(1)).saveAllAndFlush(argThat(loans -> ((List<ActiveLoan>) loans).size() == 2));
+        verify(titleInventoryRepository, times(1)).takeCopies(ISBN, 1);
+        verify(titleInventoryRepository, times(1)).takeCopies("978-0-00-000002", 1);
+        verify(bookRepository, never()).findById(anyLong());
+        verify(borrowBookHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void returnBorrowBooks_ReturnsMatchingLoansOnly() {
+        // Arrange
+        when(activeLoanRepository.findAllById(anyIterable())).thenReturn(List.of(activeLoan));
+        when(activeLoanRepository.deleteByHistoryIdIn(List.of(1L))).thenReturn(1);
+        when(borrowBookHistoryRepository.findWithBookAndBorrowerByIdIn(List.of(1L))).thenReturn(List.of(borrowBookHistory));
+
+        // Act
+        List<BatchItemResp> results = borrowBookHistoryService.returnBorrowBooks(
+                List.of(request(1L, 2L), request(1L, 1L), request(1L, 1L)));
+
+        // Assert
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getMessage().contains("Borrow record not found"));
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(1).getHistory().isBorrowStatus());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(borrowBookHistory.isBorrowStatus());
+        assertNotNull(borrowBookHistory.getReturnDate());
+        verify(borrowBookHistoryRepository, times(1)).saveAll(List.of(borrowBookHistory));
+    }
+
+    @Test
+    void returnBorrowBooks_ConcurrentReturn_ThrowsBusinessException() {
+        // Arrange
+        when(activeLoanRepository.findAllById(anyIterable())).thenReturn(List.of(activeLoan));
+        when(activeLoanRepository.deleteByHistoryIdIn(List.of(1L))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(BusinessException.class,
+                () -> borrowBookHistoryService.returnBorrowBooks(List.of(request(1L, 1L))));
+        verify(borrowBookHistoryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void borrowBooks_EmptyBatch_ThrowsBusinessException() {
+        assertThrows(BusinessException.class, () -> borrowBookHistoryService.borrowBooks(Collections.emptyList()));
+        verify(borrowBookHistoryRepository, never()).saveAll(any());
+    }
+
+    private BorrowByIsbnReq isbnRequest(String isbnNumber, Long borrowerId) {
+        BorrowByIsbnReq req = new BorrowByIsbnReq();
+        req.setIsbnNumber(isbnNumber);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+
+    private BorrowBookReq request(Long bookId, Long borrowerId) {
+        BorrowBookReq req = new BorrowBookReq();
+        req.setBookId(bookId);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+}
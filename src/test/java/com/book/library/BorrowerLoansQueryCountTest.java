@@ -0,0 +1,134 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.PageDTO;
+import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.model.Book;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BookRepository;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BorrowerService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Lists the loans of a borrower with one loan and of one with many, and checks with Hibernate
+ * statistics that both take the same number of statements and load no entity.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowerLoansQueryCountTest {
+
+    private static final int MANY = 40;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    private Long fewLoansBorrowerId;
+
+    private Long manyLoansBorrowerId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < MANY; i++) {
+            Book book = new Book();
+            book.setIsbnNumber("978-0-55-" + i);
+            book.setTitle("Loan Title " + i);
+            book.setAuthor("Loan Author");
+            book.setCreatedDate(LocalDateTime.now());
+            bookIds.add(bookRepository.save(book).getId());
+        }
+        fewLoansBorrowerId = borrowerRepository.save(new Borrower(null, "Few Loans", "few@loans.example")).getId();
+        manyLoansBorrowerId = borrowerRepository.save(new Borrower(null, "Many Loans", "many@loans.example")).getId();
+
+        insertLoan(bookIds.get(0), fewLoansBorrowerId, false);
+        for (int i = 0; i < MANY; i++) {
+            // every other loan has been returned
+            insertLoan(bookIds.get(i), manyLoansBorrowerId, i % 2 == 0);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from borrow_book_history where borrower_id in (?, ?)", fewLoansBorrowerId, manyLoansBorrowerId);
+        borrowerRepository.deleteAllById(List.of(fewLoansBorrowerId, manyLoansBorrowerId));
+        bookRepository.deleteAllById(bookIds);
+    }
+
+    @Test
+    void getLoans_QueryCountIndependentOfResultSize() {
+        long fewStatements = statementsFor(() -> assertEquals(1,
+                borrowerService.getLoans(fewLoansBorrowerId, null, null, 100).getNumberofElements()));
+        long manyStatements = statementsFor(() -> assertEquals(MANY,
+                borrowerService.getLoans(manyLoansBorrowerId, null, null, 100).getNumberofElements()));
+
+        assertEquals(fewStatements, manyStatements);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+
+    @Test
+    void getLoans_ActiveOnly_NewestFirstAcrossPages() {
+        PageDTO<BorrowBookHistoryDTO> first = borrowerService.getLoans(manyLoansBorrowerId, false, null, 15);
+        assertEquals(15, first.getNumberofElements());
+        assertNotNull(first.getNextCursor());
+        assertEquals(bookIds.get(MANY - 1), first.getContent().get(0).getBookId());
+        assertEquals("Many Loans", first.getContent().get(0).getBorrowerName());
+        assertFalse(first.getContent().stream().anyMatch(BorrowBookHistoryDTO::isBorrowStatus));
+
+        PageDTO<BorrowBookHistoryDTO> rest = borrowerService.getLoans(manyLoansBorrowerId, false, first.getNextCursor(), 15);
+        assertEquals(MANY / 2 - 15, rest.getNumberofElements());
+        assertNull(rest.getNextCursor());
+        assertTrue(rest.getContent().get(0).getId() < first.getContent().get(14).getId());
+    }
+
+    @Test
+    void getLoans_UnknownBorrower_NotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> borrowerService.getLoans(-1L, null, null, 10));
+    }
+
+    private long statementsFor(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void insertLoan(Long bookId, Long borrowerId, boolean returned) {
+        jdbcTemplate.update("insert into borrow_book_history (book_id, borrower_id, borrow_status, borrow_date, return_date) "
+                + "values (?, ?, ?, ?, ?)", bookId, borrowerId, returned, LocalDateTime.now(),
+                returned ? LocalDateTime.now() : null);
+    }
+}
@@ -0,0 +1,203 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.ChangeFeedService;
+import com.book.library.service.OutboxService;
+
+/**
+ * Subscribes to /v1/book/changes over a real connection: changes the outbox relay reads
+ * arrive in seq order, a reconnect with Last-Event-ID replays what was missed, and an unknown
+ * offset or a subscriber that falls too far behind gets RESET.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "library.feed.buffer-size=32",
+        "library.feed.max-lag=8" })
+@ActiveProfiles("test")
+class ChangeFeedTest {
+
+    private static final String ISBN = "978-0-44-000001";
+
+    private static final String END = "<end of stream>";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final List<Stream<String>> streams = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // publish what earlier tests left in the outbox before anyone subscribes
+        outboxService.relay();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streams.forEach(Stream::close);
+        jdbcTemplate.update("delete from active_loan where book_id in (select id from book where isbn_number = ?)", ISBN);
+        jdbcTemplate.update("delete from borrow_book_history where book_id in (select id from book where isbn_number = ?)", ISBN);
+        jdbcTemplate.update("delete from book where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from outbox_event where payload like ?", "%" + ISBN + "%");
+        // hand the relay leases back for the next test context
+        jdbcTemplate.update("update outbox_relay set owner = null, lease_until = null");
+        jdbcTemplate.update("delete from borrower where email = 'feed@example.com'");
+    }
+
+    @Test
+    void committedChanges_ArriveInOrder_AndResumeFromLastEventId() throws Exception {
+        BlockingQueue<String> live = subscribe(null);
+        Long bookId = bookService.register(new BookDTO(null, ISBN, "Feed Title", "Feed Author")).getId();
+        Long borrowerId = borrowerRepository.save(new Borrower(null, "Feed", "feed@example.com")).getId();
+        BorrowBookReq req = new BorrowBookReq();
+        req.setBookId(bookId);
+        req.setBorrowerId(borrowerId);
+        borrowBookHistoryService.borrowBook(req);
+        borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
+        outboxService.relay();
+
+        Map<String, String> registered = nextEvent(live);
+        Map<String, String> borrowed = nextEvent(live);
+        Map<String, String> returned = nextEvent(live);
+        assertEquals("REGISTERED", registered.get("event"));
+        assertEquals("BORROWED", borrowed.get("event"));
+        assertEquals("RETURNED", returned.get("event"));
+        assertTrue(borrowed.get("data").contains("\"bookId\":" + bookId));
+        assertTrue(borrowed.get("data").contains("\"borrowerId\":" + borrowerId));
+        assertTrue(Long.parseLong(registered.get("id")) < Long.parseLong(borrowed.get("id")));
+
+        BlockingQueue<String> resumed = subscribe(registered.get("id"));
+        assertEquals(borrowed, nextEvent(resumed));
+        assertEquals(returned, nextEvent(resumed));
+    }
+
+    @Test
+    void unknownOffset_GetsReset() throws Exception {
+        Map<String, String> reset = nextEvent(subscribe("0-42"));
+
+        assertEquals("RESET", reset.get("event"));
+        assertNotNull(reset.get("id"));
+    }
+
+    @Test
+    void subscriberTooFarBehind_IsResetAndDisconnected() throws Exception {
+        BlockingQueue<String> lagging = subscribe(null);
+        bookService.registerBulk(Collections.nCopies(20, new BookDTO(null, ISBN, "Feed Title", "Feed Author")));
+        // one relay run publishes all 20 before the subscriber can drain anything past max-lag
+        outboxService.relay();
+
+        assertEquals("RESET", nextEvent(lagging).get("event"));
+        assertEquals(END, lagging.poll(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Opens a stream and returns its lines as they arrive, once the server has registered it.
+     */
+    private BlockingQueue<String> subscribe(String lastEventId) throws Exception {
+        int before = changeFeedService.getSubscriberCount();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/book/changes"));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines()).thenAccept(response -> {
+            Stream<String> body = response.body();
+            streams.add(body);
+            new Thread(() -> {
+                try {
+                    body.forEach(lines::add);
+                } catch (RuntimeException e) {
+                    // closed by the test
+                }
+                lines.add(END);
+            }).start();
+        });
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (changeFeedService.getSubscriberCount() <= before && lastEventId == null) {
+            assertTrue(System.currentTimeMillis() < deadline, "subscription not registered");
+            Thread.sleep(10);
+        }
+        return lines;
+    }
+
+    /**
+     * Next RESET or change of this test's title; other tests' changes sequenced by the same
+     * relay run are skipped.
+     */
+    private Map<String, String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        while (true) {
+            Map<String, String> event = nextAnyEvent(lines);
+            if ("RESET".equals(event.get("event")) || event.get("data").contains(ISBN)) {
+                return event;
+            }
+        }
+    }
+
+    private Map<String, String> nextAnyEvent(BlockingQueue<String> lines) throws InterruptedException {
+        Map<String, String> event = new HashMap<>();
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertNotNull(line, "no event within 10 seconds");
+            assertNotEquals(END, line);
+            if (line.isEmpty()) {
+                if (event.containsKey("event")) {
+                    return event;
+                }
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                event.put(line.substring(0, colon), line.substring(colon + 1));
+            }
+        }
+    }
+}
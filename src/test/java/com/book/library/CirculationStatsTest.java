@@ -0,0 +1,189 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.constant.ChangeEventType;
+import com.book.library.constant.StatsDimension;
+import com.book.library.constant.StatsGranularity;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.dto.StatsBucketDTO;
+import com.book.library.dto.StatsCountDTO;
+import com.book.library.dto.TitleUtilizationDTO;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.OutboxService;
+import com.book.library.service.StatsService;
+import com.book.library.service.impl.StatsOutboxSink;
+
+/**
+ * Loans reach the rollups through the outbox, once however often they are delivered, and the
+ * backfill counts the history before the rollup cutoff (the start of the day the tables were
+ * created, today in tests) once however often it runs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CirculationStatsTest {
+
+    private static final String ISBN = "978-0-33-000001";
+
+    private static final String AUTHOR = "Stats Author";
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private StatsOutboxSink statsOutboxSink;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long borrowerId;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // count what earlier tests left behind, so each test only sees its own loans move
+        outboxService.relay();
+        borrowerId = borrowerRepository.save(new Borrower(null, "Stats", "stats@example.com")).getId();
+        for (int i = 0; i < 2; i++) {
+            bookIds.add(bookService.register(new BookDTO(null, ISBN, "Stats Title", AUTHOR)).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("update job_checkpoint set status = 'PENDING' where job_name = 'circulation-backfill'");
+        jdbcTemplate.update("delete from circulation_backfill_range");
+        jdbcTemplate.update("delete from circulation_rollup where dimension_key in (?, ?, ?)", ISBN, AUTHOR, borrowerId.toString());
+        jdbcTemplate.update("delete from circulation_total where dimension_key in (?, ?, ?)", ISBN, AUTHOR, borrowerId.toString());
+        jdbcTemplate.update("delete from borrow_book_history_archive where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from active_loan where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from borrow_book_history where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from book where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", ISBN);
+        borrowerRepository.deleteById(borrowerId);
+    }
+
+    @Test
+    void loans_ReachRollupsThroughOutbox_OnceEach() {
+        long hourBefore = borrowsInHour(LocalDateTime.now().getHour());
+        borrowBookHistoryService.borrowBook(request(bookIds.get(0)));
+        borrowBookHistoryService.borrowBook(request(bookIds.get(1)));
+        borrowBookHistoryService.returnBorrowBook(bookIds.get(0), borrowerId);
+
+        outboxService.relay();
+
+        assertEquals(new StatsCountDTO(ISBN, 2, 1), topEntry(StatsDimension.TITLE, ISBN));
+        assertTrue(statsService.getTop(StatsDimension.TITLE, 1).get(0).getBorrowCount() >= 2);
+        assertEquals(new StatsCountDTO(AUTHOR, 2, 1), topEntry(StatsDimension.AUTHOR, AUTHOR));
+        assertEquals(new StatsCountDTO(borrowerId.toString(), 2, 1), topEntry(StatsDimension.BORROWER, borrowerId.toString()));
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        List<StatsBucketDTO> days = statsService.getSeries(StatsDimension.TITLE, ISBN, StatsGranularity.DAY,
+                today.minusDays(6), today.plusDays(1));
+        assertEquals(List.of(new StatsBucketDTO(today, 2, 1)), days);
+        assertTrue(borrowsInHour(LocalDateTime.now().getHour()) >= hourBefore + 2);
+
+        TitleUtilizationDTO utilization = statsService.getTitleUtilization(ISBN, 7);
+        assertEquals(1, utilization.getCopiesOnLoan());
+        assertEquals(0.5, utilization.getUtilization());
+        assertEquals(1.0, utilization.getBorrowsPerCopy());
+
+        // a relay that lost its lease after the sink accepted the batch delivers it again
+        List<OutboxEventDTO> events = jdbcTemplate.query("select id, seq, event_type, book_id, payload, created_date"
+                + " from outbox_event where book_id in (?, ?) order by seq",
+                (rs, rowNum) -> new OutboxEventDTO(rs.getLong(1), rs.getLong(2),
+                        ChangeEventType.valueOf(rs.getString(3)), rs.getLong(4),
+                        rs.getString(5), rs.getTimestamp(6).toLocalDateTime()),
+                bookIds.get(0), bookIds.get(1));
+        statsOutboxSink.publish(events);
+        assertEquals(new StatsCountDTO(ISBN, 2, 1), topEntry(StatsDimension.TITLE, ISBN));
+    }
+
+    @Test
+    void backfill_CountsHistoryBeforeCutoff_Once() {
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(10, 0);
+        insertLoan("borrow_book_history", -1L, yesterday, yesterday.plusHours(2));
+        insertLoan("borrow_book_history", -2L, yesterday.plusHours(1), null);
+        insertLoan("borrow_book_history_archive", -3L, yesterday.minusDays(1), yesterday.minusDays(1).plusHours(3));
+
+        statsService.backfill();
+
+        assertEquals(new StatsCountDTO(ISBN, 3, 2), topEntry(StatsDimension.TITLE, ISBN));
+        assertEquals(List.of(new StatsBucketDTO(yesterday, 1, 0), new StatsBucketDTO(yesterday.plusHours(1), 1, 0),
+                new StatsBucketDTO(yesterday.plusHours(2), 0, 1)),
+                statsService.getSeries(StatsDimension.BORROWER, borrowerId.toString(), StatsGranularity.HOUR,
+                        yesterday, yesterday.plusDays(1)));
+        assertEquals("DONE", jdbcTemplate.queryForObject(
+                "select status from job_checkpoint where job_name = 'circulation-backfill'", String.class));
+
+        // a restarted backfill skips the ranges already counted
+        jdbcTemplate.update("update job_checkpoint set status = 'PENDING' where job_name = 'circulation-backfill'");
+        assertEquals(0, statsService.backfill());
+        assertEquals(new StatsCountDTO(ISBN, 3, 2), topEntry(StatsDimension.TITLE, ISBN));
+    }
+
+    @Test
+    void busiestHours_ListsEveryHour() {
+        List<StatsCountDTO> hours = statsService.getBusiestHours();
+
+        assertEquals(24, hours.size());
+        assertEquals("00", hours.get(0).getKey());
+        assertEquals("23", hours.get(23).getKey());
+    }
+
+    private StatsCountDTO topEntry(StatsDimension dimension, String key) {
+        return jdbcTemplate.query("select dimension_key, borrow_count, return_count from circulation_total"
+                + " where dimension = ? and dimension_key = ?",
+                (rs, rowNum) -> new StatsCountDTO(rs.getString(1), rs.getLong(2), rs.getLong(3)), dimension.name(), key)
+                .stream().findFirst().orElse(null);
+    }
+
+    private long borrowsInHour(int hour) {
+        return statsService.getBusiestHours().get(hour).getBorrowCount();
+    }
+
+    private void insertLoan(String table, Long id, LocalDateTime borrowDate, LocalDateTime returnDate) {
+        String columns = table.endsWith("archive") ? ", borrow_month" : "";
+        String values = table.endsWith("archive") ? ", 0" : "";
+        jdbcTemplate.update("insert into " + table + " (id, book_id, borrower_id, borrow_status, borrow_date, return_date"
+                + columns + ") values (?, ?, ?, ?, ?, ?" + values + ")",
+                id, bookIds.get(0), borrowerId, returnDate != null, borrowDate, returnDate);
+    }
+
+    private BorrowBookReq request(Long bookId) {
+        BorrowBookReq req = new BorrowBookReq();
+        req.setBookId(bookId);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+}
@@ -0,0 +1,66 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.book.library.config.LocalDateTimeJsonSerializer;
+import com.book.library.constant.CommonConstant;
+import com.book.library.constant.JsonDateFormat;
+import com.book.library.utils.CommonUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+class CommonUtilsTest {
+
+    private static final DateTimeFormatter STANDARD =
+            DateTimeFormatter.ofPattern(CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS, Locale.ENGLISH);
+
+    @Test
+    void formatLocalDateTime_StandardFormat_MatchesDateTimeFormatter() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 9, 0, 0, 7);
+        for (int hour = 0; hour < 24; hour++) {
+            LocalDateTime dateTime = start.plusHours(hour).plusMinutes(hour * 2L);
+            assertEquals(dateTime.format(STANDARD),
+                    CommonUtils.formatLocalDateTime(dateTime, CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS));
+        }
+    }
+
+    @Test
+    void formatLocalDateTime_YearOutsideFastPath_FallsBackToFormatter() {
+        LocalDateTime dateTime = LocalDateTime.of(12024, 6, 30, 23, 59, 59);
+
+        assertEquals(-1, CommonUtils.writeStandardDateTime(dateTime, new char[CommonUtils.STANDARD_DATE_TIME_LENGTH]));
+        assertEquals(dateTime.format(STANDARD),
+                CommonUtils.formatLocalDateTime(dateTime, CommonConstant.DATE_FORMAT_yyyymmdd_HHMMSS));
+    }
+
+    @Test
+    void getFormatter_SamePattern_ReturnsCachedInstance() {
+        assertSame(CommonUtils.getFormatter("yyyy/MM/dd"), CommonUtils.getFormatter("yyyy/MM/dd"));
+        assertEquals("2024/03/05", CommonUtils.formatLocalDateTime(LocalDateTime.of(2024, 3, 5, 1, 2), "yyyy/MM/dd"));
+    }
+
+    @Test
+    void localDateTimeJsonSerializer_EachFormat() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 5, 1, 15, 15, 0);
+
+        assertEquals("\"2024-05-01 03:15:00 PM\"", mapper(JsonDateFormat.LEGACY).writeValueAsString(dateTime));
+        assertEquals("\"2024-05-01T15:15:00\"", mapper(JsonDateFormat.ISO).writeValueAsString(dateTime));
+        assertEquals(String.valueOf(dateTime.toInstant(ZoneOffset.UTC).toEpochMilli()),
+                mapper(JsonDateFormat.EPOCH_MILLIS).writeValueAsString(dateTime));
+    }
+
+    private static ObjectMapper mapper(JsonDateFormat dateFormat) {
+        return JsonMapper.builder()
+                .addModule(new SimpleModule().addSerializer(LocalDateTime.class,
+                        new LocalDateTimeJsonSerializer(dateFormat, ZoneOffset.UTC)))
+                .build();
+    }
+}
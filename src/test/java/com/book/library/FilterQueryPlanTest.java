@@ -0,0 +1,222 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.BorrowerDTO;
+import com.book.library.dto.PageDTO;
+import com.book.library.model.Book;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BookRepository;
+import com.book.library.repository.BorrowBookHistoryRepository;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.BorrowerService;
+
+/**
+ * Runs each filter combination, records the SQL Hibernate sends and asks H2 for its plan:
+ * the filtered table has to be read through the expected index and no table is scanned.
+ * Criteria values are inlined as literals so the recorded SQL can be explained as is, and a
+ * few thousand unrelated rows make a primary key walk clearly the more expensive plan.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.book.library.FilterQueryPlanTest$RecordingStatementInspector",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline" })
+@ActiveProfiles("test")
+class FilterQueryPlanTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BorrowBookHistoryRepository borrowBookHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final long NOISE_ID = 1_000_000;
+    private static final int NOISE_ROWS = 3000;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> borrowerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into book (id, isbn_number, title, author) select ? + \"X\", "
+                + "'979-0-' || \"X\", 'Noise Title', 'Noise Author ' || mod(\"X\", 100) from system_range(1, ?)",
+                NOISE_ID, NOISE_ROWS);
+        jdbcTemplate.update("insert into borrower (id, name, email, email_domain) select ? + \"X\", 'Noise', "
+                + "'noise' || \"X\" || '@noise' || mod(\"X\", 100) || '.example', 'noise' || mod(\"X\", 100) || '.example' "
+                + "from system_range(1, ?)", NOISE_ID, NOISE_ROWS);
+        jdbcTemplate.update("insert into borrow_book_history (book_id, borrower_id, borrow_status, borrow_date) "
+                + "select ? + \"X\", ? + \"X\", true, dateadd('DAY', -\"X\", current_timestamp) from system_range(1, ?)",
+                NOISE_ID, NOISE_ID, NOISE_ROWS);
+        jdbcTemplate.execute("analyze");
+
+        for (int i = 0; i < 5; i++) {
+            Book book = new Book();
+            book.setIsbnNumber("978-9-99-00" + i);
+            book.setTitle("Filter Title " + i);
+            book.setAuthor(i < 3 ? "Filter Author" : "Other Author");
+            book.setCreatedDate(LocalDateTime.now());
+            bookIds.add(bookRepository.save(book).getId());
+            jdbcTemplate.update("insert into title_inventory (isbn_number, total_copies, available_copies) values (?, 1, 1)",
+                    book.getIsbnNumber());
+        }
+        borrowerIds.add(borrowerRepository.save(new Borrower(null, "Filter One", "one@Filter.example")).getId());
+        borrowerIds.add(borrowerRepository.save(new Borrower(null, "Filter Two", "two@other.example")).getId());
+        for (int i = 0; i < 3; i++) {
+            BorrowBookReq req = new BorrowBookReq();
+            req.setBookId(bookIds.get(i));
+            req.setBorrowerId(borrowerIds.get(0));
+            borrowBookHistoryService.borrowBook(req);
+        }
+        borrowBookHistoryService.returnBorrowBook(bookIds.get(0), borrowerIds.get(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from active_loan");
+        borrowBookHistoryRepository.deleteAllInBatch();
+        bookRepository.deleteAllById(bookIds);
+        borrowerRepository.deleteAllById(borrowerIds);
+        jdbcTemplate.update("delete from book where id > ?", NOISE_ID);
+        jdbcTemplate.update("delete from borrower where id > ?", NOISE_ID);
+        jdbcTemplate.update("delete from title_inventory where isbn_number like '978-9-99-%'");
+    }
+
+    @Test
+    void filterBooks_ByAuthorAndIsbnPrefix_UsesIndexes() {
+        PageDTO<BookDTO> byAuthor = readsThrough("idx_book_author", () -> bookService.filterBooks("Filter Author", null, null, 2));
+        assertEquals(List.of(bookIds.get(0), bookIds.get(1)), byAuthor.getContent().stream().map(BookDTO::getId).toList());
+        assertNotNull(byAuthor.getNextCursor());
+
+        PageDTO<BookDTO> next = readsThrough("idx_book_author", () -> bookService.filterBooks("Filter Author", null, byAuthor.getNextCursor(), 2));
+        assertEquals(List.of(bookIds.get(2)), next.getContent().stream().map(BookDTO::getId).toList());
+        assertNull(next.getNextCursor());
+
+        PageDTO<BookDTO> byPrefix = readsThrough("idx_book_isbn_number", () -> bookService.filterBooks(null, "978-9-99-", null, 3));
+        assertEquals(List.of("978-9-99-000", "978-9-99-001", "978-9-99-002"),
+                byPrefix.getContent().stream().map(BookDTO::getIsbnNumber).toList());
+
+        PageDTO<BookDTO> nextPrefix = readsThrough("idx_book_isbn_number", () -> bookService.filterBooks(null, "978-9-99-", byPrefix.getNextCursor(), 3));
+        assertEquals(List.of(bookIds.get(3), bookIds.get(4)), nextPrefix.getContent().stream().map(BookDTO::getId).toList());
+        assertNull(nextPrefix.getNextCursor());
+
+        PageDTO<BookDTO> both = readsThrough("idx_book_", () -> bookService.filterBooks("Other Author", "978-9-99-004", null, 10));
+        assertEquals(List.of(bookIds.get(4)), both.getContent().stream().map(BookDTO::getId).toList());
+    }
+
+    @Test
+    void filterHistory_EachFilter_UsesIndexes() {
+        Long borrowerId = borrowerIds.get(0);
+        assertEquals(3, readsThrough("bbh_borrower", () -> borrowBookHistoryService.filterHistory(
+                borrowerId, null, null, null, null, null, 10)).getNumberofElements());
+
+        PageDTO<BorrowBookHistoryDTO> open = readsThrough("bbh_borrower", () -> borrowBookHistoryService.filterHistory(
+                borrowerId, null, false, null, null, null, 10));
+        assertEquals(2, open.getNumberofElements());
+        assertEquals("Filter One", open.getContent().get(0).getBorrowerName());
+
+        PageDTO<BorrowBookHistoryDTO> byBook = readsThrough("bbh_book", () -> borrowBookHistoryService.filterHistory(
+                null, bookIds.get(0), true, null, null, null, 10));
+        assertEquals("Filter Title 0", byBook.getContent().get(0).getBookTitle());
+        assertNotNull(byBook.getContent().get(0).getReturnDate());
+
+        LocalDateTime now = LocalDateTime.now();
+        PageDTO<BorrowBookHistoryDTO> recent = readsThrough("idx_bbh_borrow_date", () -> borrowBookHistoryService.filterHistory(
+                null, null, null, now.minusHours(1), now.plusHours(1), null, 2));
+        assertEquals(2, recent.getNumberofElements());
+        PageDTO<BorrowBookHistoryDTO> rest = readsThrough("idx_bbh_borrow_date", () -> borrowBookHistoryService.filterHistory(
+                null, null, null, now.minusHours(1), now.plusHours(1), recent.getNextCursor(), 2));
+        assertEquals(1, rest.getNumberofElements());
+        assertNull(rest.getNextCursor());
+    }
+
+    @Test
+    void filterBorrowers_ByEmailDomain_UsesIndex() {
+        PageDTO<BorrowerDTO> borrowers = readsThrough("idx_borrower_email_domain", () -> borrowerService.filterBorrowers("@FILTER.example", null, 10));
+
+        assertEquals(1, borrowers.getNumberofElements());
+        assertEquals("one@Filter.example", borrowers.getContent().get(0).getEmail());
+    }
+
+    /**
+     * Runs the call, then EXPLAINs every select it issued. The first table in each plan
+     * must be accessed through an index whose name contains {@code index}.
+     */
+    private <T> T readsThrough(String index, Supplier<T> call) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        RecordingStatementInspector.recording = Thread.currentThread();
+        T result;
+        try {
+            result = call.get();
+        } finally {
+            RecordingStatementInspector.recording = null;
+        }
+        List<String> selects = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty());
+        for (String sql : selects) {
+            // only the row limit is still a bind parameter
+            Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + sql, args);
+            String text = plan.get(0).values().iterator().next().toString();
+            assertFalse(text.contains("tableScan"), "table scan in plan:\n" + text);
+            String firstAccess = text.substring(text.indexOf("/*"), text.indexOf("*/"));
+            assertTrue(firstAccess.contains(index), "expected " + index + " in plan:\n" + text);
+        }
+        return result;
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        // only the test's own statements, not those of the scheduled syncs running meanwhile
+        static volatile Thread recording;
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recording) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.PageDTO;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.BorrowerService;
+import com.book.library.service.HistoryArchiveService;
+
+/**
+ * Archives loans whose dates were moved into the past: only old returned loans leave the hot
+ * table, and the history and loans APIs still page through them together with the rest.
+ */
+@SpringBootTest(properties = "library.archive.chunk-size=2")
+@ActiveProfiles("test")
+class HistoryArchiveTest {
+
+    private static final String ISBN = "978-0-77-000001";
+
+    @Autowired
+    private HistoryArchiveService historyArchiveService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long borrowerId;
+
+    // loan history ids in borrow order; the first four are returned, the last one is open
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        borrowerId = borrowerRepository.save(new Borrower(null, "Archive", "archive@example.com")).getId();
+        for (int i = 0; i < 5; i++) {
+            Long bookId = bookService.register(new BookDTO(null, ISBN, "Archive Title", "Archive Author")).getId();
+            BorrowBookReq req = new BorrowBookReq();
+            req.setBookId(bookId);
+            req.setBorrowerId(borrowerId);
+            loanIds.add(borrowBookHistoryService.borrowBook(req).getId());
+            if (i < 4) {
+                borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // the first three were returned a year ago, the fourth just now
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("update borrow_book_history set borrow_date = ?, return_date = ? where id = ?",
+                    now.minusDays(400 - i), now.minusDays(390 - i), loanIds.get(i));
+        }
+        // borrowed before all of them and never returned
+        jdbcTemplate.update("update borrow_book_history set borrow_date = ? where id = ?", now.minusDays(450), loanIds.get(4));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("update job_checkpoint set owner = null, heartbeat = null, run_date = null, cutoff = null,"
+                + " last_id = 0, processed = 0, status = 'DONE' where job_name = 'history-archive'");
+        jdbcTemplate.update("delete from borrow_book_history_archive where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from active_loan where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from borrow_book_history where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from book where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", ISBN);
+        borrowerRepository.deleteById(borrowerId);
+    }
+
+    @Test
+    void run_MovesOnlyOldReturnedLoans_OncePerDay() {
+        assertEquals(3, historyArchiveService.archiveReturnedLoans());
+
+        assertEquals(loanIds.subList(0, 3), jdbcTemplate.queryForList(
+                "select id from borrow_book_history_archive where borrower_id = ? order by id", Long.class, borrowerId));
+        assertEquals(loanIds.subList(3, 5), jdbcTemplate.queryForList(
+                "select id from borrow_book_history where borrower_id = ? order by id", Long.class, borrowerId));
+        LocalDateTime borrowDate = jdbcTemplate.queryForObject("select borrow_date from borrow_book_history_archive where id = ?",
+                LocalDateTime.class, loanIds.get(0));
+        assertEquals(borrowDate.getYear() * 100 + borrowDate.getMonthValue(), jdbcTemplate.queryForObject(
+                "select borrow_month from borrow_book_history_archive where id = ?", Integer.class, loanIds.get(0)));
+
+        // today's run is done; firing again moves nothing
+        assertEquals(0, historyArchiveService.archiveReturnedLoans());
+    }
+
+    @Test
+    void loans_PageAcrossHotTableAndArchive() {
+        historyArchiveService.archiveReturnedLoans();
+
+        PageDTO<BorrowBookHistoryDTO> first = borrowerService.getLoans(borrowerId, null, null, 2);
+        PageDTO<BorrowBookHistoryDTO> second = borrowerService.getLoans(borrowerId, null, first.getNextCursor(), 2);
+        PageDTO<BorrowBookHistoryDTO> third = borrowerService.getLoans(borrowerId, null, second.getNextCursor(), 2);
+
+        assertEquals(List.of(loanIds.get(4), loanIds.get(3)), ids(first));
+        assertEquals(List.of(loanIds.get(2), loanIds.get(1)), ids(second));
+        assertEquals(List.of(loanIds.get(0)), ids(third));
+        assertNull(third.getNextCursor());
+        assertEquals("Archive Title", second.getContent().get(0).getBookTitle());
+        assertEquals(List.of(loanIds.get(4)), ids(borrowerService.getLoans(borrowerId, false, null, 10)));
+        assertEquals(List.of(loanIds.get(3), loanIds.get(2), loanIds.get(1), loanIds.get(0)),
+                ids(borrowerService.getLoans(borrowerId, true, null, 10)));
+    }
+
+    @Test
+    void history_FiltersAndPagesAcrossHotTableAndArchive() {
+        historyArchiveService.archiveReturnedLoans();
+
+        assertEquals(loanIds, ids(borrowBookHistoryService.filterHistory(borrowerId, null, null, null, null, null, 10)));
+        assertEquals(List.of(loanIds.get(4)),
+                ids(borrowBookHistoryService.filterHistory(borrowerId, null, false, null, null, null, 10)));
+
+        // in borrow date order, the open loan comes first and the recent return last
+        LocalDateTime from = LocalDateTime.now().minusDays(500);
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        PageDTO<BorrowBookHistoryDTO> first = borrowBookHistoryService.filterHistory(null, null, null, from, to, null, 2);
+        PageDTO<BorrowBookHistoryDTO> second = borrowBookHistoryService.filterHistory(null, null, null, from, to,
+                first.getNextCursor(), 2);
+        PageDTO<BorrowBookHistoryDTO> third = borrowBookHistoryService.filterHistory(null, null, null, from, to,
+                second.getNextCursor(), 2);
+
+        assertEquals(List.of(loanIds.get(4), loanIds.get(0)), ids(first));
+        assertEquals(List.of(loanIds.get(1), loanIds.get(2)), ids(second));
+        assertEquals(List.of(loanIds.get(3)), ids(third));
+        assertNull(third.getNextCursor());
+    }
+
+    private static List<Long> ids(PageDTO<BorrowBookHistoryDTO> page) {
+        return page.getContent().stream().map(BorrowBookHistoryDTO::getId).toList();
+    }
+}
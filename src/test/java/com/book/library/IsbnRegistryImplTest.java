@@ -0,0 +1,91 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.book.library.dto.IsbnEntry;
+import com.book.library.repository.BookRepository;
+import com.book.library.service.impl.IsbnRegistryImpl;
+
+@ExtendWith(MockitoExtension.class)
+class IsbnRegistryImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IsbnRegistryImpl isbnRegistry;
+
+    @BeforeEach
+    void setUp() {
+        isbnRegistry = new IsbnRegistryImpl(bookRepository, transactionManager, 1000, 0.01, 100, 60000);
+    }
+
+    @Test
+    void isDefinitelyNew_BeforeWarmUp_FallsThroughToDatabase() {
+        assertFalse(isbnRegistry.isDefinitelyNew("978-3-16-148410-0"));
+    }
+
+    @Test
+    void warmUp_KnownIsbnsCachedAndUnknownDefinitelyNew() {
+        // Arrange
+        when(bookRepository.count()).thenReturn(2L);
+        when(bookRepository.streamIsbnEntries()).thenReturn(Stream.of(
+                new IsbnEntry("978-3-16-148410-0", "Test Book", "Test Author"),
+                new IsbnEntry("978-3-16-148410-0", "Test Book", "Test Author"),
+                new IsbnEntry("978-3-16-148410-1", "Other Book", "Other Author")));
+
+        // Act
+        isbnRegistry.warmUp();
+
+        // Assert
+        assertFalse(isbnRegistry.isDefinitelyNew("978-3-16-148410-0"));
+        assertEquals("Other Book", isbnRegistry.getCached("978-3-16-148410-1").get().getTitle());
+        long definitelyNew = Stream.iterate(0, i -> i + 1).limit(1000)
+                .filter(i -> isbnRegistry.isDefinitelyNew("isbn-" + i)).count();
+        assertTrue(definitelyNew > 950, "false positive rate too high: " + (1000 - definitelyNew));
+    }
+
+    @Test
+    void syncRecent_AddsBooksInsertedByOtherReplicas() {
+        // Arrange
+        when(bookRepository.streamIsbnEntries()).thenReturn(Stream.empty());
+        isbnRegistry.warmUp();
+        when(bookRepository.findIsbnEntriesCreatedSince(any()))
+                .thenReturn(List.of(new IsbnEntry("978-3-16-148410-2", "Remote Book", "Remote Author")));
+
+        // Act
+        isbnRegistry.syncRecent();
+
+        // Assert
+        assertFalse(isbnRegistry.isDefinitelyNew("978-3-16-148410-2"));
+        assertTrue(isbnRegistry.getCached("978-3-16-148410-2").isPresent());
+    }
+
+    @Test
+    void record_OutsideTransaction_AddsImmediately() {
+        // Arrange
+        when(bookRepository.streamIsbnEntries()).thenReturn(Stream.empty());
+        isbnRegistry.warmUp();
+
+        // Act
+        isbnRegistry.record(new IsbnEntry("978-3-16-148410-3", "Local Book", "Local Author"));
+
+        // Assert
+        assertFalse(isbnRegistry.isDefinitelyNew("978-3-16-148410-3"));
+        assertEquals("Local Author", isbnRegistry.getCached("978-3-16-148410-3").get().getAuthor());
+    }
+}
@@ -1,13 +1,39 @@
 package com.book.library;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.ReservationDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class LibraryApplicationTests {
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void apiDates_LegacyOnlyInBorrowHistory() throws Exception {
+		LocalDateTime dateTime = LocalDateTime.of(2024, 5, 1, 15, 15, 0);
+		BorrowBookHistoryDTO history = new BorrowBookHistoryDTO();
+		history.setBorrowDate(dateTime);
+		ReservationDTO reservation = new ReservationDTO();
+		reservation.setCreatedDate(dateTime);
+
+		assertTrue(objectMapper.writeValueAsString(history).contains("\"borrowDate\":\"2024-05-01 03:15:00 PM\""));
+		assertTrue(objectMapper.writeValueAsString(reservation).contains("\"createdDate\":\"2024-05-01T15:15:00\""));
+	}
+
 }
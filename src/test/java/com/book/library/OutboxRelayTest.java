@@ -0,0 +1,173 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.constant.ChangeEventType;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.dto.OutboxEventDTO;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.OutboxService;
+import com.book.library.service.impl.InMemoryOutboxSink;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives the outbox relay against the in-memory sink: events of a copy arrive in commit
+ * order, an event committed late is still delivered, a failing sink gets the same events
+ * again, and only the lease holder relays.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    private static final String ISBN = "978-0-55-000001";
+
+    private static final SimpleMeterRegistry METERS = new SimpleMeterRegistry();
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    private Long borrowerId;
+
+    @BeforeAll
+    static void addRegistry() {
+        Metrics.globalRegistry.add(METERS);
+    }
+
+    @AfterAll
+    static void removeRegistry() {
+        Metrics.globalRegistry.remove(METERS);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // deliver what earlier tests left behind, so each test only sees its own events
+        outboxService.relay();
+        bookId = bookService.register(new BookDTO(null, ISBN, "Outbox Title", "Outbox Author")).getId();
+        borrowerId = borrowerRepository.save(new Borrower(null, "Outbox", "outbox@example.com")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sink.setAvailable(true);
+        jdbcTemplate.update("update outbox_relay set owner = null, lease_until = null");
+        jdbcTemplate.update("delete from outbox_event where id < 0");
+        jdbcTemplate.update("delete from active_loan where book_id = ?", bookId);
+        jdbcTemplate.update("delete from borrow_book_history where book_id = ?", bookId);
+        jdbcTemplate.update("delete from book where id = ?", bookId);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", ISBN);
+        borrowerRepository.deleteById(borrowerId);
+    }
+
+    @Test
+    void relay_DeliversCommittedEventsInOrder_AndClearsLag() {
+        borrowBookHistoryService.borrowBook(request());
+        borrowBookHistoryService.returnBorrowBook(bookId, borrowerId);
+
+        outboxService.relay();
+
+        List<OutboxEventDTO> events = eventsOfBook();
+        assertEquals(List.of(ChangeEventType.REGISTERED, ChangeEventType.BORROWED, ChangeEventType.RETURNED),
+                events.stream().map(OutboxEventDTO::getType).toList());
+        assertTrue(events.get(0).getId() < events.get(1).getId() && events.get(1).getId() < events.get(2).getId());
+        assertTrue(events.get(0).getSeq() < events.get(1).getSeq() && events.get(1).getSeq() < events.get(2).getSeq());
+        assertTrue(events.get(1).getPayload().contains("\"borrowerId\":" + borrowerId));
+        // ISO dates, whatever format the API responds in
+        assertTrue(events.get(1).getPayload().matches(".*\"occurredAt\":\"\\d{4}-\\d{2}-\\d{2}T.*"));
+        assertEquals(0, METERS.get("library.outbox.pending").tag("relay", "default").gauge().value());
+        assertEquals(0, METERS.get("library.outbox.lag").tag("relay", "default").gauge().value());
+    }
+
+    @Test
+    void eventCommittedAfterLaterIds_IsStillDelivered() {
+        outboxService.relay();
+        // an id taken before the checkpoint whose transaction only commits now
+        jdbcTemplate.update("insert into outbox_event (id, event_type, book_id, payload, created_date)"
+                + " values (-1, 'REGISTERED', ?, '{}', current_timestamp)", bookId);
+
+        outboxService.relay();
+
+        List<OutboxEventDTO> events = eventsOfBook();
+        assertEquals(2, events.size());
+        assertEquals(-1L, events.get(1).getId());
+        assertTrue(events.get(1).getSeq() > events.get(0).getSeq());
+        assertEquals(0, METERS.get("library.outbox.pending").tag("relay", "default").gauge().value());
+    }
+
+    @Test
+    void failingSink_KeepsCheckpoint_AndGetsEventsAgain() {
+        sink.setAvailable(false);
+        double failures = METERS.get("library.outbox.delivery.failures").counter().count();
+        borrowBookHistoryService.borrowBook(request());
+
+        outboxService.relay();
+
+        assertTrue(eventsOfBook().isEmpty());
+        assertEquals(failures + 1, METERS.get("library.outbox.delivery.failures").counter().count());
+        assertEquals(2, METERS.get("library.outbox.pending").tag("relay", "default").gauge().value());
+
+        sink.setAvailable(true);
+        outboxService.relay();
+
+        assertEquals(List.of(ChangeEventType.REGISTERED, ChangeEventType.BORROWED),
+                eventsOfBook().stream().map(OutboxEventDTO::getType).toList());
+    }
+
+    @Test
+    void otherReplicasLease_BlocksRelay_UntilItExpires() {
+        jdbcTemplate.update("update outbox_relay set owner = 'other-replica',"
+                + " lease_until = timestampadd(SECOND, 60, current_timestamp)");
+
+        outboxService.relay();
+        assertTrue(eventsOfBook().isEmpty());
+
+        jdbcTemplate.update("update outbox_relay set lease_until = timestampadd(SECOND, -1, current_timestamp)");
+        outboxService.relay();
+        assertEquals(List.of(ChangeEventType.REGISTERED), eventsOfBook().stream().map(OutboxEventDTO::getType).toList());
+    }
+
+    private List<OutboxEventDTO> eventsOfBook() {
+        return sink.getEvents().stream().filter(event -> event.getBookId().equals(bookId)).toList();
+    }
+
+    private BorrowBookReq request() {
+        BorrowBookReq req = new BorrowBookReq();
+        req.setBookId(bookId);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+}
@@ -0,0 +1,87 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.book.library.service.OverdueReminderService;
+
+/**
+ * Throughput harness for the nightly overdue job. Seeds a loan history where only a small
+ * share of the loans is still open and overdue, runs the job once and logs loans reminded
+ * per second, extrapolated to a 50M row history with the same open share.
+ *
+ * Opt-in: mvn test -Pload-test -Dtest=OverdueJobLoadTest [-Doverdue.rows=2000000 -Doverdue.open-percent=5]
+ * Runs on the in-memory test database by default; point spring.datasource.* at MySQL for
+ * realistic numbers.
+ */
+@Tag("load")
+class OverdueJobLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueJobLoadTest.class);
+
+    private static final int ROWS = Integer.getInteger("overdue.rows", 2_000_000);
+    private static final int OPEN_PERCENT = Integer.getInteger("overdue.open-percent", 5);
+    private static final long TARGET_ROWS = 50_000_000L;
+    private static final int SEED_BATCH = 10_000;
+
+    @Test
+    void measureOverdueRun() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class)
+                .profiles("test")
+                .properties("spring.main.web-application-type=none")
+                .run();
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            int open = seed(jdbcTemplate);
+
+            long started = System.nanoTime();
+            long reminded = context.getBean(OverdueReminderService.class).remindOverdueLoans();
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+            double perSecond = reminded / seconds;
+            double targetMinutes = TARGET_ROWS * OPEN_PERCENT / 100.0 / perSecond / 60;
+            logger.info("{} history rows, {} open and overdue : {} reminders in {} s, {} loans/s, ~{} min for {} rows",
+                    ROWS, open, reminded, String.format("%.1f", seconds), String.format("%.0f", perSecond),
+                    String.format("%.1f", targetMinutes), TARGET_ROWS);
+            assertEquals(open, reminded);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Inserts the history straight through JDBC; every open row is overdue, due dates spread
+     * over the last 90 days. Returns the number of open rows.
+     */
+    private int seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("insert into borrower (name, email, email_domain) values ('Load', 'overdue-load@example.com', 'example.com')");
+        Long borrowerId = jdbcTemplate.queryForObject("select id from borrower where email = 'overdue-load@example.com'", Long.class);
+        jdbcTemplate.update("insert into book (id, isbn_number, title, author) values (-1, '978-1-99-000001', 'Load Title', 'Load Author')");
+        LocalDateTime now = LocalDateTime.now();
+        int openEvery = 100 / OPEN_PERCENT;
+        for (int from = 0; from < ROWS; from += SEED_BATCH) {
+            List<Integer> batch = IntStream.range(from, Math.min(ROWS, from + SEED_BATCH)).boxed().toList();
+            jdbcTemplate.batchUpdate("insert into borrow_book_history (book_id, borrower_id, borrow_status, borrow_date, due_date)"
+                    + " values (-1, ?, ?, ?, ?)", batch, batch.size(), (ps, i) -> {
+                        LocalDateTime dueDate = now.minusMinutes(1 + i % (90 * 24 * 60));
+                        ps.setLong(1, borrowerId);
+                        ps.setBoolean(2, i % openEvery != 0);
+                        ps.setTimestamp(3, Timestamp.valueOf(dueDate.minusDays(14)));
+                        ps.setTimestamp(4, Timestamp.valueOf(dueDate));
+                    });
+        }
+        return (ROWS + openEvery - 1) / openEvery;
+    }
+}
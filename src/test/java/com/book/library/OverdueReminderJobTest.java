@@ -0,0 +1,163 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowBookHistoryDTO;
+import com.book.library.dto.BorrowBookReq;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.OverdueReminderService;
+
+/**
+ * Runs the overdue job over loans whose due dates were moved into the past: only open
+ * overdue loans are reminded, once per run, and an interrupted run resumes after its
+ * checkpoint.
+ */
+@SpringBootTest(properties = "library.overdue.chunk-size=2")
+@ActiveProfiles("test")
+class OverdueReminderJobTest {
+
+    private static final String ISBN = "978-0-66-000001";
+
+    @Autowired
+    private OverdueReminderService overdueReminderService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long borrowerId;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    // loan history ids, oldest due date first
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        borrowerId = borrowerRepository.save(new Borrower(null, "Overdue", "overdue@example.com")).getId();
+        for (int i = 0; i < 5; i++) {
+            Long bookId = bookService.register(new BookDTO(null, ISBN, "Overdue Title", "Overdue Author")).getId();
+            bookIds.add(bookId);
+            BorrowBookReq req = new BorrowBookReq();
+            req.setBookId(bookId);
+            req.setBorrowerId(borrowerId);
+            BorrowBookHistoryDTO loan = borrowBookHistoryService.borrowBook(req);
+            loanIds.add(loan.getId());
+        }
+        // four loans overdue by 5..2 days, the last one still due in the future
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("update borrow_book_history set due_date = ? where id = ?",
+                    LocalDateTime.now().minusDays(5 - i), loanIds.get(i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("update job_checkpoint set owner = null, heartbeat = null, run_date = null, cutoff = null,"
+                + " last_due_date = null, last_id = 0, processed = 0, status = 'DONE' where job_name = 'overdue-reminder'");
+        jdbcTemplate.update("delete from overdue_reminder where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from active_loan where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from borrow_book_history where borrower_id = ?", borrowerId);
+        jdbcTemplate.update("delete from book where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", ISBN);
+        borrowerRepository.deleteById(borrowerId);
+    }
+
+    @Test
+    void borrow_SetsDueDateAfterLoanPeriod() {
+        LocalDateTime dueDate = jdbcTemplate.queryForObject("select due_date from borrow_book_history where id = ?",
+                LocalDateTime.class, loanIds.get(4));
+        LocalDateTime borrowDate = jdbcTemplate.queryForObject("select borrow_date from borrow_book_history where id = ?",
+                LocalDateTime.class, loanIds.get(4));
+
+        assertEquals(borrowDate.plusDays(CommonConstant.LOAN_PERIOD_DAYS), dueDate);
+    }
+
+    @Test
+    void run_RemindsOpenOverdueLoansOnce() {
+        borrowBookHistoryService.returnBorrowBook(bookIds.get(1), borrowerId);
+
+        assertEquals(3, overdueReminderService.remindOverdueLoans());
+
+        assertEquals(List.of(loanIds.get(0), loanIds.get(2), loanIds.get(3)), remindedLoans());
+        // today's run is done; firing again writes nothing
+        assertEquals(0, overdueReminderService.remindOverdueLoans());
+        assertEquals(3, remindedLoans().size());
+    }
+
+    @Test
+    void interruptedRun_ResumesAfterCheckpoint() {
+        LocalDateTime firstDueDate = jdbcTemplate.queryForObject("select due_date from borrow_book_history where id = ?",
+                LocalDateTime.class, loanIds.get(0));
+        // a replica crashed after committing the chunk that ended with the first loan
+        jdbcTemplate.update("update job_checkpoint set owner = 'crashed-replica',"
+                + " heartbeat = timestampadd(SECOND, -3600, current_timestamp), run_date = current_date,"
+                + " cutoff = ?, last_due_date = ?, last_id = ?, processed = 1, status = 'RUNNING' where job_name = 'overdue-reminder'",
+                LocalDateTime.now(), firstDueDate, loanIds.get(0));
+
+        assertEquals(3, overdueReminderService.resumeInterruptedRun());
+
+        assertEquals(loanIds.subList(1, 4), remindedLoans());
+        assertEquals("DONE", jdbcTemplate.queryForObject(
+                "select status from job_checkpoint where job_name = 'overdue-reminder'", String.class));
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "select processed from job_checkpoint where job_name = 'overdue-reminder'", Long.class));
+    }
+
+    @Test
+    void runOwnedByLiveReplica_IsNotTakenOver() {
+        jdbcTemplate.update("update job_checkpoint set owner = 'live-replica', heartbeat = current_timestamp,"
+                + " run_date = current_date, cutoff = ?, last_id = 0, processed = 0, status = 'RUNNING'"
+                + " where job_name = 'overdue-reminder'",
+                LocalDateTime.now());
+
+        assertEquals(0, overdueReminderService.remindOverdueLoans());
+        assertTrue(remindedLoans().isEmpty());
+    }
+
+    @Test
+    void ownRunInProgress_IsNotResumedNextToItself() {
+        overdueReminderService.remindOverdueLoans();
+        String owner = jdbcTemplate.queryForObject("select owner from job_checkpoint where job_name = 'overdue-reminder'",
+                String.class);
+        // as seen by the resume check while this replica's run is between chunks
+        jdbcTemplate.update("update job_checkpoint set heartbeat = current_timestamp, last_id = 0, processed = 0,"
+                + " last_due_date = null, status = 'RUNNING' where job_name = 'overdue-reminder'");
+        jdbcTemplate.update("delete from overdue_reminder where borrower_id = ?", borrowerId);
+
+        assertEquals(0, overdueReminderService.resumeInterruptedRun());
+        assertTrue(remindedLoans().isEmpty());
+        assertEquals(owner, jdbcTemplate.queryForObject(
+                "select owner from job_checkpoint where job_name = 'overdue-reminder'", String.class));
+    }
+
+    private List<Long> remindedLoans() {
+        return jdbcTemplate.queryForList("select history_id from overdue_reminder where borrower_id = ? order by history_id",
+                Long.class, borrowerId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.book.library.config.PoolSizingValidator;
+
+class PoolSizingTest {
+
+    @Test
+    void maxPoolSize_FollowsCpuLimit() {
+        assertEquals(5, PoolSizingValidator.maxPoolSize(0.5, 10));
+        assertEquals(20, PoolSizingValidator.maxPoolSize(2, 10));
+        assertEquals(1, PoolSizingValidator.maxPoolSize(0.05, 10));
+    }
+
+    @Test
+    void validate_PoolLargerThanCpuLimitAllows_Fails() {
+        PoolSizingValidator.validate(5, 5, 10, 0.5);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> PoolSizingValidator.validate(20, 10, 10, 0.5));
+        assertTrue(e.getMessage().contains("exceeds 5"));
+        assertThrows(IllegalStateException.class, () -> PoolSizingValidator.validate(5, 8, 10, 0.5));
+    }
+
+    @Test
+    void parseCpuMax_ReadsCgroupQuota() {
+        assertEquals(0.5, PoolSizingValidator.parseCpuMax("50000 100000\n"));
+        assertNull(PoolSizingValidator.parseCpuMax("max 100000"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import jakarta.servlet.http.Cookie;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.config.ReadYourWritesContext;
+import com.book.library.config.ReadYourWritesFilter;
+import com.book.library.config.ReplicaRoutingDataSource;
+import com.book.library.dto.BookDTO;
+import com.book.library.service.BookService;
+
+/**
+ * Runs against two embedded databases, the second standing in for a read replica. Nothing
+ * replicates between them: a book only the read replica has shows which one answered, and the
+ * tests copy the heartbeat by hand to say how far the read replica has caught up.
+ */
+@SpringBootTest(properties = {
+        "library.datasource.replica-urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "library.datasource.replica-username=sa",
+        "library.datasource.replica-password=" })
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:library-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String ISBN_PREFIX = "978-0-34-";
+
+    private static final String REPLICA_ISBN = ISBN_PREFIX + "000001";
+
+    private static final String PRIMARY_ISBN = ISBN_PREFIX + "000002";
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        replica = new JdbcTemplate(dataSource);
+        replica.update("insert into book (id, isbn_number, title, author) values (-1, ?, 'Replica Title', 'Replica Author')",
+                REPLICA_ISBN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesContext.end();
+        replica.update("delete from book where isbn_number like ?", ISBN_PREFIX + "%");
+        jdbcTemplate.update("delete from book where isbn_number like ?", ISBN_PREFIX + "%");
+        jdbcTemplate.update("delete from title_inventory where isbn_number like ?", ISBN_PREFIX + "%");
+    }
+
+    @Test
+    void readOnlyTransactions_ReadFromCaughtUpReplica() {
+        replicateUntil(System.currentTimeMillis());
+
+        assertEquals(List.of(REPLICA_ISBN), isbns());
+        assertEquals(List.of(REPLICA_ISBN), bookService.getAllBooks().stream()
+                .map(BookDTO::getIsbnNumber)
+                .filter(isbn -> isbn.startsWith(ISBN_PREFIX))
+                .toList());
+        // read-write work stays on the primary
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from book where isbn_number = ?",
+                Integer.class, REPLICA_ISBN));
+    }
+
+    @Test
+    void laggingReplica_IsSkipped() {
+        replicateUntil(System.currentTimeMillis() - 60_000);
+
+        assertEquals(List.of(), isbns());
+    }
+
+    @Test
+    void ownWrite_ReadFromPrimaryUntilReplicaCaughtUp() {
+        replicateUntil(System.currentTimeMillis());
+        ReadYourWritesContext context = ReadYourWritesContext.begin(0);
+
+        bookService.register(new BookDTO(null, PRIMARY_ISBN, "Primary Title", "Primary Author"));
+
+        assertTrue(context.isWritten());
+        assertEquals(List.of(PRIMARY_ISBN), isbns());
+        replicateUntil(context.getLastWrite());
+        assertEquals(List.of(REPLICA_ISBN), isbns());
+    }
+
+    @Test
+    void lastWriteCookie_CarriesOwnWriteToNextRequest() throws Exception {
+        replicateUntil(System.currentTimeMillis());
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(5000);
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/v1/book/register"), writeResponse, (req, res) -> {
+            bookService.register(new BookDTO(null, PRIMARY_ISBN, "Primary Title", "Primary Author"));
+            res.getWriter().write("{}");
+        });
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+
+        MockHttpServletRequest readRequest = new MockHttpServletRequest("GET", "/v1/book/filter");
+        readRequest.setCookies(cookie);
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        filter.doFilter(readRequest, readResponse, (req, res) -> assertEquals(List.of(PRIMARY_ISBN), isbns()));
+        assertNull(readResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+
+        // a request without the cookie reads from the read replica
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/book/filter"), new MockHttpServletResponse(),
+                (req, res) -> assertEquals(List.of(REPLICA_ISBN), isbns()));
+    }
+
+    /**
+     * Makes the read replica report that it has applied the primary's commits up to the given time.
+     */
+    private void replicateUntil(long beat) {
+        replica.update("update replication_heartbeat set beat = ? where id = 1", new Timestamp(beat));
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    private List<String> isbns() {
+        return bookService.filterBooks(null, ISBN_PREFIX, null, 10).getContent().stream()
+                .map(BookDTO::getIsbnNumber)
+                .toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.book.library.config.RequestTraceFilter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * With a zero threshold every request is slow: it is counted per endpoint and logged with
+ * the statements it ran in the MDC, and the service method behind it is timed.
+ */
+@SpringBootTest(properties = "library.trace.slow-threshold-ms=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestTracingTest {
+
+    private static final SimpleMeterRegistry METERS = new SimpleMeterRegistry();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final Logger filterLogger = (Logger) LoggerFactory.getLogger(RequestTraceFilter.class);
+
+    @BeforeAll
+    static void addRegistry() {
+        Metrics.globalRegistry.add(METERS);
+    }
+
+    @AfterAll
+    static void removeRegistry() {
+        Metrics.globalRegistry.remove(METERS);
+    }
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        filterLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterLogger.detachAppender(appender);
+    }
+
+    @Test
+    void slowRequest_IsCountedAndLoggedWithItsStatements() throws Exception {
+        double slowBefore = slowCount("/v1/book/getall");
+
+        mockMvc.perform(get("/v1/book/getall")).andExpect(status().isOk());
+
+        assertEquals(slowBefore + 1, slowCount("/v1/book/getall"));
+        ILoggingEvent event = appender.list.stream()
+                .filter(e -> e.getFormattedMessage().contains("/v1/book/getall"))
+                .findFirst().orElseThrow();
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        assertNotNull(mdc.get(RequestTraceFilter.MDC_REQUEST_ID));
+        assertNotNull(mdc.get(RequestTraceFilter.MDC_DURATION));
+        assertTrue(Integer.parseInt(mdc.get(RequestTraceFilter.MDC_STATEMENT_COUNT)) >= 1);
+        assertTrue(mdc.get(RequestTraceFilter.MDC_STATEMENTS).contains("from book"));
+        assertTrue(METERS.get("library.request.statements").tag("uri", "/v1/book/getall").summary().count() >= 1);
+        assertTrue(METERS.get("library.service.invocations")
+                .tags("service", "BookServiceImpl", "method", "getAllBooks", "exception", "none")
+                .timer().count() >= 1);
+    }
+
+    @Test
+    void failingServiceCall_IsTimedWithItsException() throws Exception {
+        mockMvc.perform(get("/v1/stats/top").param("dimension", "ALL")).andExpect(status().isBadRequest());
+
+        assertEquals(1, METERS.get("library.service.invocations")
+                .tags("service", "StatsServiceImpl", "method", "getTop", "exception", "BusinessException")
+                .timer().count());
+    }
+
+    private double slowCount(String uri) {
+        var counter = METERS.find("library.request.slow").tag("uri", uri).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,157 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.constant.ReservationStatus;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.ReservationDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+import com.book.library.service.ReservationService;
+
+/**
+ * Queues borrowers for a single-copy title and checks that every return lends the copy to
+ * the oldest waiting reservation and wakes the client waiting on it, without any polling.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationQueueTest {
+
+    private static final String ISBN = "978-0-88-000001";
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> borrowerIds = new ArrayList<>();
+
+    private Long copyId;
+
+    @BeforeEach
+    void setUp() {
+        copyId = bookService.register(new BookDTO(null, ISBN, "Reserved Title", "Reserved Author")).getId();
+        for (int i = 0; i < 3; i++) {
+            borrowerIds.add(borrowerRepository.save(new Borrower(null, "Queued " + i, "queued" + i + "@example.com")).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from reservation where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from active_loan where borrower_id in (select id from borrower where email like 'queued%')");
+        jdbcTemplate.update("delete from borrow_book_history where borrower_id in (select id from borrower where email like 'queued%')");
+        jdbcTemplate.update("delete from book where isbn_number = ?", ISBN);
+        jdbcTemplate.update("delete from title_inventory where isbn_number = ?", ISBN);
+        borrowerRepository.deleteAllById(borrowerIds);
+    }
+
+    @Test
+    void returns_HandCopyToQueueInOrder_AndWakeWaiters() throws Exception {
+        borrowBookHistoryService.borrowBookByIsbn(request(borrowerIds.get(0)));
+        ReservationDTO first = reservationService.reserve(request(borrowerIds.get(1)));
+        ReservationDTO second = reservationService.reserve(request(borrowerIds.get(2)));
+        assertEquals(ReservationStatus.WAITING, first.getStatus());
+        assertEquals(1, first.getPosition());
+        assertEquals(2, second.getPosition());
+
+        CompletableFuture<ReservationDTO> firstChange = reservationService.awaitChange(first.getId());
+        CompletableFuture<ReservationDTO> secondChange = reservationService.awaitChange(second.getId());
+        borrowBookHistoryService.returnBorrowBook(copyId, borrowerIds.get(0));
+
+        ReservationDTO fulfilled = firstChange.get(5, TimeUnit.SECONDS);
+        assertEquals(ReservationStatus.FULFILLED, fulfilled.getStatus());
+        assertEquals(copyId, fulfilled.getBookId());
+        assertEquals(borrowerIds.get(1), jdbcTemplate.queryForObject(
+                "select borrower_id from active_loan where book_id = ?", Long.class, copyId));
+        assertFalse(secondChange.isDone());
+        assertEquals(1, reservationService.getReservation(second.getId()).getPosition());
+
+        borrowBookHistoryService.returnBorrowBook(copyId, borrowerIds.get(1));
+
+        assertEquals(ReservationStatus.FULFILLED, secondChange.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, bookService.getAvailability(List.of(ISBN)).get(0).getAvailableCopies());
+    }
+
+    @Test
+    void reserve_FreeCopy_LentAtOnce_ThenQueuesOnlyOnce() {
+        ReservationDTO immediate = reservationService.reserve(request(borrowerIds.get(0)));
+        assertEquals(ReservationStatus.FULFILLED, immediate.getStatus());
+        assertEquals(copyId, immediate.getBookId());
+        assertNull(immediate.getPosition());
+
+        ReservationDTO waiting = reservationService.reserve(request(borrowerIds.get(1)));
+        assertEquals(ReservationStatus.WAITING, waiting.getStatus());
+        assertThrows(BusinessException.class, () -> reservationService.reserve(request(borrowerIds.get(1))));
+        assertTrue(reservationService.awaitChange(immediate.getId()).isDone());
+    }
+
+    @Test
+    void cancel_WakesWaiter_AndLeavesQueue() throws Exception {
+        borrowBookHistoryService.borrowBookByIsbn(request(borrowerIds.get(0)));
+        ReservationDTO cancelled = reservationService.reserve(request(borrowerIds.get(1)));
+        ReservationDTO next = reservationService.reserve(request(borrowerIds.get(2)));
+        CompletableFuture<ReservationDTO> change = reservationService.awaitChange(cancelled.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.cancel(cancelled.getId(), borrowerIds.get(2)));
+        reservationService.cancel(cancelled.getId(), borrowerIds.get(1));
+
+        assertEquals(ReservationStatus.CANCELLED, change.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, reservationService.getReservation(next.getId()).getPosition());
+        assertThrows(BusinessException.class, () -> reservationService.cancel(cancelled.getId(), borrowerIds.get(1)));
+
+        borrowBookHistoryService.returnBorrowBook(copyId, borrowerIds.get(0));
+        assertEquals(ReservationStatus.FULFILLED, reservationService.getReservation(next.getId()).getStatus());
+    }
+
+    @Test
+    void dispatch_ServesQueue_WhenCopiesAreAdded() throws Exception {
+        borrowBookHistoryService.borrowBookByIsbn(request(borrowerIds.get(0)));
+        ReservationDTO waiting = reservationService.reserve(request(borrowerIds.get(1)));
+        CompletableFuture<ReservationDTO> change = reservationService.awaitChange(waiting.getId());
+
+        Long newCopyId = bookService.register(new BookDTO(null, ISBN, "Reserved Title", "Reserved Author")).getId();
+        assertFalse(change.isDone());
+        reservationService.dispatch();
+
+        ReservationDTO fulfilled = change.get(5, TimeUnit.SECONDS);
+        assertEquals(ReservationStatus.FULFILLED, fulfilled.getStatus());
+        assertEquals(newCopyId, fulfilled.getBookId());
+        assertEquals(0, bookService.getAvailability(List.of(ISBN)).get(0).getAvailableCopies());
+    }
+
+    private BorrowByIsbnReq request(Long borrowerId) {
+        BorrowByIsbnReq req = new BorrowByIsbnReq();
+        req.setIsbnNumber(ISBN);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+}
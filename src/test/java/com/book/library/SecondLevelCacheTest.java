@@ -0,0 +1,110 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.constant.CommonConstant;
+import com.book.library.model.Book;
+import com.book.library.repository.BookRepository;
+import com.book.library.service.CacheInvalidationService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that books are served from the second-level cache and that a change made by
+ * "another replica" (plain SQL plus a cache_version bump) is picked up by the poller.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Book book = new Book();
+        book.setIsbnNumber("978-0-00-999999");
+        book.setTitle("Cached Title");
+        book.setAuthor("Cached Author");
+        book.setCreatedDate(LocalDateTime.now());
+        bookId = bookRepository.save(book).getId();
+        cacheInvalidationService.pollVersions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteById(bookId);
+    }
+
+    @Test
+    void findById_RepeatedLookups_ServedFromCache() {
+        bookRepository.findById(bookId);
+        sessionFactory.getStatistics().clear();
+
+        bookRepository.findById(bookId);
+        bookRepository.findById(bookId);
+
+        CacheRegionStatistics stats = sessionFactory.getStatistics()
+                .getDomainDataRegionStatistics(CommonConstant.BOOK_CACHE_REGION);
+        assertEquals(2, stats.getHitCount());
+        assertEquals(0, stats.getMissCount());
+    }
+
+    @Test
+    void changeOnAnotherReplica_EvictedAfterPoll() {
+        assertEquals("Cached Title", bookRepository.findById(bookId).get().getTitle());
+
+        // another replica commits a change and bumps the region version
+        jdbcTemplate.update("update book set title = ? where id = ?", "Changed Title", bookId);
+        jdbcTemplate.update("update cache_version set version = version + 1 where region = ?",
+                CommonConstant.BOOK_CACHE_REGION);
+        assertEquals("Cached Title", bookRepository.findById(bookId).get().getTitle());
+
+        cacheInvalidationService.pollVersions();
+
+        assertEquals("Changed Title", bookRepository.findById(bookId).get().getTitle());
+    }
+
+    @Test
+    void localUpdate_BumpsRegionVersionAfterCommit() {
+        long before = version(CommonConstant.BOOK_CACHE_REGION);
+
+        Book book = bookRepository.findById(bookId).get();
+        book.setTitle("Updated Title");
+        bookRepository.save(book);
+
+        assertEquals(before + 1, version(CommonConstant.BOOK_CACHE_REGION));
+        assertEquals("Updated Title", bookRepository.findById(bookId).get().getTitle());
+    }
+
+    private long version(String region) {
+        return jdbcTemplate.queryForObject("select version from cache_version where region = ?", Long.class, region);
+    }
+}
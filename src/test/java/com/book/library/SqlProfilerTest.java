@@ -0,0 +1,114 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.config.SqlProfiler;
+import com.book.library.config.SqlProfilerEndpoint;
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.SqlShapeDTO;
+import com.book.library.service.BookService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SqlProfilerTest {
+
+    private static final String ISBN_PREFIX = "978-0-35-";
+
+    @Autowired
+    private SqlProfiler sqlProfiler;
+
+    @Autowired
+    private SqlProfilerEndpoint sqlProfilerEndpoint;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        sqlProfiler.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sqlProfiler.setSampleRate(0);
+        sqlProfiler.reset();
+        jdbcTemplate.update("delete from book where isbn_number like ?", ISBN_PREFIX + "%");
+        jdbcTemplate.update("delete from title_inventory where isbn_number like ?", ISBN_PREFIX + "%");
+    }
+
+    @Test
+    void shapeOf_GroupsStatementsDifferingOnlyInValues() {
+        assertEquals("select * from book where id in (?) and title = ? limit ?",
+                SqlProfiler.shapeOf("select *  from book\n where id in (1, 2, 3) and title = 'it''s' limit 10"));
+        assertEquals(SqlProfiler.shapeOf("insert into t (a, b) values (?, ?), (?, ?), (?, ?)"),
+                SqlProfiler.shapeOf("insert into t (a, b) values (?, ?)"));
+        assertEquals("select b1_0.id from book b1_0 where b1_0.id=?",
+                SqlProfiler.shapeOf("select b1_0.id from book b1_0 where b1_0.id=42"));
+    }
+
+    @Test
+    void samplingOff_HandsOutPoolConnections() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(Proxy.isProxyClass(connection.getClass()));
+        }
+        sqlProfiler.setSampleRate(1);
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(Proxy.isProxyClass(connection.getClass()));
+        }
+    }
+
+    @Test
+    void sampledStatements_AreCountedByShapeWithRows() {
+        sqlProfiler.setSampleRate(1);
+        for (int i = 1; i <= 3; i++) {
+            bookService.register(new BookDTO(null, ISBN_PREFIX + "00000" + i, "Profiled Title", "Profiled Author"));
+        }
+        assertEquals(3, bookService.filterBooks(null, ISBN_PREFIX, null, 10).getContent().size());
+        jdbcTemplate.queryForList("select id from book where isbn_number like '" + ISBN_PREFIX + "%'");
+        jdbcTemplate.queryForList("select id from book where isbn_number like '978-0-36-%'");
+
+        List<SqlShapeDTO> shapes = sqlProfiler.getTop(1000);
+        SqlShapeDTO insert = shape(shapes, "insert into book");
+        assertEquals(3, insert.getExecutions());
+        assertEquals(3, insert.getRows());
+        SqlShapeDTO filter = shape(shapes, "where b1_0.isbn_number like ?");
+        assertEquals(1, filter.getExecutions());
+        assertEquals(3, filter.getRows());
+        // literals differ, the shape is the same
+        SqlShapeDTO literal = shape(shapes, "select id from book where isbn_number like ?");
+        assertEquals(2, literal.getExecutions());
+        assertEquals(3, literal.getRows());
+        assertTrue(insert.getMaxMillis() > 0);
+
+        Map<String, Object> profile = sqlProfilerEndpoint.profile(1);
+        assertEquals(1.0, profile.get("sampleRate"));
+        assertEquals(1, ((List<?>) profile.get("shapes")).size());
+        assertTrue(((List<?>) sqlProfilerEndpoint.profile().get("shapes")).size() > 1);
+    }
+
+    private SqlShapeDTO shape(List<SqlShapeDTO> shapes, String fragment) {
+        return shapes.stream().filter(shape -> shape.getShape().contains(fragment)).findFirst()
+                .orElseThrow(() -> new AssertionError(fragment + " not in " + shapes));
+    }
+}
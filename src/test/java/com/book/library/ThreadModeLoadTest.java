@@ -0,0 +1,184 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.repository.BookRepository;
+import com.book.library.service.BookService;
+
+/**
+ * Load harness comparing the platform-thread and virtual-thread request modes. Boots the
+ * application once per mode, drives one endpoint from a fixed number of concurrent clients and
+ * logs throughput, latency and the extra heap and threads per in-flight request.
+ *
+ * Opt-in: mvn test -Pload-test [-Dload.concurrency=400 -Dload.seconds=10 -Dload.path=/v1/book/page?size=20]
+ * Runs on the in-memory test database by default; point spring.datasource.* at MySQL for
+ * realistic I/O wait. The virtual-thread run is skipped on runtimes older than Java 21.
+ */
+@Tag("load")
+class ThreadModeLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModeLoadTest.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+    private static final long SECONDS = Long.getLong("load.seconds", 10);
+    private static final String PATH = System.getProperty("load.path", "/v1/book/page?size=20");
+    private static final int SEED_BOOKS = 1000;
+
+    @Test
+    void compareThreadModes() throws Exception {
+        Result platform = run(false);
+        logger.info("platform threads : {}", platform);
+        assertTrue(platform.requests > 0);
+
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "virtual threads need a Java 21 runtime");
+        Result virtual = run(true);
+        logger.info("virtual threads  : {}", virtual);
+        logger.info("virtual/platform throughput ratio : {}",
+                String.format("%.2f", virtual.throughput() / platform.throughput()));
+        assertTrue(virtual.requests > 0);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + virtualThreads)
+                .run();
+        try {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(URI.create("http://localhost:" + port + PATH), virtualThreads);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        if (context.getBean(BookRepository.class).count() >= SEED_BOOKS) {
+            return;
+        }
+        List<BookDTO> books = IntStream.range(0, SEED_BOOKS)
+                .mapToObj(i -> new BookDTO(null, "978-1-00-" + i, "Load Title " + i, "Load Author"))
+                .toList();
+        context.getBean(BookService.class).registerBulk(books);
+    }
+
+    private Result drive(URI uri, boolean virtualThreads) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // warm up, then take the idle baseline
+        for (int i = 0; i < 200; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        int baselineThreads = threads.getThreadCount();
+
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong heapSum = new AtomicLong();
+        AtomicLong threadSum = new AtomicLong();
+        AtomicLong samples = new AtomicLong();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            clients.submit(() -> {
+                start.await();
+                List<Long> local = new ArrayList<>();
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    local.add(System.nanoTime() - sent);
+                    requests.incrementAndGet();
+                }
+                latencies.addAll(local);
+                return null;
+            });
+        }
+        // sample once the clients are saturating the server
+        sampler.scheduleAtFixedRate(() -> {
+            heapSum.addAndGet(memory.getHeapMemoryUsage().getUsed() - baselineHeap);
+            threadSum.addAndGet(threads.getThreadCount() - baselineThreads);
+            samples.incrementAndGet();
+        }, 1000, 200, TimeUnit.MILLISECONDS);
+
+        long started = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(SECONDS + 60, TimeUnit.SECONDS));
+        double elapsed = (System.nanoTime() - started) / 1_000_000_000.0;
+        sampler.shutdownNow();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long n = Math.max(1, samples.get());
+        return new Result(virtualThreads, requests.get(), errors.get(), elapsed,
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                heapSum.get() / n / CONCURRENCY, (double) threadSum.get() / n);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(p * sorted.size()))) / 1_000_000.0;
+    }
+
+    private record Result(boolean virtualThreads, long requests, long errors, double seconds,
+            double p50Millis, double p99Millis, long heapBytesPerInFlight, double extraThreads) {
+
+        double throughput() {
+            return requests / seconds;
+        }
+
+        @Override
+        public String toString() {
+            // extra threads include the client pool, which is the same size in both modes
+            return String.format("%d clients, %.1f req/s, %d errors, p50 %.1f ms, p99 %.1f ms, "
+                    + "~%d heap bytes per in-flight request, %.0f extra live threads",
+                    CONCURRENCY, throughput(), errors, p50Millis, p99Millis, heapBytesPerInFlight, extraThreads);
+        }
+    }
+}
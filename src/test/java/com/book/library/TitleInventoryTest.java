@@ -0,0 +1,158 @@
+package com.book.library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.book.library.dto.BookDTO;
+import com.book.library.dto.BorrowByIsbnReq;
+import com.book.library.dto.TitleAvailabilityDTO;
+import com.book.library.exception.BusinessException;
+import com.book.library.exception.ResourceNotFoundException;
+import com.book.library.model.Borrower;
+import com.book.library.repository.BorrowerRepository;
+import com.book.library.service.BookService;
+import com.book.library.service.BorrowBookHistoryService;
+
+/**
+ * Registers copies through the service and borrows them by ISBN from many threads at once:
+ * every copy is lent exactly once and the title counters always match the active loans.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TitleInventoryTest {
+
+    private static final String ISBN = "978-0-77-000001";
+    private static final String OTHER_REPLICAS_ISBN = "978-0-77-000002";
+    private static final int COPIES = 3;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowBookHistoryService borrowBookHistoryService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> borrowerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bookService.register(new BookDTO(null, ISBN, "Inventory Title", "Inventory Author"));
+        bookService.registerBulk(List.of(
+                new BookDTO(null, ISBN, "Inventory Title", "Inventory Author"),
+                new BookDTO(null, ISBN, "Inventory Title", "Inventory Author")));
+        for (int i = 0; i < THREADS; i++) {
+            borrowerIds.add(borrowerRepository.save(new Borrower(null, "Inventory " + i, "inventory" + i + "@example.com")).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from active_loan where borrower_id in (select id from borrower where email like 'inventory%')");
+        jdbcTemplate.update("delete from borrow_book_history where borrower_id in (select id from borrower where email like 'inventory%')");
+        jdbcTemplate.update("delete from book where isbn_number in (?, ?)", ISBN, OTHER_REPLICAS_ISBN);
+        jdbcTemplate.update("delete from title_inventory where isbn_number in (?, ?)", ISBN, OTHER_REPLICAS_ISBN);
+        borrowerRepository.deleteAllById(borrowerIds);
+    }
+
+    @Test
+    void register_CountsEveryCopy() {
+        List<TitleAvailabilityDTO> availability = bookService.getAvailability(List.of(ISBN, "978-0-77-999999"));
+
+        assertEquals(1, availability.size());
+        assertEquals(COPIES, availability.get(0).getTotalCopies());
+        assertEquals(COPIES, availability.get(0).getAvailableCopies());
+    }
+
+    @Test
+    void concurrentBorrowsByIsbn_EachCopyLentOnce() throws Exception {
+        Set<Long> lentCopies = ConcurrentHashMap.newKeySet();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long borrowerId : borrowerIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    lentCopies.add(borrowBookHistoryService.borrowBookByIsbn(request(borrowerId)).getBookId());
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(COPIES, lentCopies.size());
+        assertEquals(THREADS - COPIES, rejected.get());
+        assertEquals(0, bookService.getAvailability(List.of(ISBN)).get(0).getAvailableCopies());
+
+        Long copy = lentCopies.iterator().next();
+        Long borrowerId = jdbcTemplate.queryForObject("select borrower_id from active_loan where book_id = ?", Long.class, copy);
+        borrowBookHistoryService.returnBorrowBook(copy, borrowerId);
+
+        assertEquals(1, bookService.getAvailability(List.of(ISBN)).get(0).getAvailableCopies());
+        assertEquals(copy, borrowBookHistoryService.borrowBookByIsbn(request(borrowerId)).getBookId());
+    }
+
+    @Test
+    void register_IsbnJustRegisteredElsewhereWithOtherTitle_Rejected() {
+        // committed by another replica, not yet synced into this replica's ISBN registry
+        jdbcTemplate.update("insert into book (id, isbn_number, title, author)"
+                + " values (-1, ?, 'Elsewhere Title', 'Elsewhere Author')", OTHER_REPLICAS_ISBN);
+        jdbcTemplate.update("insert into title_inventory (isbn_number, title, author, total_copies, available_copies)"
+                + " values (?, 'Elsewhere Title', 'Elsewhere Author', 1, 1)", OTHER_REPLICAS_ISBN);
+
+        assertThrows(BusinessException.class,
+                () -> bookService.register(new BookDTO(null, OTHER_REPLICAS_ISBN, "Conflicting Title", "Elsewhere Author")));
+        assertFalse(bookService.registerBulk(List.of(
+                new BookDTO(null, OTHER_REPLICAS_ISBN, "Elsewhere Title", "Conflicting Author"))).getErrors().isEmpty());
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from book where isbn_number = ?", Integer.class,
+                OTHER_REPLICAS_ISBN));
+        assertEquals(1, bookService.getAvailability(List.of(OTHER_REPLICAS_ISBN)).get(0).getTotalCopies());
+    }
+
+    @Test
+    void borrowByIsbn_UnknownIsbn_NotFound() {
+        BorrowByIsbnReq req = request(borrowerIds.get(0));
+        req.setIsbnNumber("978-0-77-999999");
+
+        assertThrows(ResourceNotFoundException.class, () -> borrowBookHistoryService.borrowBookByIsbn(req));
+    }
+
+    private BorrowByIsbnReq request(Long borrowerId) {
+        BorrowByIsbnReq req = new BorrowByIsbnReq();
+        req.setIsbnNumber(ISBN);
+        req.setBorrowerId(borrowerId);
+        return req;
+    }
+}